@@ -0,0 +1,153 @@
+package org.example.CachingFunction;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of get() of the Cache implementations, for a given key distribution and ratio of hits to misses.
+ * Each iteration starts with a new cache holding all the KEY_SPACE keys which can be hit. A miss asks for a key which
+ * was never requested before in the iteration, so it always calls the cache's function.
+ * Throughput and sampled latency (with its percentiles) are measured by default; run with `-prof gc` to also
+ * report the allocation rate. To benchmark a new implementation, add it to create() and to the `cache` parameter.
+ * This class runs a single thread; MultiThreadedCacheBenchmark runs the same workload on many threads, without
+ * SimpleNotSynchronizedCache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class CacheBenchmark {
+
+    static final int KEY_SPACE = 1 << 16;
+    static final int SAMPLES = 1 << 20;
+    /**
+     * Keys a thread may miss per iteration, narrowed with many threads so that every thread's keys fit in an int.
+     */
+    static final int MISSES_PER_THREAD = 1 << 24;
+    static final String VALUE = "value";
+
+    @Param({"SimpleNotSynchronized", "Synchronized", "Concurrent", "TinyLfu", "Weighted", "Snapshot"})
+    String cache;
+
+    @Param({"uniform", "zipf", "scan"})
+    String distribution;
+
+    @Param({"100", "90", "75", "50"})
+    int hitPercent;
+
+    Cache<Integer, String> instance;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        instance = create(cache);
+        for (int i = 0; i < KEY_SPACE; ++i) {
+            instance.get(i);
+        }
+    }
+
+    static Cache<Integer, String> create(String name) {
+        switch (name) {
+            case "SimpleNotSynchronized":
+                return new SimpleNotSynchronizedCache<>(key -> VALUE);
+            case "Synchronized":
+                return new SynchronizedCache<>(key -> VALUE);
+            case "Concurrent":
+                return new ConcurrentCache<>(key -> VALUE);
+            case "TinyLfu":
+                return new TinyLfuCache<>(key -> VALUE, KEY_SPACE);
+            case "Weighted":
+                return new WeightedCache<>(key -> VALUE, (key, value) -> 1, 2L * KEY_SPACE);
+            case "Snapshot":
+                return new SnapshotCache<>(key -> VALUE);
+            default:
+                throw new IllegalArgumentException("Unknown cache \"" + name + "\".");
+        }
+    }
+
+    /**
+     * Sequence of keys requested by a single thread. Keys which are misses are stored as -1 and replaced with a new
+     * key when requested. Shared by the benchmark classes, so the parameters are read by name.
+     */
+    @State(Scope.Thread)
+    public static class Keys {
+        private int[] keys;
+        private int index;
+        private int firstMiss;
+        private int nextMiss;
+
+        @Setup(Level.Trial)
+        public void setUp(BenchmarkParams params, ThreadParams threads) {
+            final String distribution = params.getParam("distribution");
+            final int hitPercent = Integer.parseInt(params.getParam("hitPercent"));
+            final Random random = new Random(threads.getThreadIndex());
+            final double[] zipf = "zipf".equals(distribution) ? zipfCdf(KEY_SPACE, 0.99) : null;
+            int scan = threads.getThreadIndex() * (KEY_SPACE / threads.getThreadCount());
+            keys = new int[SAMPLES];
+            for (int i = 0; i < SAMPLES; ++i) {
+                if (random.nextInt(100) >= hitPercent) {
+                    keys[i] = -1;
+                } else if (null != zipf) {
+                    final int rank = Arrays.binarySearch(zipf, random.nextDouble());
+                    keys[i] = Math.min(rank < 0 ? -rank - 1 : rank, KEY_SPACE - 1);
+                } else if ("scan".equals(distribution)) {
+                    keys[i] = scan;
+                    scan = (scan + 1) % KEY_SPACE;
+                } else {
+                    keys[i] = random.nextInt(KEY_SPACE);
+                }
+            }
+            final long stride = Math.min(MISSES_PER_THREAD,
+                    ((long) Integer.MAX_VALUE - KEY_SPACE) / threads.getThreadCount());
+            firstMiss = (int) (KEY_SPACE + threads.getThreadIndex() * stride);
+        }
+
+        @Setup(Level.Iteration)
+        public void resetMisses() {
+            nextMiss = firstMiss;
+        }
+
+        int next() {
+            final int key = keys[index];
+            index = (index + 1) & (SAMPLES - 1);
+            return key >= 0 ? key : nextMiss++;
+        }
+
+        private static double[] zipfCdf(int size, double exponent) {
+            final double[] cdf = new double[size];
+            double sum = 0.0;
+            for (int rank = 0; rank < size; ++rank) {
+                sum += 1.0 / Math.pow(rank + 1, exponent);
+                cdf[rank] = sum;
+            }
+            for (int rank = 0; rank < size; ++rank) {
+                cdf[rank] /= sum;
+            }
+            return cdf;
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String get1Thread(Keys keys) {
+        return instance.get(keys.next());
+    }
+}
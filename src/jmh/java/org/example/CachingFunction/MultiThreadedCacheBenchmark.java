@@ -0,0 +1,61 @@
+package org.example.CachingFunction;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of get() of the thread-safe Cache implementations called by many threads, with the workload of
+ * CacheBenchmark. SimpleNotSynchronizedCache is left out, as it cannot be written by many threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class MultiThreadedCacheBenchmark {
+
+    @Param({"Synchronized", "Concurrent", "TinyLfu", "Weighted", "Snapshot"})
+    String cache;
+
+    @Param({"uniform", "zipf", "scan"})
+    String distribution;
+
+    @Param({"100", "90", "75", "50"})
+    int hitPercent;
+
+    Cache<Integer, String> instance;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        instance = CacheBenchmark.create(cache);
+        for (int i = 0; i < CacheBenchmark.KEY_SPACE; ++i) {
+            instance.get(i);
+        }
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String get4Threads(CacheBenchmark.Keys keys) {
+        return instance.get(keys.next());
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public String getMaxThreads(CacheBenchmark.Keys keys) {
+        return instance.get(keys.next());
+    }
+}
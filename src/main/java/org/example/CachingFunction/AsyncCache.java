@@ -0,0 +1,10 @@
+package org.example.CachingFunction;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Generic asynchronous caching interface.
+ */
+public interface AsyncCache<K, V> {
+    CompletableFuture<V> getAsync(K key);
+}
@@ -1,8 +1,25 @@
 package org.example.CachingFunction;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 /**
  * Generic caching interface.
  */
 public interface Cache<K, V> {
     V get(K key);
+
+    /**
+     * Get values associated with all the provided keys. By default, calls get() for each key, implementations may
+     * load the missing values in bulk.
+     * @param keys Keys of type K associated with the requested values.
+     * @return Map of the requested keys to their values, in the iteration order of `keys`.
+     */
+    default Map<K, V> getAll(Iterable<K> keys) {
+        final Map<K, V> result = new LinkedHashMap<>();
+        for (K key : keys) {
+            result.put(key, get(key));
+        }
+        return result;
+    }
 }
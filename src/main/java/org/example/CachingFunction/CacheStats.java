@@ -0,0 +1,122 @@
+package org.example.CachingFunction;
+
+import java.util.Arrays;
+
+/**
+ * Immutable snapshot of the statistics of a cache, returned by snapshot() of the caches.
+ */
+public final class CacheStats {
+
+    private final long hitCount;
+    private final long missCount;
+    private final long loadSuccessCount;
+    private final long loadFailureCount;
+    private final long evictionCount;
+    private final long totalLoadTimeNanos;
+    private final long[] loadTimeHistogram;
+    private final long size;
+
+    CacheStats(long hitCount, long missCount, long loadSuccessCount, long loadFailureCount, long evictionCount,
+               long totalLoadTimeNanos, long[] loadTimeHistogram, long size) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.loadSuccessCount = loadSuccessCount;
+        this.loadFailureCount = loadFailureCount;
+        this.evictionCount = evictionCount;
+        this.totalLoadTimeNanos = totalLoadTimeNanos;
+        this.loadTimeHistogram = loadTimeHistogram;
+        this.size = size;
+    }
+
+    /**
+     * Returns the number of lookups which found their value in the cache.
+     * @return Number of hits.
+     */
+    public long hitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Returns the number of lookups which did not find their value in the cache, including the ones which waited for
+     * a load started by another lookup.
+     * @return Number of misses.
+     */
+    public long missCount() {
+        return missCount;
+    }
+
+    /**
+     * Returns the ratio of hits to all lookups, or 1.0 if there were no lookups.
+     * @return Hit rate.
+     */
+    public double hitRate() {
+        final long requestCount = hitCount + missCount;
+        return 0L == requestCount ? 1.0 : (double) hitCount / requestCount;
+    }
+
+    /**
+     * Returns the number of successful loads.
+     * @return Number of successful loads.
+     */
+    public long loadSuccessCount() {
+        return loadSuccessCount;
+    }
+
+    /**
+     * Returns the number of loads which failed with an exception or returned no value.
+     * @return Number of failed loads.
+     */
+    public long loadFailureCount() {
+        return loadFailureCount;
+    }
+
+    /**
+     * Returns the number of entries evicted by the cache's policy.
+     * @return Number of evictions.
+     */
+    public long evictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * Returns the total time spent in loads, successful or not, in nanoseconds.
+     * @return Total load time in nanoseconds.
+     */
+    public long totalLoadTimeNanos() {
+        return totalLoadTimeNanos;
+    }
+
+    /**
+     * Returns the average time of a load, or 0.0 if there were no loads.
+     * @return Average load time in nanoseconds.
+     */
+    public double averageLoadPenaltyNanos() {
+        final long loadCount = loadSuccessCount + loadFailureCount;
+        return 0L == loadCount ? 0.0 : (double) totalLoadTimeNanos / loadCount;
+    }
+
+    /**
+     * Returns the histogram of load times. Element i is the number of loads which took [2^i, 2^(i+1)) microseconds,
+     * the first one also counts faster loads and the last one all the slower loads.
+     * @return Copy of the load time histogram.
+     */
+    public long[] loadTimeHistogram() {
+        return loadTimeHistogram.clone();
+    }
+
+    /**
+     * Returns the approximate number of entries of the cache when the snapshot was taken.
+     * @return Approximate size of the cache.
+     */
+    public long size() {
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStats{hitCount=" + hitCount + ", missCount=" + missCount
+                + ", loadSuccessCount=" + loadSuccessCount + ", loadFailureCount=" + loadFailureCount
+                + ", evictionCount=" + evictionCount + ", totalLoadTimeNanos=" + totalLoadTimeNanos
+                + ", loadTimeHistogram=" + Arrays.toString(loadTimeHistogram) + ", size=" + size + "}";
+    }
+}
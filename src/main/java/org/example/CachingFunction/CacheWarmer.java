@@ -0,0 +1,179 @@
+package org.example.CachingFunction;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Fills a cache with the values of a known set of keys before it starts serving traffic, by calling get() of the
+ * cache for the keys in parallel. As the values are loaded through get(), the warm-up keeps the cache's guarantees,
+ * e.g. a key requested by the warm-up and by a caller at the same time is still loaded once.
+ * The keys are read by the calling thread and loaded in chunks by a pool of `parallelism` threads; a bounded number of
+ * chunks is queued at a time, so a large key file is not read into memory at once.
+ * The keys can be read from a file with one key per line, which can be written by saveKeys() at shutdown, e.g. with
+ * the hot keys of a TinyLfuCache:
+ * <pre>
+ * Runtime.getRuntime().addShutdownHook(new Thread(() -> warmer.saveKeys(path, cache.hotKeys(10_000), String::valueOf)));
+ * </pre>
+ */
+public class CacheWarmer<K, V> {
+
+    private static final int DEFAULT_PROGRESS_INTERVAL = 1000;
+    private static final int CHUNK_SIZE = 64;
+
+    private final Cache<K, V> cache;
+    private final int parallelism;
+    private final int progressInterval;
+
+    /**
+     * Constructor for the CacheWarmer using as many threads as there are processors.
+     * @param cache Cache to warm up.
+     */
+    public CacheWarmer(Cache<K, V> cache) {
+        this(cache, Runtime.getRuntime().availableProcessors(), DEFAULT_PROGRESS_INTERVAL);
+    }
+
+    /**
+     * Constructor for the CacheWarmer.
+     * @param cache Cache to warm up.
+     * @param parallelism Number of threads loading the keys. Must be positive.
+     * @param progressInterval Number of keys between two progress reports. Must be positive.
+     */
+    public CacheWarmer(Cache<K, V> cache, int parallelism, int progressInterval) {
+        if (cache == null) {
+            throw new NullPointerException("Parameter \"cache\" cannot be null.");
+        }
+        if (parallelism <= 0 || progressInterval <= 0) {
+            throw new IllegalArgumentException("Parallelism and progress interval must be positive.");
+        }
+        this.cache = cache;
+        this.parallelism = parallelism;
+        this.progressInterval = progressInterval;
+    }
+
+    /**
+     * Loads the values of the keys in parallel, waiting for all of them. A key whose load throws a RuntimeException is
+     * skipped and counted as failed.
+     * @param keys Keys to load.
+     * @param progress Called with the number of keys processed and failed so far, every `progressInterval` keys and
+     *                 once at the end.
+     * @return Number of keys loaded successfully.
+     */
+    public long warmUp(Stream<K> keys, WarmUpProgress progress) {
+        if (keys == null) {
+            throw new NullPointerException("Parameter \"keys\" cannot be null.");
+        }
+        if (progress == null) {
+            throw new NullPointerException("Parameter \"progress\" cannot be null.");
+        }
+        final AtomicLong processed = new AtomicLong(0L);
+        final AtomicLong failed = new AtomicLong(0L);
+        final ArrayDeque<ForkJoinTask<?>> pending = new ArrayDeque<>();
+        final ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            final Iterator<K> iterator = keys.iterator();
+            while (iterator.hasNext()) {
+                final List<K> chunk = new ArrayList<>(CHUNK_SIZE);
+                while (chunk.size() < CHUNK_SIZE && iterator.hasNext()) {
+                    chunk.add(iterator.next());
+                }
+                if (pending.size() >= 2 * parallelism) {
+                    pending.poll().join();
+                }
+                pending.add(pool.submit(() -> load(chunk, processed, failed, progress)));
+            }
+            while (!pending.isEmpty()) {
+                pending.poll().join();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        progress.report(processed.get(), failed.get());
+        return processed.get() - failed.get();
+    }
+
+    private void load(List<K> chunk, AtomicLong processed, AtomicLong failed, WarmUpProgress progress) {
+        for (K key : chunk) {
+            try {
+                cache.get(key);
+            } catch (RuntimeException e) {
+                // The key is loaded again on its first get().
+                failed.incrementAndGet();
+            }
+            final long count = processed.incrementAndGet();
+            if (0L == count % progressInterval) {
+                progress.report(count, failed.get());
+            }
+        }
+    }
+
+    /**
+     * Loads the values of the keys in parallel, waiting for all of them. A key whose load fails is skipped.
+     * @param keys Keys to load.
+     * @return Number of keys loaded successfully.
+     */
+    public long warmUp(Stream<K> keys) {
+        return warmUp(keys, (processed, failed) -> { });
+    }
+
+    /**
+     * Loads the values of the keys listed in a file in parallel, waiting for all of them. Blank lines are skipped.
+     * @param keyFile UTF-8 file with one key per line.
+     * @param parser Function parsing a key from a line of the file.
+     * @param progress Called with the number of keys processed and failed so far, see warmUp(Stream, WarmUpProgress).
+     * @return Number of keys loaded successfully.
+     * @throws IOException If the file cannot be read.
+     */
+    public long warmUp(Path keyFile, Function<String, K> parser, WarmUpProgress progress) throws IOException {
+        if (parser == null) {
+            throw new NullPointerException("Parameter \"parser\" cannot be null.");
+        }
+        try (Stream<String> lines = Files.lines(keyFile, StandardCharsets.UTF_8)) {
+            return warmUp(lines.filter(line -> !line.isBlank()).map(parser), progress);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Writes the keys to a file, one per line, for a later warmUp(Path, ...). The file is replaced atomically, so an
+     * interrupted save leaves the previous file intact.
+     * @param keyFile UTF-8 file to write.
+     * @param keys Keys to write, e.g. the hot keys of the cache.
+     * @param formatter Function formatting a key as a single line, inverse of the parser used to read the file.
+     * @throws UncheckedIOException If the file cannot be written.
+     */
+    public void saveKeys(Path keyFile, Iterable<K> keys, Function<K, String> formatter) {
+        if (keys == null) {
+            throw new NullPointerException("Parameter \"keys\" cannot be null.");
+        }
+        if (formatter == null) {
+            throw new NullPointerException("Parameter \"formatter\" cannot be null.");
+        }
+        final Path tmp = keyFile.resolveSibling(keyFile.getFileName() + ".tmp");
+        try {
+            try (Writer writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                for (K key : keys) {
+                    writer.write(formatter.apply(key));
+                    writer.write('\n');
+                }
+            }
+            Files.move(tmp, keyFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
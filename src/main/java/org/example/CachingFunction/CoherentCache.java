@@ -0,0 +1,250 @@
+package org.example.CachingFunction;
+
+import java.io.Closeable;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Thread-safe cache kept coherent with the caches of peer processes loading from the same source. Invalidating a key
+ * removes it from the local ConcurrentCache and broadcasts it to the peers through an InvalidationTransport, and the
+ * invalidations received from the peers are applied to the local cache.
+ * Broadcasts are batched: invalidated keys are collected in a set, so a key invalidated many times between two
+ * flushes is sent once, and the set is flushed every `flushDelayMs` in as few messages as the transport allows.
+ * A key is removed from the set only once its message was sent, so the keys of a failed broadcast are sent again by
+ * the next flush. An invalidation also prevents a load of the key in flight from caching the value it loaded.
+ * A peer may therefore read a stale value for up to the flush delay plus the transport's latency. If the transport is
+ * best-effort, a lost message leaves the entries stale until they are invalidated again.
+ */
+public class CoherentCache<K, V> implements Cache<K, V>, Closeable {
+
+    private static final long DEFAULT_FLUSH_DELAY_MS = 10L;
+    private static final int HEADER_SIZE = Long.BYTES + Integer.BYTES;
+
+    private final ConcurrentCache<K, V> backing;
+    private final Serializer<K> keySerializer;
+    private final InvalidationTransport transport;
+    private final ConcurrentHashMap<K, byte[]> pending;
+    private final ScheduledExecutorService flusher;
+    private final Consumer<Throwable> errorHandler;
+    private final long nodeId;
+
+    /**
+     * Constructor for the CoherentCache flushing its invalidations every 10 ms.
+     * @param backing Local cache the values are read from.
+     * @param keySerializer Serializer of the keys sent to and received from the peers.
+     * @param transport Transport connecting the cache to its peers. Closed with the cache.
+     */
+    public CoherentCache(ConcurrentCache<K, V> backing, Serializer<K> keySerializer, InvalidationTransport transport) {
+        this(backing, keySerializer, transport, DEFAULT_FLUSH_DELAY_MS);
+    }
+
+    /**
+     * Constructor for the CoherentCache.
+     * @param backing Local cache the values are read from.
+     * @param keySerializer Serializer of the keys sent to and received from the peers.
+     * @param transport Transport connecting the cache to its peers. Closed with the cache.
+     * @param flushDelayMs Time in milliseconds between two flushes of the collected invalidations. Must be positive.
+     */
+    public CoherentCache(ConcurrentCache<K, V> backing, Serializer<K> keySerializer, InvalidationTransport transport,
+                         long flushDelayMs) {
+        this(backing, keySerializer, transport, flushDelayMs, CoherentCache::reportFailure);
+    }
+
+    /**
+     * Constructor for the CoherentCache.
+     * @param backing Local cache the values are read from.
+     * @param keySerializer Serializer of the keys sent to and received from the peers.
+     * @param transport Transport connecting the cache to its peers. Closed with the cache.
+     * @param flushDelayMs Time in milliseconds between two flushes of the collected invalidations. Must be positive.
+     * @param errorHandler Called with the exceptions thrown by the scheduled flushes, from the flushing thread.
+     */
+    public CoherentCache(ConcurrentCache<K, V> backing, Serializer<K> keySerializer, InvalidationTransport transport,
+                         long flushDelayMs, Consumer<Throwable> errorHandler) {
+        if (backing == null) {
+            throw new NullPointerException("Parameter \"backing\" cannot be null.");
+        }
+        if (keySerializer == null) {
+            throw new NullPointerException("Parameter \"keySerializer\" cannot be null.");
+        }
+        if (transport == null) {
+            throw new NullPointerException("Parameter \"transport\" cannot be null.");
+        }
+        if (errorHandler == null) {
+            throw new NullPointerException("Parameter \"errorHandler\" cannot be null.");
+        }
+        if (flushDelayMs <= 0L) {
+            throw new IllegalArgumentException("Parameter \"flushDelayMs\" must be positive.");
+        }
+        this.backing = backing;
+        this.keySerializer = keySerializer;
+        this.transport = transport;
+        this.errorHandler = errorHandler;
+        this.pending = new ConcurrentHashMap<>();
+        // Messages carry the sender's id, so a transport echoing them back to their sender is harmless.
+        this.nodeId = ThreadLocalRandom.current().nextLong();
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "coherent-cache-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        transport.start(this::receive);
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushDelayMs, flushDelayMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Get value of type V associated with the provided key of type K from the local cache, see ConcurrentCache.get().
+     * @param key Key of type K associated with the requested value.
+     * @return Requested value of type V associated with the provided `key`.
+     */
+    @Override
+    public V get(K key) {
+        return backing.get(key);
+    }
+
+    @Override
+    public Map<K, V> getAll(Iterable<K> keys) {
+        return backing.getAll(keys);
+    }
+
+    /**
+     * Removes the key from the local cache and queues its invalidation for the peers.
+     * @param key Key to invalidate.
+     * @throws IllegalArgumentException If the serialized key does not fit in a message of the transport.
+     */
+    public void invalidate(K key) {
+        if (null == key) {
+            throw new NullPointerException("Cannot invoke \"Object.hashCode()\" because \"key\" is null");
+        }
+        final byte[] bytes = keySerializer.serialize(key);
+        if (HEADER_SIZE + Integer.BYTES + bytes.length > transport.maxMessageSize()) {
+            throw new IllegalArgumentException("Serialized key of " + bytes.length
+                    + " bytes does not fit in a message of the transport.");
+        }
+        backing.invalidate(key);
+        pending.put(key, bytes);
+    }
+
+    /**
+     * Broadcasts the queued invalidations now, instead of waiting for the next scheduled flush.
+     * If the transport fails, the keys not sent yet stay queued for the next flush.
+     */
+    public synchronized void flush() {
+        ByteBuffer message = null;
+        final List<Map.Entry<K, byte[]>> batch = new ArrayList<>();
+        for (Map.Entry<K, byte[]> entry : pending.entrySet()) {
+            final byte[] bytes = entry.getValue();
+            if (null != message && message.remaining() < Integer.BYTES + bytes.length) {
+                send(message, batch);
+                message = null;
+            }
+            if (null == message) {
+                message = ByteBuffer.allocate(transport.maxMessageSize());
+                message.putLong(nodeId).putInt(0);
+            }
+            message.putInt(bytes.length).put(bytes);
+            batch.add(entry);
+        }
+        if (null != message) {
+            send(message, batch);
+        }
+    }
+
+    private void send(ByteBuffer message, List<Map.Entry<K, byte[]>> batch) {
+        message.putInt(Long.BYTES, batch.size());
+        final byte[] bytes = new byte[message.position()];
+        message.flip();
+        message.get(bytes);
+        transport.broadcast(bytes);
+        // A key invalidated again since it was read is queued with new bytes, and stays for the next flush.
+        for (Map.Entry<K, byte[]> entry : batch) {
+            pending.remove(entry.getKey(), entry.getValue());
+        }
+        batch.clear();
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            // An exception would cancel the scheduled flushes.
+            errorHandler.accept(e);
+        }
+    }
+
+    /**
+     * Default error handler of the cache and of the transports, passing the exception to the uncaught exception
+     * handler of the current thread.
+     */
+    static void reportFailure(Throwable e) {
+        final Thread thread = Thread.currentThread();
+        thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+    }
+
+    private void receive(byte[] message) {
+        final ByteBuffer buffer = ByteBuffer.wrap(message);
+        if (nodeId == buffer.getLong()) {
+            return;
+        }
+        final int count = buffer.getInt();
+        for (int i = 0; i < count; ++i) {
+            final int length = buffer.getInt();
+            final ByteBuffer keyBuffer = buffer.slice(buffer.position(), length);
+            buffer.position(buffer.position() + length);
+            // Applied locally only, re-broadcasting would bounce the key between the peers.
+            backing.invalidate(keySerializer.deserialize(keyBuffer));
+        }
+    }
+
+    /**
+     * Returns the number of invalidated keys waiting for the next flush.
+     * @return Number of queued invalidations.
+     */
+    public int pendingSize() {
+        return pending.size();
+    }
+
+    /**
+     * Returns size of the local cache.
+     * @return Size of the cache.
+     */
+    public int size() {
+        return backing.size();
+    }
+
+    /**
+     * Returns a snapshot of the statistics of the local cache.
+     * @return Statistics of the cache.
+     */
+    public CacheStats snapshot() {
+        return backing.snapshot();
+    }
+
+    /**
+     * Returns internal metric representing number of times the `srcFunc` was called.
+     * @return Number of times the `srcFunc` was called.
+     */
+    protected int getInitCounter() {
+        return backing.getInitCounter();
+    }
+
+    /**
+     * Broadcasts the queued invalidations, then stops the scheduled flushes and closes the transport.
+     */
+    @Override
+    public void close() {
+        flusher.shutdown();
+        try {
+            flush();
+        } finally {
+            transport.close();
+        }
+    }
+}
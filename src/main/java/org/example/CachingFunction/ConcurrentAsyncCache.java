@@ -0,0 +1,189 @@
+package org.example.CachingFunction;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Thread-safe asynchronous cache. Caches futures of values of type V associated with keys of type K.
+ * On a cache miss the provided function is called on the configured executor and the future of its result is cached
+ * straight away, so concurrent misses on the same key share a single future and a single call of the function.
+ * A future that completes exceptionally is removed from the cache, so the next request for the key loads it again.
+ * Also implements the blocking Cache interface, which waits for the future.
+ */
+public class ConcurrentAsyncCache<K, V> implements AsyncCache<K, V>, Cache<K, V> {
+
+    private static final int INITIAL_CAPACITY = 4096;
+    private final ConcurrentHashMap<K, CompletableFuture<V>> map;
+
+    private final Function<K, V> srcFunc;
+    private final Executor executor;
+    private final StatsCounter stats;
+
+    /**
+     * This field is for testing only. Incremented each time `srcFunc` is called.
+     */
+    private final AtomicInteger initCounter;
+
+    /**
+     * Constructor for the ConcurrentAsyncCache loading values on virtual threads, where the runtime supports them,
+     * or on a cached pool of daemon threads otherwise.
+     * @param srcFunc Function to be called on a cache miss to calculate value (V) associated with a key (K).
+     */
+    public ConcurrentAsyncCache(Function<K, V> srcFunc) {
+        this(srcFunc, defaultExecutor());
+    }
+
+    /**
+     * Constructor for the ConcurrentAsyncCache.
+     * @param srcFunc Function to be called on a cache miss to calculate value (V) associated with a key (K).
+     * @param executor Executor running the calls to `srcFunc`.
+     */
+    public ConcurrentAsyncCache(Function<K, V> srcFunc, Executor executor) {
+        if (srcFunc == null) {
+            throw new NullPointerException("Parameter \"srcFunc\" cannot be null.");
+        }
+        if (executor == null) {
+            throw new NullPointerException("Parameter \"executor\" cannot be null.");
+        }
+        this.srcFunc = srcFunc;
+        this.executor = executor;
+        this.map = new ConcurrentHashMap<>(INITIAL_CAPACITY);
+        this.stats = new StatsCounter(getClass().getSimpleName());
+        this.initCounter = new AtomicInteger(0);
+    }
+
+    /**
+     * Get future of the value of type V associated with the provided key of type K. Returns the cached future if there
+     * is one, whether it is completed or still loading. Otherwise, calls the provided Function<K, V> asynchronously and
+     * caches the future of its result.
+     * The returned future is shared by all callers and must not be completed or cancelled by them.
+     * @param key Key of type K associated with the requested value.
+     * @return Future of the requested value of type V associated with the provided `key`.
+     */
+    @Override
+    public CompletableFuture<V> getAsync(K key) {
+        if (null == key) {
+            throw new NullPointerException("Cannot invoke \"Object.hashCode()\" because \"key\" is null");
+        }
+
+        final CompletableFuture<V> cached = map.get(key);
+        if (null != cached) {
+            // A future still loading is a miss sharing another lookup's load.
+            if (cached.isDone()) {
+                stats.recordHit();
+            } else {
+                stats.recordMiss();
+            }
+            return cached;
+        }
+        stats.recordMiss();
+        final CompletableFuture<V> future = new CompletableFuture<>();
+        final CompletableFuture<V> inFlight = map.putIfAbsent(key, future);
+        if (null != inFlight) {
+            return inFlight;
+        }
+        try {
+            executor.execute(() -> load(key, future));
+        } catch (RuntimeException e) {
+            fail(key, future, e);
+        }
+        return future;
+    }
+
+    private void load(K key, CompletableFuture<V> future) {
+        final long start = System.nanoTime();
+        try {
+            final V value = srcFunc.apply(key);
+            if (null == value) {
+                throw new NullPointerException("The provided Function<K,V> returned null for the given \"key\"");
+            }
+            stats.recordLoadSuccess(key, System.nanoTime() - start);
+            initCounter.incrementAndGet();
+            future.complete(value);
+        } catch (Throwable e) {
+            stats.recordLoadFailure(key, System.nanoTime() - start);
+            fail(key, future, e);
+        }
+    }
+
+    /**
+     * Removes the future before failing it, so that anyone seeing the failure can already start a new load.
+     */
+    private void fail(K key, CompletableFuture<V> future, Throwable e) {
+        map.remove(key, future);
+        future.completeExceptionally(e);
+    }
+
+    /**
+     * Get value of type V associated with the provided key of type K, waiting for it to load if necessary.
+     * @param key Key of type K associated with the requested value.
+     * @return Requested value of type V associated with the provided `key`.
+     */
+    @Override
+    public V get(K key) {
+        try {
+            return getAsync(key).join();
+        } catch (CompletionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Returns size of the cache, including the values which are still being loaded.
+     * @return Size of the cache.
+     */
+    public int size() {
+        return map.size();
+    }
+
+    /**
+     * Returns a snapshot of the statistics of the cache. A request finding the future of a value still being loaded
+     * counts as a miss. Its size includes the values which are still being loaded.
+     * @return Snapshot of the statistics.
+     */
+    public CacheStats snapshot() {
+        return stats.snapshot(map.size());
+    }
+
+    /**
+     * Returns internal metric representing number of times the `srcFunc` was called.
+     * Note that this counts successful calls to `srcFunc` which did not result in raising exceptions.
+     * @return Number of times the `srcFunc` was called.
+     */
+    protected int getInitCounter() {
+        return initCounter.get();
+    }
+
+    /**
+     * Returns a virtual-thread-per-task executor when running on a JDK that has one (21+), or a cached pool of daemon
+     * threads otherwise. Looked up reflectively so the project still builds on older JDKs.
+     */
+    static Executor defaultExecutor() {
+        try {
+            return (ExecutorService) MethodHandles.publicLookup()
+                    .findStatic(Executors.class, "newVirtualThreadPerTaskExecutor", MethodType.methodType(ExecutorService.class))
+                    .invoke();
+        } catch (Throwable e) {
+            return Executors.newCachedThreadPool(runnable -> {
+                final Thread thread = new Thread(runnable, "cache-loader");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
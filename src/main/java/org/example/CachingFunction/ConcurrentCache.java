@@ -0,0 +1,491 @@
+package org.example.CachingFunction;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Thread-safe cache with a lock-free hit path. A cached value is returned straight from a ConcurrentHashMap read,
+ * without taking any lock. On a cache miss the value is loaded by calling the provided function. Concurrent misses on
+ * the same key share a single in-flight load, while loads of different keys never block each other.
+ * Optionally, a batch loader can be provided to load all values missed by a getAll() call at once. With a batch
+ * loader, micro-batching can also be enabled: misses of get() calls arriving from any threads within a short window
+ * are then collected and loaded together, with a single call to the batch loader.
+ * As no lock is held while loading, the function may itself call get() of the cache, e.g. for recursive memoization.
+ * A load which (directly or through loads of other threads) depends on its own value fails with an
+ * IllegalStateException instead of waiting forever.
+ */
+public class ConcurrentCache<K, V> implements Cache<K, V> {
+
+    private static final int INITIAL_CAPACITY = 4096;
+    private final ConcurrentHashMap<K, V> map;
+    private final ConcurrentHashMap<K, Load<V>> loads;
+    private final ConcurrentHashMap<Thread, Load<V>> waiters;
+
+    private final Function<K, V> srcFunc;
+    private final Function<Set<K>, Map<K, V>> batchLoader;
+    private final int maxBatchSize;
+    private final long maxBatchDelayNanos;
+    private final Object batchLock;
+    private Batch<K, V> pendingBatch;
+    private final StatsCounter stats;
+    private final AtomicLong epoch;
+
+    /**
+     * This field is for testing only. Incremented each time `srcFunc` is called.
+     */
+    private final AtomicInteger initCounter;
+
+    /**
+     * Constructor for the thread-safe ConcurrentCache.
+     * @param srcFunc Function to be called on a cache miss to calculate value (V) associated with a key (K).
+     */
+    public ConcurrentCache(Function<K, V> srcFunc) {
+        this(srcFunc, null);
+    }
+
+    /**
+     * Constructor for the thread-safe ConcurrentCache with a batch loader.
+     * @param srcFunc Function to be called on a cache miss to calculate value (V) associated with a key (K).
+     * @param batchLoader Function to be called by getAll() to calculate values of all the missed keys in one call.
+     *                    If null, getAll() loads the missed keys one by one with `srcFunc`.
+     */
+    public ConcurrentCache(Function<K, V> srcFunc, Function<Set<K>, Map<K, V>> batchLoader) {
+        this(srcFunc, batchLoader, 1, 0L);
+    }
+
+    /**
+     * Constructor for the thread-safe ConcurrentCache with micro-batching of misses.
+     * A batch is loaded as soon as it holds `maxBatchSize` keys, or `maxBatchDelayMs` after its first key arrived.
+     * @param srcFunc Function to be called on a cache miss to calculate value (V) associated with a key (K),
+     *                when micro-batching is disabled.
+     * @param batchLoader Function to be called to calculate values of a batch of missed keys in one call.
+     * @param maxBatchSize Maximum number of keys in a batch. Micro-batching is disabled if it is 1.
+     * @param maxBatchDelayMs Maximum time in milliseconds a miss waits for other misses to join its batch.
+     */
+    public ConcurrentCache(Function<K, V> srcFunc, Function<Set<K>, Map<K, V>> batchLoader,
+                           int maxBatchSize, long maxBatchDelayMs) {
+        if (srcFunc == null) {
+            throw new NullPointerException("Parameter \"srcFunc\" cannot be null.");
+        }
+        if (maxBatchSize < 1 || maxBatchDelayMs < 0L) {
+            throw new IllegalArgumentException("Batch size must be positive and batch delay cannot be negative.");
+        }
+        if (maxBatchSize > 1 && batchLoader == null) {
+            throw new NullPointerException("Parameter \"batchLoader\" cannot be null when micro-batching is enabled.");
+        }
+        this.srcFunc = srcFunc;
+        this.batchLoader = batchLoader;
+        this.maxBatchSize = maxBatchSize;
+        this.maxBatchDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxBatchDelayMs);
+        this.batchLock = new Object();
+        this.map = new ConcurrentHashMap<>(INITIAL_CAPACITY);
+        this.loads = new ConcurrentHashMap<>();
+        this.waiters = new ConcurrentHashMap<>();
+        this.stats = new StatsCounter(getClass().getSimpleName());
+        this.epoch = new AtomicLong(0L);
+        this.initCounter = new AtomicInteger(0);
+    }
+
+    /**
+     * Get value of type V associated with the provided key of type K from the internal collection if the value is
+     * cached. Otherwise, calls the provided Function<K, V> to calculate the value, cache it and return.
+     * If another thread is already loading the same key, waits for that load instead of calling the function again.
+     * @param key Key of type K associated with the requested value.
+     * @return Requested value of type V associated with the provided `key`.
+     */
+    @Override
+    public V get(K key) {
+        if (null == key) {
+            throw new NullPointerException("Cannot invoke \"Object.hashCode()\" because \"key\" is null");
+        }
+
+        final V value = map.get(key);
+        if (null != value) {
+            stats.recordHit();
+            return value;
+        }
+        stats.recordMiss();
+        return load(key);
+    }
+
+    /**
+     * Loads the value for the given key, or joins the load already in flight for it.
+     * @param key Key of type K associated with the requested value.
+     * @return Loaded value of type V.
+     */
+    private V load(K key) {
+        final Load<V> future = new Load<>();
+        final Load<V> inFlight = loads.putIfAbsent(key, future);
+        if (null != inFlight) {
+            return awaitLoad(key, inFlight);
+        }
+        if (maxBatchSize > 1) {
+            return loadBatched(key, future);
+        }
+        try {
+            // A load may have been published between the map read in get() and registering this one.
+            V value = map.get(key);
+            if (null == value) {
+                final long start = System.nanoTime();
+                try {
+                    value = srcFunc.apply(key);
+                } catch (RuntimeException | Error e) {
+                    stats.recordLoadFailure(key, System.nanoTime() - start);
+                    throw e;
+                }
+                if (null == value) {
+                    stats.recordLoadFailure(key, System.nanoTime() - start);
+                    throw new NullPointerException("The provided Function<K,V> returned null for the given \"key\"");
+                }
+                stats.recordLoadSuccess(key, System.nanoTime() - start);
+                cache(key, value, future);
+                initCounter.incrementAndGet();
+            }
+            future.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loads.remove(key, future);
+        }
+    }
+
+    /**
+     * Adds the key, already registered in `loads`, to the pending batch and waits for the batch to be loaded.
+     * The thread opening a batch leads it: it waits until the batch is full or its window has passed, and then calls
+     * the batch loader for all the keys collected in the meantime.
+     * @param key Key of type K associated with the requested value.
+     * @param future Future registered in `loads` for the key.
+     * @return Loaded value of type V.
+     */
+    private V loadBatched(K key, Load<V> future) {
+        final Batch<K, V> batch;
+        final boolean leader;
+        synchronized (batchLock) {
+            leader = null == pendingBatch;
+            if (leader) {
+                pendingBatch = new Batch<>();
+            }
+            batch = pendingBatch;
+            // The leader loads the key, so a batch loader calling get() for a key of its own batch is seen as a cycle.
+            future.owner = batch.leader;
+            batch.futures.put(key, future);
+            if (batch.futures.size() >= maxBatchSize) {
+                pendingBatch = null;
+                batch.full.countDown();
+            }
+        }
+        if (leader) {
+            try {
+                batch.full.await(maxBatchDelayNanos, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            synchronized (batchLock) {
+                if (pendingBatch == batch) {
+                    pendingBatch = null;
+                }
+            }
+            try {
+                loadAll(batch.futures, new HashMap<>());
+            } catch (RuntimeException | Error e) {
+                // Already delivered to every caller of the batch through its future.
+            }
+        }
+        return awaitLoad(key, future);
+    }
+
+    /**
+     * Get values associated with all the provided keys. Cached values are returned straight away, keys already being
+     * loaded by other threads are waited for, and all the remaining keys are loaded with a single call to the batch
+     * loader (or one by one with `srcFunc` when there is no batch loader).
+     * @param keys Keys of type K associated with the requested values.
+     * @return Map of the requested keys to their values, in the iteration order of `keys`.
+     */
+    @Override
+    public Map<K, V> getAll(Iterable<K> keys) {
+        // Keys are read once, and all checked before any load is registered, so a null key leaves no load behind.
+        final Set<K> requested = new LinkedHashSet<>();
+        for (K key : keys) {
+            if (null == key) {
+                throw new NullPointerException("Cannot invoke \"Object.hashCode()\" because \"key\" is null");
+            }
+            requested.add(key);
+        }
+        final Map<K, V> found = new HashMap<>();
+        final Map<K, Load<V>> waiting = new HashMap<>();
+        final Map<K, Load<V>> owned = new LinkedHashMap<>();
+        try {
+            for (K key : requested) {
+                final V value = map.get(key);
+                if (null != value) {
+                    stats.recordHit();
+                    found.put(key, value);
+                    continue;
+                }
+                stats.recordMiss();
+                if (null == batchLoader) {
+                    found.put(key, load(key));
+                } else {
+                    final Load<V> future = new Load<>();
+                    final Load<V> inFlight = loads.putIfAbsent(key, future);
+                    if (null != inFlight) {
+                        waiting.put(key, inFlight);
+                    } else {
+                        owned.put(key, future);
+                    }
+                }
+            }
+            if (!owned.isEmpty()) {
+                loadAll(owned, found);
+            }
+        } catch (RuntimeException | Error e) {
+            // Callers waiting for the owned loads would otherwise never be woken up.
+            for (CompletableFuture<V> future : owned.values()) {
+                future.completeExceptionally(e);
+            }
+            throw e;
+        } finally {
+            for (Map.Entry<K, Load<V>> entry : owned.entrySet()) {
+                loads.remove(entry.getKey(), entry.getValue());
+            }
+        }
+        for (Map.Entry<K, Load<V>> entry : waiting.entrySet()) {
+            found.put(entry.getKey(), awaitLoad(entry.getKey(), entry.getValue()));
+        }
+
+        final Map<K, V> result = new LinkedHashMap<>();
+        for (K key : requested) {
+            result.put(key, found.get(key));
+        }
+        return result;
+    }
+
+    /**
+     * Loads the keys this thread registered loads for with a single call to the batch loader, and completes their
+     * futures. Fails all of them if the batch loader fails, or if it does not return a value for every key.
+     * @param owned Keys registered in `loads` by this thread, with their futures.
+     * @param found Map receiving the loaded values.
+     */
+    private void loadAll(Map<K, Load<V>> owned, Map<K, V> found) {
+        try {
+            // A load may have been published between the map read in getAll() and registering this one.
+            final Map<K, V> cached = new HashMap<>();
+            for (K key : owned.keySet()) {
+                final V value = map.get(key);
+                if (null != value) {
+                    cached.put(key, value);
+                }
+            }
+            final Set<K> missing = new LinkedHashSet<>(owned.keySet());
+            missing.removeAll(cached.keySet());
+            final Map<K, V> loaded = missing.isEmpty() ? Collections.emptyMap() : loadMissing(missing);
+            for (K key : missing) {
+                cache(key, loaded.get(key), owned.get(key));
+                initCounter.incrementAndGet();
+            }
+            cached.putAll(loaded);
+            for (Map.Entry<K, Load<V>> entry : owned.entrySet()) {
+                final V value = cached.get(entry.getKey());
+                found.put(entry.getKey(), value);
+                entry.getValue().complete(value);
+            }
+        } catch (RuntimeException | Error e) {
+            for (CompletableFuture<V> future : owned.values()) {
+                future.completeExceptionally(e);
+            }
+            throw e;
+        } finally {
+            for (Map.Entry<K, Load<V>> entry : owned.entrySet()) {
+                loads.remove(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Caches a loaded value, unless the key was invalidated while it was being loaded: the value may then have been
+     * read from the source before it changed.
+     * The load is marked before the invalidation removes the key, and checked after the value is cached, so either
+     * the check sees the mark, or the removal comes after the value was cached.
+     */
+    private void cache(K key, V value, Load<V> load) {
+        map.put(key, value);
+        if (load.invalidated) {
+            map.remove(key, value);
+        }
+    }
+
+    /**
+     * Calls the batch loader for the given keys and checks it returned a value for each of them.
+     * @param missing Keys to load.
+     * @return Loaded values.
+     */
+    private Map<K, V> loadMissing(Set<K> missing) {
+        final long start = System.nanoTime();
+        final Map<K, V> loaded;
+        try {
+            loaded = batchLoader.apply(Collections.unmodifiableSet(missing));
+        } catch (RuntimeException | Error e) {
+            stats.recordLoadFailure(missing, System.nanoTime() - start);
+            throw e;
+        }
+        if (null == loaded) {
+            stats.recordLoadFailure(missing, System.nanoTime() - start);
+            throw new NullPointerException("The provided batch loader returned null for the given \"keys\"");
+        }
+        for (K key : missing) {
+            if (null == loaded.get(key)) {
+                stats.recordLoadFailure(missing, System.nanoTime() - start);
+                throw new NullPointerException("The provided batch loader returned no value for key \"" + key + "\"");
+            }
+        }
+        stats.recordLoadSuccess(missing, System.nanoTime() - start);
+        return loaded;
+    }
+
+    /**
+     * Waits for a load registered by another thread, unless the wait would never end: when the load is owned by the
+     * current thread (a function calling get() for its own key), or waits for a load owned by the current thread,
+     * directly or through a chain of loads of other threads.
+     * Each waiting thread records the load it waits for, so following load owners through these records walks the
+     * wait-for graph.
+     * @param key Key of the load.
+     * @param load In-flight load of the key.
+     * @return Loaded value of type V.
+     */
+    private V awaitLoad(K key, Load<V> load) {
+        final Thread current = Thread.currentThread();
+        waiters.put(current, load);
+        try {
+            Load<V> next = load;
+            // The walk is bounded, as cycles of other threads may be met while they are being detected.
+            for (int steps = 0; null != next && !next.isDone() && steps <= waiters.size(); ++steps) {
+                if (next.owner == current) {
+                    throw new IllegalStateException("Cyclic load detected: loading the value for key \"" + key
+                            + "\" depends on itself.");
+                }
+                next = waiters.get(next.owner);
+            }
+            return await(load);
+        } finally {
+            waiters.remove(current, load);
+        }
+    }
+
+    /**
+     * Waits for a load started by another thread and rethrows its failure unchanged.
+     * @param future Future of the in-flight load.
+     * @return Loaded value of type V.
+     */
+    private V await(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Removes the value associated with the provided key, so that the next get() loads it again.
+     * A load of the key in flight at the time of the call still returns the value it loaded to its callers, but does
+     * not cache it.
+     * @param key Key of type K associated with the value to remove.
+     */
+    public void invalidate(K key) {
+        if (null == key) {
+            throw new NullPointerException("Cannot invoke \"Object.hashCode()\" because \"key\" is null");
+        }
+        final Load<V> load = loads.get(key);
+        if (null != load) {
+            load.invalidated = true;
+        }
+        map.remove(key);
+        epoch.incrementAndGet();
+    }
+
+    /**
+     * Removes all the cached values. The loads in flight at the time of the call do not cache the values they loaded.
+     */
+    public void invalidateAll() {
+        for (Load<V> load : loads.values()) {
+            load.invalidated = true;
+        }
+        map.clear();
+        epoch.incrementAndGet();
+    }
+
+    /**
+     * Returns the invalidation epoch of the cache, incremented after each invalidation. Caches layered over this one
+     * keep copies of its values only as long as the epoch they read before copying them is current.
+     * @return Current invalidation epoch.
+     */
+    public long getEpoch() {
+        return epoch.get();
+    }
+
+    /**
+     * Returns size of the cache.
+     * @return Size of the cache.
+     */
+    public int size() {
+        return map.size();
+    }
+
+    /**
+     * Returns a snapshot of the statistics of the cache. A call to the batch loader is recorded as a single load.
+     * @return Snapshot of the statistics.
+     */
+    public CacheStats snapshot() {
+        return stats.snapshot(map.size());
+    }
+
+    /**
+     * Returns internal metric representing number of times the `srcFunc` was called.
+     * Note that this counts successful calls to `srcFunc` which did not result in raising exceptions, and counts each
+     * value loaded by the batch loader as one call.
+     * @return Number of times the `srcFunc` was called.
+     */
+    protected int getInitCounter() {
+        return initCounter.get();
+    }
+
+    /**
+     * Future of an in-flight load, remembering the thread loading it (the one which registered it, or the leader of
+     * its batch), and whether its key was invalidated
+     * while it was loading.
+     */
+    static final class Load<V> extends CompletableFuture<V> {
+        volatile Thread owner = Thread.currentThread();
+        volatile boolean invalidated;
+    }
+
+    /**
+     * Keys collected for a single call to the batch loader. Futures are guarded by the batch lock until the batch is
+     * closed, after which only its leader reads them.
+     */
+    static final class Batch<K, V> {
+        final Thread leader = Thread.currentThread();
+        final Map<K, Load<V>> futures = new LinkedHashMap<>();
+        final CountDownLatch full = new CountDownLatch(1);
+    }
+}
@@ -0,0 +1,281 @@
+package org.example.CachingFunction;
+
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Thread-safe cache bounded by the total weight of its entries, evicting by the GreedyDual-Size-Frequency policy.
+ * The time each call to `srcFunc` takes is measured and kept as the cost of the entry. The priority of an entry is
+ * `L + frequency * cost / weight`, and the entry with the lowest priority is evicted first, so values which are
+ * expensive to recompute, often read and small are kept longest. L is the priority of the last evicted entry; it
+ * only grows, which ages the entries that stopped being read.
+ * A hit only increments the entry's frequency atomically, without any lock. Priorities are recomputed lazily: an entry
+ * met at the head of the eviction queue with a frequency changed since it was queued is requeued with a fresh priority
+ * instead of being evicted. An entry is requeued at most once per eviction, so constant hits cannot keep the eviction
+ * spinning while it holds the queue's lock.
+ * A value heavier than the whole budget is returned but not cached.
+ */
+public class CostAwareCache<K, V> implements Cache<K, V> {
+
+    private static final int INITIAL_CAPACITY = 4096;
+
+    private final ConcurrentHashMap<K, Node<K, V>> map;
+    private final ConcurrentHashMap<K, CompletableFuture<V>> loads;
+    private final long maximumWeight;
+
+    // Fields below are guarded by `queue`.
+    private final PriorityQueue<Node<K, V>> queue;
+    private double inflation;
+    private long weight;
+    private long evictions;
+
+    private final Function<K, V> srcFunc;
+    private final Weigher<K, V> weigher;
+    private final LongSupplier ticker;
+    private final StatsCounter stats;
+
+    /**
+     * This field is for testing only. Incremented each time `srcFunc` is called.
+     */
+    private final AtomicInteger initCounter;
+
+    /**
+     * Constructor for the CostAwareCache bounded by the number of entries.
+     * @param srcFunc Function to be called on a cache miss to calculate value (V) associated with a key (K).
+     * @param maximumSize Maximum number of entries kept in the cache. Must be positive.
+     */
+    public CostAwareCache(Function<K, V> srcFunc, long maximumSize) {
+        this(srcFunc, (key, value) -> 1, maximumSize);
+    }
+
+    /**
+     * Constructor for the CostAwareCache.
+     * @param srcFunc Function to be called on a cache miss to calculate value (V) associated with a key (K).
+     * @param weigher Weigher calculating the weight (size) of each loaded entry.
+     * @param maximumWeight Budget for the total weight of the cached entries. Must be positive.
+     */
+    public CostAwareCache(Function<K, V> srcFunc, Weigher<K, V> weigher, long maximumWeight) {
+        this(srcFunc, weigher, maximumWeight, System::nanoTime);
+    }
+
+    /**
+     * Constructor for the CostAwareCache.
+     * @param srcFunc Function to be called on a cache miss to calculate value (V) associated with a key (K).
+     * @param weigher Weigher calculating the weight (size) of each loaded entry.
+     * @param maximumWeight Budget for the total weight of the cached entries. Must be positive.
+     * @param ticker Source of the time in nanoseconds, used to measure the cost of the calls to `srcFunc`.
+     */
+    public CostAwareCache(Function<K, V> srcFunc, Weigher<K, V> weigher, long maximumWeight, LongSupplier ticker) {
+        if (srcFunc == null) {
+            throw new NullPointerException("Parameter \"srcFunc\" cannot be null.");
+        }
+        if (weigher == null) {
+            throw new NullPointerException("Parameter \"weigher\" cannot be null.");
+        }
+        if (ticker == null) {
+            throw new NullPointerException("Parameter \"ticker\" cannot be null.");
+        }
+        if (maximumWeight <= 0L) {
+            throw new IllegalArgumentException("Parameter \"maximumWeight\" must be positive.");
+        }
+        this.srcFunc = srcFunc;
+        this.weigher = weigher;
+        this.maximumWeight = maximumWeight;
+        this.ticker = ticker;
+        this.map = new ConcurrentHashMap<>(INITIAL_CAPACITY);
+        this.loads = new ConcurrentHashMap<>();
+        this.queue = new PriorityQueue<>((a, b) -> Double.compare(a.priority, b.priority));
+        this.stats = new StatsCounter(getClass().getSimpleName());
+        this.initCounter = new AtomicInteger(0);
+    }
+
+    /**
+     * Get value of type V associated with the provided key of type K from the internal collection if the value is
+     * cached. Otherwise, calls the provided Function<K, V> to calculate the value, cache it and return.
+     * Adding a value may evict the entries with the lowest priority to keep the cache within its budget.
+     * @param key Key of type K associated with the requested value.
+     * @return Requested value of type V associated with the provided `key`.
+     */
+    @Override
+    public V get(K key) {
+        if (null == key) {
+            throw new NullPointerException("Cannot invoke \"Object.hashCode()\" because \"key\" is null");
+        }
+
+        final Node<K, V> node = map.get(key);
+        if (null != node) {
+            Node.FREQUENCY.incrementAndGet(node);
+            stats.recordHit();
+            return node.value;
+        }
+        stats.recordMiss();
+        return load(key);
+    }
+
+    private V load(K key) {
+        final CompletableFuture<V> future = new CompletableFuture<>();
+        final CompletableFuture<V> inFlight = loads.putIfAbsent(key, future);
+        if (null != inFlight) {
+            return await(inFlight);
+        }
+        try {
+            // A load may have been published between the map read in get() and registering this one.
+            final Node<K, V> existing = map.get(key);
+            if (null != existing) {
+                future.complete(existing.value);
+                return existing.value;
+            }
+            final long start = ticker.getAsLong();
+            final V value;
+            try {
+                value = srcFunc.apply(key);
+            } catch (RuntimeException | Error e) {
+                stats.recordLoadFailure(key, ticker.getAsLong() - start);
+                throw e;
+            }
+            final long cost = ticker.getAsLong() - start;
+            if (null == value) {
+                stats.recordLoadFailure(key, cost);
+                throw new NullPointerException("The provided Function<K,V> returned null for the given \"key\"");
+            }
+            stats.recordLoadSuccess(key, cost);
+            initCounter.incrementAndGet();
+            final int entryWeight = weigher.weigh(key, value);
+            if (entryWeight < 0) {
+                throw new IllegalArgumentException("The provided Weigher<K,V> returned a negative weight.");
+            }
+            if (entryWeight <= maximumWeight) {
+                add(new Node<>(key, value, entryWeight, Math.max(cost, 1L)));
+            }
+            future.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loads.remove(key, future);
+        }
+    }
+
+    private V await(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Queues the new entry and evicts the entries with the lowest priority until the cache is within its budget.
+     */
+    private void add(Node<K, V> node) {
+        synchronized (queue) {
+            map.put(node.key, node);
+            prioritize(node);
+            queue.add(node);
+            weight += node.weight;
+            final long eviction = ++evictions;
+            while (weight > maximumWeight) {
+                final Node<K, V> head = queue.poll();
+                if (head.queuedFrequency != head.frequency && head.requeuedBy != eviction) {
+                    // Read since it was queued: requeued with its current priority, once per eviction.
+                    head.requeuedBy = eviction;
+                    prioritize(head);
+                    queue.add(head);
+                    continue;
+                }
+                inflation = head.priority;
+                weight -= head.weight;
+                map.remove(head.key, head);
+                stats.recordEviction();
+            }
+        }
+    }
+
+    private void prioritize(Node<K, V> node) {
+        final int frequency = node.frequency;
+        node.queuedFrequency = frequency;
+        node.priority = inflation + (double) frequency * node.cost / Math.max(node.weight, 1);
+    }
+
+    /**
+     * Returns size of the cache.
+     * @return Size of the cache.
+     */
+    public int size() {
+        return map.size();
+    }
+
+    /**
+     * Returns the total weight of the cached entries.
+     * @return Total weight of the cached entries.
+     */
+    public long getWeight() {
+        synchronized (queue) {
+            return weight;
+        }
+    }
+
+    /**
+     * Returns the budget for the total weight of the cached entries.
+     * @return Maximum total weight.
+     */
+    public long getMaximumWeight() {
+        return maximumWeight;
+    }
+
+    /**
+     * Returns a snapshot of the statistics of the cache. Its total load time is the recomputation time spent on misses.
+     * @return Snapshot of the statistics.
+     */
+    public CacheStats snapshot() {
+        return stats.snapshot(map.size());
+    }
+
+    /**
+     * Returns internal metric representing number of times the `srcFunc` was called.
+     * Note that this counts successful calls to `srcFunc` which did not result in raising exceptions.
+     * @return Number of times the `srcFunc` was called.
+     */
+    protected int getInitCounter() {
+        return initCounter.get();
+    }
+
+    /**
+     * Cache entry. Priority, queued frequency and the last eviction requeuing it are guarded by the queue's lock.
+     */
+    static final class Node<K, V> {
+        @SuppressWarnings("rawtypes")
+        static final AtomicIntegerFieldUpdater<Node> FREQUENCY =
+                AtomicIntegerFieldUpdater.newUpdater(Node.class, "frequency");
+
+        final K key;
+        final V value;
+        final int weight;
+        final long cost;
+        volatile int frequency = 1;
+        int queuedFrequency;
+        long requeuedBy;
+        double priority;
+
+        Node(K key, V value, int weight, long cost) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+            this.cost = cost;
+        }
+    }
+}
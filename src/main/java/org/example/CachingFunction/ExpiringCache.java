@@ -0,0 +1,282 @@
+package org.example.CachingFunction;
+
+import org.example.DeadlineEngine.DeadlineEngine;
+import org.example.DeadlineEngine.SynchronizedDeadlineEngine;
+
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Thread-safe cache whose entries expire a fixed time after they were written (time-to-live) and/or after they
+ * were last read (time-to-idle).
+ * Each entry schedules a deadline in a DeadlineEngine. Expired entries are reclaimed incrementally: a get() never
+ * returns an expired value, and each load (or an explicit cleanUp() call) polls the engine for a bounded batch of
+ * expired deadlines. Reads only record their time on the entry; an idle deadline that fires for an entry read since
+ * it was scheduled is simply rescheduled, so hits never touch the engine.
+ */
+public class ExpiringCache<K, V> implements Cache<K, V> {
+
+    private static final int INITIAL_CAPACITY = 4096;
+    private static final int MAX_POLL = 64;
+
+    private final ConcurrentHashMap<K, Node<K, V>> map;
+    private final ConcurrentHashMap<K, CompletableFuture<V>> loads;
+    private final ConcurrentHashMap<Long, Node<K, V>> deadlines;
+    private final DeadlineEngine engine;
+    private final ReentrantLock maintenanceLock;
+
+    private final Function<K, V> srcFunc;
+    private final long expireAfterWriteMs;
+    private final long expireAfterAccessMs;
+    private final LongSupplier clock;
+    private final StatsCounter stats;
+
+    /**
+     * This field is for testing only. Incremented each time `srcFunc` is called.
+     */
+    private final AtomicInteger initCounter;
+
+    /**
+     * Constructor for the ExpiringCache with its own SynchronizedDeadlineEngine and the system clock.
+     * @param srcFunc Function to be called on a cache miss to calculate value (V) associated with a key (K).
+     * @param expireAfterWriteMs Time-to-live of an entry in milliseconds, or 0 to disable.
+     * @param expireAfterAccessMs Time-to-idle of an entry in milliseconds, or 0 to disable.
+     */
+    public ExpiringCache(Function<K, V> srcFunc, long expireAfterWriteMs, long expireAfterAccessMs) {
+        this(srcFunc, expireAfterWriteMs, expireAfterAccessMs, new SynchronizedDeadlineEngine(),
+                System::currentTimeMillis);
+    }
+
+    /**
+     * Constructor for the ExpiringCache.
+     * @param srcFunc Function to be called on a cache miss to calculate value (V) associated with a key (K).
+     * @param expireAfterWriteMs Time-to-live of an entry in milliseconds, or 0 to disable.
+     * @param expireAfterAccessMs Time-to-idle of an entry in milliseconds, or 0 to disable.
+     * @param engine DeadlineEngine dedicated to this cache, used to schedule the expiry of entries.
+     * @param clock Source of the current time in millis since epoch.
+     */
+    public ExpiringCache(Function<K, V> srcFunc, long expireAfterWriteMs, long expireAfterAccessMs,
+                         DeadlineEngine engine, LongSupplier clock) {
+        if (srcFunc == null) {
+            throw new NullPointerException("Parameter \"srcFunc\" cannot be null.");
+        }
+        if (engine == null) {
+            throw new NullPointerException("Parameter \"engine\" cannot be null.");
+        }
+        if (clock == null) {
+            throw new NullPointerException("Parameter \"clock\" cannot be null.");
+        }
+        if (expireAfterWriteMs < 0L || expireAfterAccessMs < 0L || (expireAfterWriteMs == 0L && expireAfterAccessMs == 0L)) {
+            throw new IllegalArgumentException("Expiry times cannot be negative and at least one must be positive.");
+        }
+        this.srcFunc = srcFunc;
+        this.expireAfterWriteMs = expireAfterWriteMs;
+        this.expireAfterAccessMs = expireAfterAccessMs;
+        this.engine = engine;
+        this.clock = clock;
+        this.map = new ConcurrentHashMap<>(INITIAL_CAPACITY);
+        this.loads = new ConcurrentHashMap<>();
+        this.deadlines = new ConcurrentHashMap<>(INITIAL_CAPACITY);
+        this.maintenanceLock = new ReentrantLock();
+        this.stats = new StatsCounter(getClass().getSimpleName());
+        this.initCounter = new AtomicInteger(0);
+    }
+
+    /**
+     * Get value of type V associated with the provided key of type K from the internal collection if the value is
+     * cached and not expired. Otherwise, calls the provided Function<K, V> to calculate the value, cache it and return.
+     * @param key Key of type K associated with the requested value.
+     * @return Requested value of type V associated with the provided `key`.
+     */
+    @Override
+    public V get(K key) {
+        if (null == key) {
+            throw new NullPointerException("Cannot invoke \"Object.hashCode()\" because \"key\" is null");
+        }
+
+        final long now = clock.getAsLong();
+        final Node<K, V> node = map.get(key);
+        if (null != node) {
+            if (expiresAt(node) > now) {
+                if (expireAfterAccessMs > 0L) {
+                    node.accessTime = now;
+                }
+                stats.recordHit();
+                return node.value;
+            }
+            // Its deadline is already due and will be discarded by the next poll.
+            if (map.remove(key, node)) {
+                stats.recordEviction();
+            }
+        }
+        stats.recordMiss();
+        return load(key);
+    }
+
+    private V load(K key) {
+        final CompletableFuture<V> future = new CompletableFuture<>();
+        final CompletableFuture<V> inFlight = loads.putIfAbsent(key, future);
+        if (null != inFlight) {
+            return await(inFlight);
+        }
+        try {
+            final long now = clock.getAsLong();
+            cleanUp(now);
+            // A load may have been published between the map read in get() and registering this one.
+            final Node<K, V> existing = map.get(key);
+            if (null != existing && expiresAt(existing) > now) {
+                future.complete(existing.value);
+                return existing.value;
+            }
+            final long start = System.nanoTime();
+            final V value;
+            try {
+                value = srcFunc.apply(key);
+            } catch (RuntimeException | Error e) {
+                stats.recordLoadFailure(key, System.nanoTime() - start);
+                throw e;
+            }
+            if (null == value) {
+                stats.recordLoadFailure(key, System.nanoTime() - start);
+                throw new NullPointerException("The provided Function<K,V> returned null for the given \"key\"");
+            }
+            stats.recordLoadSuccess(key, System.nanoTime() - start);
+            final Node<K, V> node = new Node<>(key, value, clock.getAsLong());
+            map.put(key, node);
+            initCounter.incrementAndGet();
+            scheduleExpiry(node);
+            future.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loads.remove(key, future);
+        }
+    }
+
+    private V await(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    private long expiresAt(Node<K, V> node) {
+        long expiresAt = Long.MAX_VALUE;
+        if (expireAfterWriteMs > 0L) {
+            expiresAt = node.writeTime + expireAfterWriteMs;
+        }
+        if (expireAfterAccessMs > 0L) {
+            expiresAt = Math.min(expiresAt, node.accessTime + expireAfterAccessMs);
+        }
+        return expiresAt;
+    }
+
+    /**
+     * Schedules the expiry of the entry while holding the maintenance lock, so that no concurrent cleanUp() polls its
+     * deadline before it is recorded.
+     */
+    private void scheduleExpiry(Node<K, V> node) {
+        maintenanceLock.lock();
+        try {
+            final long id = engine.schedule(expiresAt(node));
+            if (id > 0L) {
+                deadlines.put(id, node);
+            }
+        } finally {
+            maintenanceLock.unlock();
+        }
+    }
+
+    /**
+     * Reclaims a bounded batch of expired entries. Does nothing if another thread is already doing it.
+     */
+    public void cleanUp() {
+        cleanUp(clock.getAsLong());
+    }
+
+    private void cleanUp(long now) {
+        if (!maintenanceLock.tryLock()) {
+            return;
+        }
+        try {
+            // The handler runs inside the engine's poll, so deadlines are only collected there and handled after.
+            final ArrayList<Long> fired = new ArrayList<>();
+            engine.poll(now, fired::add, MAX_POLL);
+            for (long id : fired) {
+                final Node<K, V> node = deadlines.remove(id);
+                // Not recorded only if the engine is shared with other users, whose deadlines are not ours to handle.
+                if (null == node || map.get(node.key) != node) {
+                    continue;
+                }
+                if (expiresAt(node) <= now) {
+                    if (map.remove(node.key, node)) {
+                        stats.recordEviction();
+                    }
+                } else {
+                    // Read since the deadline was scheduled, so it idles until later.
+                    scheduleExpiry(node);
+                }
+            }
+        } finally {
+            maintenanceLock.unlock();
+        }
+    }
+
+    /**
+     * Returns size of the cache. Includes expired entries which have not been reclaimed yet.
+     * @return Size of the cache.
+     */
+    public int size() {
+        return map.size();
+    }
+
+    /**
+     * Returns a snapshot of the statistics of the cache. Expired entries are counted as evictions once reclaimed.
+     * @return Snapshot of the statistics.
+     */
+    public CacheStats snapshot() {
+        return stats.snapshot(map.size());
+    }
+
+    /**
+     * Returns internal metric representing number of times the `srcFunc` was called.
+     * Note that this counts successful calls to `srcFunc` which did not result in raising exceptions.
+     * @return Number of times the `srcFunc` was called.
+     */
+    protected int getInitCounter() {
+        return initCounter.get();
+    }
+
+    /**
+     * Cache entry with the times it was written and last read.
+     */
+    static final class Node<K, V> {
+        final K key;
+        final V value;
+        final long writeTime;
+        volatile long accessTime;
+
+        Node(K key, V value, long writeTime) {
+            this.key = key;
+            this.value = value;
+            this.writeTime = writeTime;
+            this.accessTime = writeTime;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package org.example.CachingFunction;
+
+import java.util.Arrays;
+
+/**
+ * Thread-safe cache layered over a shared ConcurrentCache, keeping the hottest keys in small per-thread front caches,
+ * so that reads of these keys touch no memory shared with other threads but the backing cache's invalidation epoch.
+ * Each front cache is direct-mapped: a key can only be kept in the slot selected by its hash. A key read from the
+ * backing cache is only promoted to its slot after being read `promotionThreshold` times without another key of the
+ * same slot being read in between, so one-off keys do not displace the hot ones.
+ * A front cache is cleared on its next read once the backing cache's epoch changes, so a value is never read from a
+ * front cache after the invalidation removing it from the backing cache has completed.
+ * The front caches are bound to platform threads. Under virtual threads each virtual thread has its own front cache,
+ * which only pays off for long-lived virtual threads.
+ */
+public class FrontCache<K, V> implements Cache<K, V> {
+
+    private static final int DEFAULT_SLOTS = 64;
+    private static final int DEFAULT_PROMOTION_THRESHOLD = 8;
+
+    private final ConcurrentCache<K, V> backing;
+    private final ThreadLocal<Front> fronts;
+    private final int promotionThreshold;
+
+    /**
+     * Constructor for the FrontCache with 64 slots per thread, promoting keys read 8 times in a row.
+     * @param backing Shared cache the values are read from.
+     */
+    public FrontCache(ConcurrentCache<K, V> backing) {
+        this(backing, DEFAULT_SLOTS, DEFAULT_PROMOTION_THRESHOLD);
+    }
+
+    /**
+     * Constructor for the FrontCache.
+     * @param backing Shared cache the values are read from.
+     * @param slots Number of slots of each per-thread front cache, a power of two.
+     * @param promotionThreshold Number of consecutive reads of a key in its slot promoting it to the front cache.
+     */
+    public FrontCache(ConcurrentCache<K, V> backing, int slots, int promotionThreshold) {
+        if (backing == null) {
+            throw new NullPointerException("Parameter \"backing\" cannot be null.");
+        }
+        if (slots <= 0 || Integer.bitCount(slots) != 1) {
+            throw new IllegalArgumentException("Parameter \"slots\" must be a positive power of two.");
+        }
+        if (promotionThreshold <= 0) {
+            throw new IllegalArgumentException("Parameter \"promotionThreshold\" must be positive.");
+        }
+        this.backing = backing;
+        this.promotionThreshold = promotionThreshold;
+        this.fronts = ThreadLocal.withInitial(() -> new Front(slots));
+    }
+
+    /**
+     * Get value of type V associated with the provided key of type K from the current thread's front cache if the
+     * key is hot. Otherwise, gets the value from the backing cache, promoting the key to the front cache once it is
+     * read often enough.
+     * @param key Key of type K associated with the requested value.
+     * @return Requested value of type V associated with the provided `key`.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(K key) {
+        if (null == key) {
+            throw new NullPointerException("Cannot invoke \"Object.hashCode()\" because \"key\" is null");
+        }
+
+        final Front front = fronts.get();
+        // The epoch is read before the value, so a value copied during an invalidation is dropped on the next read.
+        final long epoch = backing.getEpoch();
+        if (front.epoch != epoch) {
+            front.clear(epoch);
+        }
+        final int hash = key.hashCode();
+        final int index = (hash ^ (hash >>> 16)) & front.mask;
+        if (key.equals(front.keys[index])) {
+            return (V) front.values[index];
+        }
+
+        final V value = backing.get(key);
+        if (key.equals(front.candidates[index])) {
+            if (++front.counts[index] >= promotionThreshold) {
+                front.keys[index] = key;
+                front.values[index] = value;
+                front.candidates[index] = null;
+                front.counts[index] = 0;
+            }
+        } else {
+            front.candidates[index] = key;
+            front.counts[index] = 1;
+            if (1 >= promotionThreshold) {
+                front.keys[index] = key;
+                front.values[index] = value;
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Returns size of the backing cache.
+     * @return Size of the backing cache.
+     */
+    public int size() {
+        return backing.size();
+    }
+
+    /**
+     * Returns the number of keys in the current thread's front cache.
+     * @return Number of promoted keys of the current thread.
+     */
+    public int frontSize() {
+        final Front front = fronts.get();
+        if (front.epoch != backing.getEpoch()) {
+            return 0;
+        }
+        int size = 0;
+        for (Object key : front.keys) {
+            if (null != key) {
+                ++size;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Direct-mapped front cache of a single thread. Each slot holds a promoted entry, and the candidate key for
+     * promotion with the number of its consecutive reads.
+     */
+    static final class Front {
+        final Object[] keys;
+        final Object[] values;
+        final Object[] candidates;
+        final int[] counts;
+        final int mask;
+        long epoch = -1L;
+
+        Front(int slots) {
+            this.keys = new Object[slots];
+            this.values = new Object[slots];
+            this.candidates = new Object[slots];
+            this.counts = new int[slots];
+            this.mask = slots - 1;
+        }
+
+        void clear(long epoch) {
+            Arrays.fill(keys, null);
+            Arrays.fill(values, null);
+            Arrays.fill(candidates, null);
+            Arrays.fill(counts, 0);
+            this.epoch = epoch;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package org.example.CachingFunction;
+
+import java.io.Closeable;
+import java.util.function.Consumer;
+
+/**
+ * Channel broadcasting invalidation messages of a CoherentCache to the caches of its peer processes.
+ * Delivery may be best-effort: a lost message leaves the peers' entries stale until they are invalidated again.
+ */
+public interface InvalidationTransport extends Closeable {
+    /**
+     * Starts delivering the messages received from the peers. Called once, by the cache using the transport.
+     * @param receiver Consumer of the received messages. It may be called from a thread of the transport.
+     */
+    void start(Consumer<byte[]> receiver);
+
+    /**
+     * Sends the message to all the peers.
+     * @param message Message of at most maxMessageSize() bytes.
+     */
+    void broadcast(byte[] message);
+
+    /**
+     * Returns the size of the largest message the transport can send.
+     * @return Maximum message size in bytes.
+     */
+    int maxMessageSize();
+
+    /**
+     * Stops receiving messages and releases the resources of the transport.
+     */
+    @Override
+    void close();
+}
@@ -0,0 +1,289 @@
+package org.example.CachingFunction;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Thread-safe cache whose loads are throttled by a LoadLimiter, so that a burst of misses (e.g. on a cold start)
+ * calls `srcFunc` only as many times at once as the backend can take. Concurrent misses on the same key share a single
+ * load, as in ConcurrentCache.
+ * Loads run on an executor. A caller waits for a load, its own or one started by another thread, for at most the
+ * limiter's timeout plus the cache's load timeout: the first covers the wait for a permit, the second the call to
+ * `srcFunc`. A load rejected by the limiter (its queue is full or the wait timed out), or not completed in time, fails
+ * with a RejectedExecutionException, so a hung backend does not block the callers.
+ * Entries can optionally expire some time after they were loaded. An expired entry is reloaded on its next read, but
+ * its value is kept: if the reload is rejected or does not complete in time, the stale value is returned instead.
+ * A running `srcFunc` is never interrupted; its value is still cached when it completes.
+ */
+public class LimitedCache<K, V> implements Cache<K, V> {
+
+    private static final int INITIAL_CAPACITY = 4096;
+    private static final long DEFAULT_LOAD_TIMEOUT_MS = 10_000L;
+
+    private final ConcurrentHashMap<K, Node<V>> map;
+    private final ConcurrentHashMap<K, CompletableFuture<V>> loads;
+
+    private final Function<K, V> srcFunc;
+    private final LoadLimiter limiter;
+    private final long expireAfterWriteMs;
+    private final long waitNanos;
+    private final Executor executor;
+    private final LongSupplier clock;
+    private final StatsCounter stats;
+
+    /**
+     * This field is for testing only. Incremented each time `srcFunc` is called.
+     */
+    private final AtomicInteger initCounter;
+
+    /**
+     * Constructor for the LimitedCache whose entries never expire, with a load timeout of 10 seconds.
+     * @param srcFunc Function to be called on a cache miss to calculate value (V) associated with a key (K).
+     * @param limiter Limiter of the concurrent calls to `srcFunc`.
+     */
+    public LimitedCache(Function<K, V> srcFunc, LoadLimiter limiter) {
+        this(srcFunc, limiter, 0L, System::currentTimeMillis);
+    }
+
+    /**
+     * Constructor for the LimitedCache with a load timeout of 10 seconds.
+     * @param srcFunc Function to be called on a cache miss to calculate value (V) associated with a key (K).
+     * @param limiter Limiter of the concurrent calls to `srcFunc`.
+     * @param expireAfterWriteMs Age in milliseconds after which an entry is reloaded on its next read, or 0 if entries
+     *                           never expire.
+     */
+    public LimitedCache(Function<K, V> srcFunc, LoadLimiter limiter, long expireAfterWriteMs) {
+        this(srcFunc, limiter, expireAfterWriteMs, System::currentTimeMillis);
+    }
+
+    /**
+     * Constructor for the LimitedCache with a load timeout of 10 seconds.
+     * @param srcFunc Function to be called on a cache miss to calculate value (V) associated with a key (K).
+     * @param limiter Limiter of the concurrent calls to `srcFunc`.
+     * @param expireAfterWriteMs Age in milliseconds after which an entry is reloaded on its next read, or 0 if entries
+     *                           never expire.
+     * @param clock Source of the current time in millis since epoch.
+     */
+    public LimitedCache(Function<K, V> srcFunc, LoadLimiter limiter, long expireAfterWriteMs, LongSupplier clock) {
+        this(srcFunc, limiter, expireAfterWriteMs, DEFAULT_LOAD_TIMEOUT_MS, ConcurrentAsyncCache.defaultExecutor(), clock);
+    }
+
+    /**
+     * Constructor for the LimitedCache.
+     * @param srcFunc Function to be called on a cache miss to calculate value (V) associated with a key (K).
+     * @param limiter Limiter of the concurrent calls to `srcFunc`.
+     * @param expireAfterWriteMs Age in milliseconds after which an entry is reloaded on its next read, or 0 if entries
+     *                           never expire.
+     * @param loadTimeoutMs Maximum time in milliseconds a caller waits for `srcFunc`, on top of the limiter's timeout.
+     *                      Must be positive.
+     * @param executor Executor running the loads. With an executor running them in the calling thread, the loads are
+     *                 not bounded by the timeouts.
+     * @param clock Source of the current time in millis since epoch.
+     */
+    public LimitedCache(Function<K, V> srcFunc, LoadLimiter limiter, long expireAfterWriteMs, long loadTimeoutMs,
+                        Executor executor, LongSupplier clock) {
+        if (srcFunc == null) {
+            throw new NullPointerException("Parameter \"srcFunc\" cannot be null.");
+        }
+        if (limiter == null) {
+            throw new NullPointerException("Parameter \"limiter\" cannot be null.");
+        }
+        if (executor == null) {
+            throw new NullPointerException("Parameter \"executor\" cannot be null.");
+        }
+        if (clock == null) {
+            throw new NullPointerException("Parameter \"clock\" cannot be null.");
+        }
+        if (expireAfterWriteMs < 0L) {
+            throw new IllegalArgumentException("Parameter \"expireAfterWriteMs\" cannot be negative.");
+        }
+        if (loadTimeoutMs <= 0L) {
+            throw new IllegalArgumentException("Parameter \"loadTimeoutMs\" must be positive.");
+        }
+        this.srcFunc = srcFunc;
+        this.limiter = limiter;
+        this.expireAfterWriteMs = 0L == expireAfterWriteMs ? Long.MAX_VALUE : expireAfterWriteMs;
+        final long waitNanos = limiter.getTimeoutNanos() + TimeUnit.MILLISECONDS.toNanos(loadTimeoutMs);
+        this.waitNanos = waitNanos < 0L ? Long.MAX_VALUE : waitNanos;
+        this.executor = executor;
+        this.clock = clock;
+        this.map = new ConcurrentHashMap<>(INITIAL_CAPACITY);
+        this.loads = new ConcurrentHashMap<>();
+        this.stats = new StatsCounter(getClass().getSimpleName());
+        this.initCounter = new AtomicInteger(0);
+    }
+
+    /**
+     * Get value of type V associated with the provided key of type K from the internal collection if the value is
+     * cached and not expired. Otherwise, calls the provided Function<K, V> within the limits of the limiter to
+     * calculate the value, cache it and return.
+     * @param key Key of type K associated with the requested value.
+     * @return Requested value of type V associated with the provided `key`, possibly stale if its reload was rejected
+     *         or timed out.
+     * @throws RejectedExecutionException If the load was rejected by the limiter or timed out, and there is no stale
+     *                                    value.
+     */
+    @Override
+    public V get(K key) {
+        if (null == key) {
+            throw new NullPointerException("Cannot invoke \"Object.hashCode()\" because \"key\" is null");
+        }
+
+        final Node<V> node = map.get(key);
+        if (null != node && !isExpired(node)) {
+            stats.recordHit();
+            return node.value;
+        }
+        stats.recordMiss();
+        return load(key, node);
+    }
+
+    private boolean isExpired(Node<V> node) {
+        return clock.getAsLong() - node.writeTime >= expireAfterWriteMs;
+    }
+
+    private V load(K key, Node<V> stale) {
+        final CompletableFuture<V> future = new CompletableFuture<>();
+        final CompletableFuture<V> inFlight = loads.putIfAbsent(key, future);
+        if (null != inFlight) {
+            return await(inFlight, stale);
+        }
+        // A load may have been published between the map read in get() and registering this one.
+        final Node<V> existing = map.get(key);
+        if (null != existing && existing != stale && !isExpired(existing)) {
+            loads.remove(key, future);
+            future.complete(existing.value);
+            return existing.value;
+        }
+        try {
+            executor.execute(() -> apply(key, future));
+        } catch (RejectedExecutionException e) {
+            loads.remove(key, future);
+            future.completeExceptionally(e);
+        }
+        return await(future, stale);
+    }
+
+    /**
+     * Calls `srcFunc` within the limits of the limiter, caches the value and completes the future of the load. A failure
+     * is passed to the callers through the future.
+     */
+    private void apply(K key, CompletableFuture<V> future) {
+        // The load is unregistered before its future completes, so a caller woken up by it never joins it again.
+        try {
+            final V value = limiter.execute(() -> call(key));
+            map.put(key, new Node<>(value, clock.getAsLong()));
+            initCounter.incrementAndGet();
+            loads.remove(key, future);
+            future.complete(value);
+        } catch (RuntimeException | Error e) {
+            loads.remove(key, future);
+            future.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Calls `srcFunc` and records the time it took. A load rejected by the limiter never gets here, so it is not
+     * recorded as a load.
+     */
+    private V call(K key) {
+        final long start = System.nanoTime();
+        final V value;
+        try {
+            value = srcFunc.apply(key);
+        } catch (RuntimeException | Error e) {
+            stats.recordLoadFailure(key, System.nanoTime() - start);
+            throw e;
+        }
+        if (null == value) {
+            stats.recordLoadFailure(key, System.nanoTime() - start);
+            throw new NullPointerException("The provided Function<K,V> returned null for the given \"key\"");
+        }
+        stats.recordLoadSuccess(key, System.nanoTime() - start);
+        return value;
+    }
+
+    /**
+     * Waits for a load running on the executor for at most the limiter's timeout plus the load timeout.
+     * @param future Future of the in-flight load.
+     * @param stale Expired entry of the key, returned if the load is rejected or the wait times out, or null.
+     * @return Loaded value of type V, or the stale one.
+     */
+    private V await(CompletableFuture<V> future, Node<V> stale) {
+        try {
+            return future.get(waitNanos, TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RejectedExecutionException && null != stale) {
+                return stale.value;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        } catch (TimeoutException | InterruptedException e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            if (null != stale) {
+                return stale.value;
+            }
+            throw new RejectedExecutionException("Timed out waiting for the load of the given \"key\".", e);
+        }
+    }
+
+    /**
+     * Returns size of the cache, including the expired entries.
+     * @return Size of the cache.
+     */
+    public int size() {
+        return map.size();
+    }
+
+    /**
+     * Returns the limiter of the concurrent calls to `srcFunc`.
+     * @return Limiter of the loads.
+     */
+    public LoadLimiter getLimiter() {
+        return limiter;
+    }
+
+    /**
+     * Returns a snapshot of the statistics of the cache. A read of an expired entry counts as a miss, and a load
+     * rejected by the limiter is not counted as a load.
+     * @return Snapshot of the statistics.
+     */
+    public CacheStats snapshot() {
+        return stats.snapshot(map.size());
+    }
+
+    /**
+     * Returns internal metric representing number of times the `srcFunc` was called.
+     * Note that this counts successful calls to `srcFunc` which did not result in raising exceptions.
+     * @return Number of times the `srcFunc` was called.
+     */
+    protected int getInitCounter() {
+        return initCounter.get();
+    }
+
+    static final class Node<V> {
+        final V value;
+        final long writeTime;
+
+        Node(V value, long writeTime) {
+            this.value = value;
+            this.writeTime = writeTime;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package org.example.CachingFunction;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Bulkhead limiting the number of loads running at once, e.g. to protect the backend called by the functions of
+ * caches. A load which finds all permits taken, or other loads already waiting, waits in a bounded first-in-first-out
+ * queue for at most the limiter's timeout.
+ * A load which finds the queue full, or times out, is rejected with a RejectedExecutionException.
+ * A single limiter can be shared by many caches loading from the same backend.
+ */
+public final class LoadLimiter {
+
+    private final Semaphore permits;
+    private final int maxConcurrentLoads;
+    private final int maxQueuedLoads;
+    private final long timeoutNanos;
+
+    private final AtomicInteger activeLoads;
+    private final AtomicInteger queuedLoads;
+    private final LongAdder rejectedLoads;
+
+    /**
+     * Constructor for the LoadLimiter.
+     * @param maxConcurrentLoads Maximum number of loads running at once. Must be positive.
+     * @param maxQueuedLoads Maximum number of loads waiting for a running one to finish. Cannot be negative.
+     * @param timeoutMs Maximum time in milliseconds a load waits in the queue. Cannot be negative.
+     */
+    public LoadLimiter(int maxConcurrentLoads, int maxQueuedLoads, long timeoutMs) {
+        if (maxConcurrentLoads <= 0) {
+            throw new IllegalArgumentException("Parameter \"maxConcurrentLoads\" must be positive.");
+        }
+        if (maxQueuedLoads < 0 || timeoutMs < 0L) {
+            throw new IllegalArgumentException("Queue size and timeout cannot be negative.");
+        }
+        this.maxConcurrentLoads = maxConcurrentLoads;
+        this.maxQueuedLoads = maxQueuedLoads;
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        this.permits = new Semaphore(maxConcurrentLoads, true);
+        this.activeLoads = new AtomicInteger(0);
+        this.queuedLoads = new AtomicInteger(0);
+        this.rejectedLoads = new LongAdder();
+    }
+
+    /**
+     * Runs the load as soon as a permit is available, in the calling thread.
+     * @param load Load to run.
+     * @return Result of the load.
+     * @throws RejectedExecutionException If the queue is full, or no permit became available within the timeout.
+     */
+    public <T> T execute(Supplier<T> load) {
+        if (!tryAcquireNow()) {
+            acquireQueued();
+        }
+        activeLoads.incrementAndGet();
+        try {
+            return load.get();
+        } finally {
+            activeLoads.decrementAndGet();
+            permits.release();
+        }
+    }
+
+    /**
+     * Takes a free permit unless loads are already waiting for one. Unlike Semaphore.tryAcquire(), the timed variant
+     * honours the fairness of the semaphore, so a new load does not barge past the queued ones.
+     */
+    private boolean tryAcquireNow() {
+        try {
+            return permits.tryAcquire(0L, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            rejectedLoads.increment();
+            throw new RejectedExecutionException("Interrupted while acquiring a permit.");
+        }
+    }
+
+    private void acquireQueued() {
+        if (queuedLoads.incrementAndGet() > maxQueuedLoads) {
+            queuedLoads.decrementAndGet();
+            rejectedLoads.increment();
+            throw new RejectedExecutionException("The queue of " + maxQueuedLoads + " waiting loads is full.");
+        }
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        } finally {
+            queuedLoads.decrementAndGet();
+        }
+        if (!acquired) {
+            rejectedLoads.increment();
+            throw new RejectedExecutionException("Timed out waiting for one of " + maxConcurrentLoads
+                    + " running loads to finish.");
+        }
+    }
+
+    /**
+     * Returns the number of loads running at the moment.
+     * @return Number of running loads.
+     */
+    public int getActiveLoads() {
+        return activeLoads.get();
+    }
+
+    /**
+     * Returns the number of loads waiting in the queue at the moment.
+     * @return Number of queued loads.
+     */
+    public int getQueuedLoads() {
+        return queuedLoads.get();
+    }
+
+    /**
+     * Returns the number of loads rejected so far, because the queue was full or they timed out.
+     * @return Number of rejected loads.
+     */
+    public long getRejectedLoads() {
+        return rejectedLoads.sum();
+    }
+
+    /**
+     * Returns the maximum number of loads running at once.
+     * @return Maximum number of running loads.
+     */
+    public int getMaxConcurrentLoads() {
+        return maxConcurrentLoads;
+    }
+
+    /**
+     * Returns the maximum number of loads waiting in the queue.
+     * @return Maximum number of queued loads.
+     */
+    public int getMaxQueuedLoads() {
+        return maxQueuedLoads;
+    }
+
+    /**
+     * Returns the maximum time a load waits in the queue.
+     * @return Timeout in nanoseconds.
+     */
+    long getTimeoutNanos() {
+        return timeoutNanos;
+    }
+}
@@ -0,0 +1,195 @@
+package org.example.CachingFunction;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * Thread-safe cache of primitive long values associated with primitive long keys, without boxing.
+ * Entries are kept in open-addressing tables (parallel key and value arrays) split into segments by key hash.
+ * A hit probes the arrays under an optimistic read of the segment's StampedLock, so it takes no lock and allocates
+ * nothing. As in SynchronizedCache, the loads are serialized per segment, so `srcFunc` is called at most once per key.
+ */
+public class LongLongCache {
+
+    private static final int SEGMENTS_COUNT = 64;
+    private static final int SEGMENT_SHIFT = Long.SIZE - Integer.numberOfTrailingZeros(SEGMENTS_COUNT);
+    private static final int INITIAL_SEGMENT_CAPACITY = 64;
+
+    private final Segment[] segments;
+    private final LongUnaryOperator srcFunc;
+
+    /**
+     * This field is for testing only. Incremented each time `srcFunc` is called.
+     */
+    private final AtomicInteger initCounter;
+
+    /**
+     * Constructor for the thread-safe LongLongCache.
+     * @param srcFunc Function to be called on a cache miss to calculate value associated with a key.
+     */
+    public LongLongCache(LongUnaryOperator srcFunc) {
+        if (srcFunc == null) {
+            throw new NullPointerException("Parameter \"srcFunc\" cannot be null.");
+        }
+        this.srcFunc = srcFunc;
+        this.segments = new Segment[SEGMENTS_COUNT];
+        for (int i = 0; i < segments.length; ++i) {
+            segments[i] = new Segment();
+        }
+        this.initCounter = new AtomicInteger(0);
+    }
+
+    /**
+     * Get value associated with the provided key from the internal collection if the value is cached.
+     * Otherwise, calls the provided LongUnaryOperator to calculate the value, cache it and return.
+     * @param key Key associated with the requested value.
+     * @return Requested value associated with the provided `key`.
+     */
+    public long get(long key) {
+        final long hash = mix(key);
+        final Segment segment = segments[(int) (hash >>> SEGMENT_SHIFT)];
+        long stamp = segment.lock.tryOptimisticRead();
+        Table table = segment.table;
+        int index = table.indexOf(key, hash);
+        long value = index >= 0 ? table.values[index] : 0L;
+        if (!segment.lock.validate(stamp)) {
+            stamp = segment.lock.readLock();
+            try {
+                table = segment.table;
+                index = table.indexOf(key, hash);
+                value = index >= 0 ? table.values[index] : 0L;
+            } finally {
+                segment.lock.unlockRead(stamp);
+            }
+        }
+        if (index >= 0) {
+            return value;
+        }
+        return load(segment, key, hash);
+    }
+
+    private long load(Segment segment, long key, long hash) {
+        synchronized (segment) {
+            // Tables are only modified by the thread holding the segment's monitor, so no lock is needed to read here.
+            final Table table = segment.table;
+            final int index = table.indexOf(key, hash);
+            if (index >= 0) {
+                return table.values[index];
+            }
+            final long value = srcFunc.applyAsLong(key);
+            segment.insert(key, hash, value);
+            initCounter.incrementAndGet();
+            return value;
+        }
+    }
+
+    /**
+     * Returns size of the cache.
+     * @return Size of the cache.
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size;
+        }
+        return size;
+    }
+
+    /**
+     * Returns internal metric representing number of times the `srcFunc` was called.
+     * Note that this counts successful calls to `srcFunc` which did not result in raising exceptions.
+     * @return Number of times the `srcFunc` was called.
+     */
+    protected int getInitCounter() {
+        return initCounter.get();
+    }
+
+    private static long mix(long key) {
+        final long hash = key * 0x9E3779B97F4A7C15L;
+        return hash ^ (hash >>> 29);
+    }
+
+    /**
+     * Open-addressing table with linear probing. Key 0 marks an empty slot, so the entry of key 0 itself is kept in
+     * an extra slot after the probed ones.
+     */
+    static final class Table {
+        final long[] keys;
+        final long[] values;
+        final int mask;
+        boolean hasZeroKey;
+
+        Table(int capacity) {
+            this.keys = new long[capacity + 1];
+            this.values = new long[capacity + 1];
+            this.mask = capacity - 1;
+        }
+
+        /**
+         * Returns the slot holding the key, or -1. Terminates even on inconsistent arrays read optimistically.
+         */
+        int indexOf(long key, long hash) {
+            if (0L == key) {
+                return hasZeroKey ? mask + 1 : -1;
+            }
+            int index = (int) hash & mask;
+            for (int probes = 0; probes <= mask; ++probes) {
+                if (0L == keys[index]) {
+                    return -1;
+                }
+                if (keys[index] == key) {
+                    return index;
+                }
+                index = (index + 1) & mask;
+            }
+            return -1;
+        }
+
+        void put(long key, long hash, long value) {
+            if (0L == key) {
+                values[mask + 1] = value;
+                hasZeroKey = true;
+                return;
+            }
+            int index = (int) hash & mask;
+            while (0L != keys[index]) {
+                index = (index + 1) & mask;
+            }
+            values[index] = value;
+            keys[index] = key;
+        }
+    }
+
+    /**
+     * Part of the cache with its own table, kept at most half full. The table is read under optimistic reads of the
+     * lock and written under its write lock.
+     */
+    static final class Segment {
+        private final StampedLock lock = new StampedLock();
+        private Table table = new Table(INITIAL_SEGMENT_CAPACITY);
+        private volatile int size;
+
+        void insert(long key, long hash, long value) {
+            final long stamp = lock.writeLock();
+            try {
+                if (2 * (size + 1) > table.keys.length) {
+                    final Table resized = new Table((table.mask + 1) * 2);
+                    for (int i = 0; i <= table.mask; ++i) {
+                        if (0L != table.keys[i]) {
+                            resized.put(table.keys[i], mix(table.keys[i]), table.values[i]);
+                        }
+                    }
+                    if (table.hasZeroKey) {
+                        resized.put(0L, 0L, table.values[table.mask + 1]);
+                    }
+                    table = resized;
+                }
+                table.put(key, hash, value);
+                ++size;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package org.example.CachingFunction;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.LongFunction;
+
+/**
+ * Thread-safe cache of values of type V associated with primitive long keys, without boxing the keys.
+ * Entries are kept in open-addressing tables (parallel key and value arrays) split into segments by key hash.
+ * A hit probes the arrays under an optimistic read of the segment's StampedLock, so it takes no lock and allocates
+ * nothing. As in SynchronizedCache, the loads are serialized per segment, so `srcFunc` is called at most once per key.
+ */
+public class LongObjectCache<V> {
+
+    private static final int SEGMENTS_COUNT = 64;
+    private static final int SEGMENT_SHIFT = Long.SIZE - Integer.numberOfTrailingZeros(SEGMENTS_COUNT);
+    private static final int INITIAL_SEGMENT_CAPACITY = 64;
+
+    private final Segment[] segments;
+    private final LongFunction<V> srcFunc;
+
+    /**
+     * This field is for testing only. Incremented each time `srcFunc` is called.
+     */
+    private final AtomicInteger initCounter;
+
+    /**
+     * Constructor for the thread-safe LongObjectCache.
+     * @param srcFunc Function to be called on a cache miss to calculate value (V) associated with a key.
+     */
+    public LongObjectCache(LongFunction<V> srcFunc) {
+        if (srcFunc == null) {
+            throw new NullPointerException("Parameter \"srcFunc\" cannot be null.");
+        }
+        this.srcFunc = srcFunc;
+        this.segments = new Segment[SEGMENTS_COUNT];
+        for (int i = 0; i < segments.length; ++i) {
+            segments[i] = new Segment();
+        }
+        this.initCounter = new AtomicInteger(0);
+    }
+
+    /**
+     * Get value of type V associated with the provided key from the internal collection if the value is cached.
+     * Otherwise, calls the provided LongFunction<V> to calculate the value, cache it and return.
+     * @param key Key associated with the requested value.
+     * @return Requested value of type V associated with the provided `key`.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        final long hash = mix(key);
+        final Segment segment = segments[(int) (hash >>> SEGMENT_SHIFT)];
+        long stamp = segment.lock.tryOptimisticRead();
+        Table table = segment.table;
+        int index = table.indexOf(key, hash);
+        Object value = index >= 0 ? table.values[index] : null;
+        if (!segment.lock.validate(stamp)) {
+            stamp = segment.lock.readLock();
+            try {
+                table = segment.table;
+                index = table.indexOf(key, hash);
+                value = index >= 0 ? table.values[index] : null;
+            } finally {
+                segment.lock.unlockRead(stamp);
+            }
+        }
+        if (null != value) {
+            return (V) value;
+        }
+        return load(segment, key, hash);
+    }
+
+    @SuppressWarnings("unchecked")
+    private V load(Segment segment, long key, long hash) {
+        synchronized (segment) {
+            // Tables are only modified by the thread holding the segment's monitor, so no lock is needed to read here.
+            final Table table = segment.table;
+            final int index = table.indexOf(key, hash);
+            if (index >= 0) {
+                return (V) table.values[index];
+            }
+            final V value = srcFunc.apply(key);
+            if (null == value) {
+                throw new NullPointerException("The provided LongFunction<V> returned null for the given \"key\"");
+            }
+            segment.insert(key, hash, value);
+            initCounter.incrementAndGet();
+            return value;
+        }
+    }
+
+    /**
+     * Returns size of the cache.
+     * @return Size of the cache.
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size;
+        }
+        return size;
+    }
+
+    /**
+     * Returns internal metric representing number of times the `srcFunc` was called.
+     * Note that this counts successful calls to `srcFunc` which did not result in raising exceptions.
+     * @return Number of times the `srcFunc` was called.
+     */
+    protected int getInitCounter() {
+        return initCounter.get();
+    }
+
+    private static long mix(long key) {
+        final long hash = key * 0x9E3779B97F4A7C15L;
+        return hash ^ (hash >>> 29);
+    }
+
+    /**
+     * Open-addressing table with linear probing. A null value marks an empty slot.
+     */
+    static final class Table {
+        final long[] keys;
+        final Object[] values;
+        final int mask;
+
+        Table(int capacity) {
+            this.keys = new long[capacity];
+            this.values = new Object[capacity];
+            this.mask = capacity - 1;
+        }
+
+        /**
+         * Returns the slot holding the key, or -1. Terminates even on inconsistent arrays read optimistically.
+         */
+        int indexOf(long key, long hash) {
+            int index = (int) hash & mask;
+            for (int probes = 0; probes <= mask; ++probes) {
+                if (null == values[index]) {
+                    return -1;
+                }
+                if (keys[index] == key) {
+                    return index;
+                }
+                index = (index + 1) & mask;
+            }
+            return -1;
+        }
+
+        void put(long key, long hash, Object value) {
+            int index = (int) hash & mask;
+            while (null != values[index]) {
+                index = (index + 1) & mask;
+            }
+            keys[index] = key;
+            values[index] = value;
+        }
+    }
+
+    /**
+     * Part of the cache with its own table, kept at most half full. The table is read under optimistic reads of the
+     * lock and written under its write lock.
+     */
+    static final class Segment {
+        private final StampedLock lock = new StampedLock();
+        private Table table = new Table(INITIAL_SEGMENT_CAPACITY);
+        private volatile int size;
+
+        void insert(long key, long hash, Object value) {
+            final long stamp = lock.writeLock();
+            try {
+                if (2 * (size + 1) > table.keys.length) {
+                    final Table resized = new Table(table.keys.length * 2);
+                    for (int i = 0; i < table.keys.length; ++i) {
+                        if (null != table.values[i]) {
+                            resized.put(table.keys[i], mix(table.keys[i]), table.values[i]);
+                        }
+                    }
+                    table = resized;
+                }
+                table.put(key, hash, value);
+                ++size;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+    }
+}
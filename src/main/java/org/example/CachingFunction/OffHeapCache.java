@@ -0,0 +1,281 @@
+package org.example.CachingFunction;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Function;
+
+/**
+ * Thread-safe cache keeping its values serialized outside the Java heap, so that a large cache adds little to the
+ * work of the garbage collector. Only a compact index (key to chunk address and length) stays on the heap.
+ * Values are stored in chunks of direct ByteBuffer slabs handed out by a SlabAllocator, with a hard limit on the
+ * total off-heap memory. When the chunks of a size class run out and no more slabs can be allocated, the oldest
+ * entries of that size class are evicted and their chunks reused. A value larger than a slab is returned but not
+ * cached.
+ * A hit copies the value's bytes under an optimistic read of the lock and deserializes them from the copy, so reads
+ * do not block each other.
+ */
+public class OffHeapCache<K, V> implements Cache<K, V> {
+
+    private static final int INITIAL_CAPACITY = 4096;
+    private static final int DEFAULT_SLAB_SIZE = 1 << 20;
+
+    private final ConcurrentHashMap<K, Entry<K>> index;
+    private final ConcurrentHashMap<K, CompletableFuture<V>> loads;
+    private final StampedLock lock;
+
+    // Fields below are guarded by the write lock.
+    private final SlabAllocator allocator;
+    private final ArrayDeque<Entry<K>>[] queues;
+
+    private final Function<K, V> srcFunc;
+    private final Serializer<V> serializer;
+    private final long maxOffHeapBytes;
+    private final StatsCounter stats;
+
+    /**
+     * This field is for testing only. Incremented each time `srcFunc` is called.
+     */
+    private final AtomicInteger initCounter;
+
+    /**
+     * Constructor for the OffHeapCache with 1 MiB slabs.
+     * @param srcFunc Function to be called on a cache miss to calculate value (V) associated with a key (K).
+     * @param serializer Serializer of the values.
+     * @param maxOffHeapBytes Maximum number of bytes of off-heap memory used for the values.
+     */
+    public OffHeapCache(Function<K, V> srcFunc, Serializer<V> serializer, long maxOffHeapBytes) {
+        this(srcFunc, serializer, maxOffHeapBytes, DEFAULT_SLAB_SIZE);
+    }
+
+    /**
+     * Constructor for the OffHeapCache.
+     * @param srcFunc Function to be called on a cache miss to calculate value (V) associated with a key (K).
+     * @param serializer Serializer of the values.
+     * @param maxOffHeapBytes Maximum number of bytes of off-heap memory used for the values.
+     * @param slabSize Size of a single slab of off-heap memory, a power of two. Also the largest cacheable value.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public OffHeapCache(Function<K, V> srcFunc, Serializer<V> serializer, long maxOffHeapBytes, int slabSize) {
+        if (srcFunc == null) {
+            throw new NullPointerException("Parameter \"srcFunc\" cannot be null.");
+        }
+        if (serializer == null) {
+            throw new NullPointerException("Parameter \"serializer\" cannot be null.");
+        }
+        this.srcFunc = srcFunc;
+        this.serializer = serializer;
+        this.maxOffHeapBytes = maxOffHeapBytes;
+        this.allocator = new SlabAllocator(slabSize, maxOffHeapBytes);
+        this.queues = new ArrayDeque[allocator.sizeClass(slabSize) + 1];
+        for (int i = 0; i < queues.length; ++i) {
+            queues[i] = new ArrayDeque<>();
+        }
+        this.index = new ConcurrentHashMap<>(INITIAL_CAPACITY);
+        this.loads = new ConcurrentHashMap<>();
+        this.lock = new StampedLock();
+        this.stats = new StatsCounter(getClass().getSimpleName());
+        this.initCounter = new AtomicInteger(0);
+    }
+
+    /**
+     * Get value of type V associated with the provided key of type K, deserialized from the off-heap memory if the
+     * value is cached. Otherwise, calls the provided Function<K, V> to calculate the value, cache it and return.
+     * @param key Key of type K associated with the requested value.
+     * @return Requested value of type V associated with the provided `key`.
+     */
+    @Override
+    public V get(K key) {
+        if (null == key) {
+            throw new NullPointerException("Cannot invoke \"Object.hashCode()\" because \"key\" is null");
+        }
+
+        final byte[] bytes = read(key);
+        if (null != bytes) {
+            stats.recordHit();
+            return serializer.deserialize(ByteBuffer.wrap(bytes).asReadOnlyBuffer());
+        }
+        stats.recordMiss();
+        return load(key);
+    }
+
+    /**
+     * Copies the bytes of the cached value. A chunk is only freed or reused under the write lock, so a copy made
+     * without an intervening write lock is consistent.
+     * @return Copy of the serialized value, or null if the key is not cached.
+     */
+    private byte[] read(K key) {
+        long stamp = lock.tryOptimisticRead();
+        Entry<K> entry = index.get(key);
+        byte[] bytes = copy(entry);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                entry = index.get(key);
+                bytes = copy(entry);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return bytes;
+    }
+
+    private byte[] copy(Entry<K> entry) {
+        if (null == entry) {
+            return null;
+        }
+        final byte[] bytes = new byte[entry.length];
+        allocator.read(entry.address, bytes);
+        return bytes;
+    }
+
+    private V load(K key) {
+        final CompletableFuture<V> future = new CompletableFuture<>();
+        final CompletableFuture<V> inFlight = loads.putIfAbsent(key, future);
+        if (null != inFlight) {
+            return await(inFlight);
+        }
+        try {
+            // A load may have been published between the read in get() and registering this one.
+            final byte[] cached = read(key);
+            if (null != cached) {
+                final V value = serializer.deserialize(ByteBuffer.wrap(cached).asReadOnlyBuffer());
+                future.complete(value);
+                return value;
+            }
+            final long start = System.nanoTime();
+            final V value;
+            try {
+                value = srcFunc.apply(key);
+            } catch (RuntimeException | Error e) {
+                stats.recordLoadFailure(key, System.nanoTime() - start);
+                throw e;
+            }
+            if (null == value) {
+                stats.recordLoadFailure(key, System.nanoTime() - start);
+                throw new NullPointerException("The provided Function<K,V> returned null for the given \"key\"");
+            }
+            stats.recordLoadSuccess(key, System.nanoTime() - start);
+            initCounter.incrementAndGet();
+            store(key, serializer.serialize(value));
+            future.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loads.remove(key, future);
+        }
+    }
+
+    private V await(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Copies the serialized value to a chunk of its size class, evicting the oldest entries of the class if needed.
+     */
+    private void store(K key, byte[] bytes) {
+        final int sizeClass = allocator.sizeClass(bytes.length);
+        if (sizeClass < 0) {
+            return;
+        }
+        final long stamp = lock.writeLock();
+        try {
+            long address = allocator.allocate(sizeClass);
+            while (address < 0L && !queues[sizeClass].isEmpty()) {
+                final Entry<K> evicted = queues[sizeClass].pollFirst();
+                index.remove(evicted.key, evicted);
+                allocator.free(sizeClass, evicted.address);
+                stats.recordEviction();
+                address = allocator.allocate(sizeClass);
+            }
+            if (address < 0L) {
+                // All the slabs have been carved for other size classes.
+                return;
+            }
+            allocator.write(address, bytes);
+            final Entry<K> entry = new Entry<>(key, address, bytes.length);
+            index.put(key, entry);
+            queues[sizeClass].addLast(entry);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Returns size of the cache.
+     * @return Size of the cache.
+     */
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * Returns the number of bytes of off-heap memory allocated for the values so far.
+     * @return Allocated off-heap memory in bytes.
+     */
+    public long getOffHeapBytes() {
+        final long stamp = lock.readLock();
+        try {
+            return allocator.allocatedBytes();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Returns the limit of the off-heap memory used for the values.
+     * @return Maximum off-heap memory in bytes.
+     */
+    public long getMaxOffHeapBytes() {
+        return maxOffHeapBytes;
+    }
+
+    /**
+     * Returns a snapshot of the statistics of the cache.
+     * @return Snapshot of the statistics.
+     */
+    public CacheStats snapshot() {
+        return stats.snapshot(index.size());
+    }
+
+    /**
+     * Returns internal metric representing number of times the `srcFunc` was called.
+     * Note that this counts successful calls to `srcFunc` which did not result in raising exceptions.
+     * @return Number of times the `srcFunc` was called.
+     */
+    protected int getInitCounter() {
+        return initCounter.get();
+    }
+
+    /**
+     * On-heap index entry locating a serialized value in the off-heap memory.
+     */
+    static final class Entry<K> {
+        final K key;
+        final long address;
+        final int length;
+
+        Entry(K key, long address, int length) {
+            this.key = key;
+            this.address = address;
+            this.length = length;
+        }
+    }
+}
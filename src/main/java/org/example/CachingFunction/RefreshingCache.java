@@ -0,0 +1,238 @@
+package org.example.CachingFunction;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Thread-safe cache which refreshes its entries in the background (stale-while-revalidate).
+ * Once an entry is older than the refresh threshold, the next read still returns the current value immediately, and
+ * starts a single background reload of the entry. When the reload completes, the new value atomically replaces the
+ * old one. If the reload fails, the old value is kept and the reload is retried on a later read, after an
+ * exponentially growing backoff.
+ * Only a key which has never been loaded makes the caller wait for `srcFunc`.
+ */
+public class RefreshingCache<K, V> implements Cache<K, V> {
+
+    private static final int INITIAL_CAPACITY = 4096;
+    private static final long INITIAL_BACKOFF_MS = 100L;
+    private static final long MAX_BACKOFF_MS = 60_000L;
+
+    private final ConcurrentHashMap<K, Node<K, V>> map;
+    private final ConcurrentHashMap<K, CompletableFuture<V>> loads;
+
+    private final Function<K, V> srcFunc;
+    private final long refreshAfterWriteMs;
+    private final Executor executor;
+    private final LongSupplier clock;
+    private final StatsCounter stats;
+
+    /**
+     * This field is for testing only. Incremented each time `srcFunc` is called.
+     */
+    private final AtomicInteger initCounter;
+
+    /**
+     * Constructor for the RefreshingCache reloading values on the default executor and using the system clock.
+     * @param srcFunc Function to be called to calculate value (V) associated with a key (K).
+     * @param refreshAfterWriteMs Age in milliseconds after which an entry is reloaded on its next read.
+     */
+    public RefreshingCache(Function<K, V> srcFunc, long refreshAfterWriteMs) {
+        this(srcFunc, refreshAfterWriteMs, ConcurrentAsyncCache.defaultExecutor(), System::currentTimeMillis);
+    }
+
+    /**
+     * Constructor for the RefreshingCache.
+     * @param srcFunc Function to be called to calculate value (V) associated with a key (K).
+     * @param refreshAfterWriteMs Age in milliseconds after which an entry is reloaded on its next read.
+     * @param executor Executor running the background reloads.
+     * @param clock Source of the current time in millis since epoch.
+     */
+    public RefreshingCache(Function<K, V> srcFunc, long refreshAfterWriteMs, Executor executor, LongSupplier clock) {
+        if (srcFunc == null) {
+            throw new NullPointerException("Parameter \"srcFunc\" cannot be null.");
+        }
+        if (executor == null) {
+            throw new NullPointerException("Parameter \"executor\" cannot be null.");
+        }
+        if (clock == null) {
+            throw new NullPointerException("Parameter \"clock\" cannot be null.");
+        }
+        if (refreshAfterWriteMs <= 0L) {
+            throw new IllegalArgumentException("Parameter \"refreshAfterWriteMs\" must be positive.");
+        }
+        this.srcFunc = srcFunc;
+        this.refreshAfterWriteMs = refreshAfterWriteMs;
+        this.executor = executor;
+        this.clock = clock;
+        this.map = new ConcurrentHashMap<>(INITIAL_CAPACITY);
+        this.loads = new ConcurrentHashMap<>();
+        this.stats = new StatsCounter(getClass().getSimpleName());
+        this.initCounter = new AtomicInteger(0);
+    }
+
+    /**
+     * Get value of type V associated with the provided key of type K from the internal collection if the value is
+     * cached, starting its background reload if it is due. Otherwise, calls the provided Function<K, V> to calculate
+     * the value, cache it and return.
+     * @param key Key of type K associated with the requested value.
+     * @return Requested value of type V associated with the provided `key`.
+     */
+    @Override
+    public V get(K key) {
+        if (null == key) {
+            throw new NullPointerException("Cannot invoke \"Object.hashCode()\" because \"key\" is null");
+        }
+
+        final Node<K, V> node = map.get(key);
+        if (null != node) {
+            final long now = clock.getAsLong();
+            if (now - node.writeTime >= refreshAfterWriteMs && now >= node.retryTime
+                    && node.refreshing.compareAndSet(false, true)) {
+                refresh(node);
+            }
+            stats.recordHit();
+            return node.value;
+        }
+        stats.recordMiss();
+        return load(key);
+    }
+
+    private V load(K key) {
+        final CompletableFuture<V> future = new CompletableFuture<>();
+        final CompletableFuture<V> inFlight = loads.putIfAbsent(key, future);
+        if (null != inFlight) {
+            return await(inFlight);
+        }
+        try {
+            // A load may have been published between the map read in get() and registering this one.
+            final Node<K, V> existing = map.get(key);
+            if (null != existing) {
+                future.complete(existing.value);
+                return existing.value;
+            }
+            final V value = apply(key);
+            map.put(key, new Node<>(key, value, clock.getAsLong()));
+            future.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loads.remove(key, future);
+        }
+    }
+
+    private V await(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    private V apply(K key) {
+        final long start = System.nanoTime();
+        final V value;
+        try {
+            value = srcFunc.apply(key);
+        } catch (RuntimeException | Error e) {
+            stats.recordLoadFailure(key, System.nanoTime() - start);
+            throw e;
+        }
+        if (null == value) {
+            stats.recordLoadFailure(key, System.nanoTime() - start);
+            throw new NullPointerException("The provided Function<K,V> returned null for the given \"key\"");
+        }
+        stats.recordLoadSuccess(key, System.nanoTime() - start);
+        initCounter.incrementAndGet();
+        return value;
+    }
+
+    /**
+     * Reloads the entry on the executor. The caller must have set the entry's `refreshing` flag.
+     */
+    private void refresh(Node<K, V> node) {
+        try {
+            executor.execute(() -> {
+                try {
+                    final V value = apply(node.key);
+                    map.replace(node.key, node, new Node<>(node.key, value, clock.getAsLong()));
+                } catch (RuntimeException | Error e) {
+                    refreshFailed(node);
+                }
+            });
+        } catch (RuntimeException e) {
+            refreshFailed(node);
+        }
+    }
+
+    /**
+     * Keeps the stale value and allows a new reload attempt once the backoff has passed.
+     */
+    private void refreshFailed(Node<K, V> node) {
+        final int failures = ++node.failures;
+        final long backoff = Math.min(MAX_BACKOFF_MS, INITIAL_BACKOFF_MS << Math.min(failures - 1, 20));
+        node.retryTime = clock.getAsLong() + backoff;
+        node.refreshing.set(false);
+    }
+
+    /**
+     * Returns size of the cache.
+     * @return Size of the cache.
+     */
+    public int size() {
+        return map.size();
+    }
+
+    /**
+     * Returns a snapshot of the statistics of the cache. A read of an entry due for a reload still counts as a hit, and
+     * the background reloads are counted as loads.
+     * @return Snapshot of the statistics.
+     */
+    public CacheStats snapshot() {
+        return stats.snapshot(map.size());
+    }
+
+    /**
+     * Returns internal metric representing number of times the `srcFunc` was called.
+     * Note that this counts successful calls to `srcFunc` which did not result in raising exceptions, including the
+     * background reloads.
+     * @return Number of times the `srcFunc` was called.
+     */
+    protected int getInitCounter() {
+        return initCounter.get();
+    }
+
+    /**
+     * Cache entry with its write time and the state of its background reload.
+     * `failures` and `retryTime` are only written by the thread holding the `refreshing` flag.
+     */
+    static final class Node<K, V> {
+        final K key;
+        final V value;
+        final long writeTime;
+        final AtomicBoolean refreshing;
+        volatile int failures;
+        volatile long retryTime;
+
+        Node(K key, V value, long writeTime) {
+            this.key = key;
+            this.value = value;
+            this.writeTime = writeTime;
+            this.refreshing = new AtomicBoolean(false);
+        }
+    }
+}
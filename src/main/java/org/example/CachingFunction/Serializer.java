@@ -0,0 +1,22 @@
+package org.example.CachingFunction;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Converts objects of type T to bytes and back, for caches storing their entries outside the Java heap.
+ */
+public interface Serializer<T> {
+    /**
+     * Serializes the object.
+     * @param object Object to serialize.
+     * @return Serialized form of the object.
+     */
+    byte[] serialize(T object);
+
+    /**
+     * Deserializes the object from the remaining bytes of the buffer.
+     * @param buffer Buffer holding exactly the bytes returned by serialize().
+     * @return Deserialized object.
+     */
+    T deserialize(ByteBuffer buffer);
+}
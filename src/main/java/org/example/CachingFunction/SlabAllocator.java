@@ -0,0 +1,105 @@
+package org.example.CachingFunction;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Allocates chunks of off-heap memory from direct ByteBuffer slabs of a fixed size, memcached style.
+ * Chunk sizes are powers of two from 64 bytes up to the slab size. Each slab is carved into chunks of a single size
+ * class when it is allocated, and freed chunks go back to their class' free list for reuse. Slabs are never released,
+ * so the off-heap memory is bounded by the maximum number of slabs.
+ * A chunk address packs the slab index in the high 32 bits and the offset within the slab in the low 32 bits.
+ * Not thread-safe, callers are expected to guard it with their own lock.
+ */
+class SlabAllocator {
+
+    static final int MIN_CHUNK_SIZE = 64;
+    private static final int MIN_CHUNK_SHIFT = Integer.numberOfTrailingZeros(MIN_CHUNK_SIZE);
+
+    private final int slabSize;
+    private final int maxSlabs;
+    private final ArrayList<ByteBuffer> slabs;
+    private final long[][] freeChunks;
+    private final int[] freeCounts;
+
+    /**
+     * Constructor for the SlabAllocator.
+     * @param slabSize Size of a slab in bytes, a power of two of at least MIN_CHUNK_SIZE.
+     * @param maxBytes Maximum number of off-heap bytes to allocate.
+     */
+    SlabAllocator(int slabSize, long maxBytes) {
+        if (slabSize < MIN_CHUNK_SIZE || Integer.bitCount(slabSize) != 1) {
+            throw new IllegalArgumentException("Slab size must be a power of two of at least " + MIN_CHUNK_SIZE + " bytes.");
+        }
+        if (maxBytes < slabSize) {
+            throw new IllegalArgumentException("Off-heap memory limit must hold at least one slab.");
+        }
+        this.slabSize = slabSize;
+        this.maxSlabs = (int) Math.min(Integer.MAX_VALUE, maxBytes / slabSize);
+        this.slabs = new ArrayList<>();
+        final int classes = sizeClass(slabSize) + 1;
+        this.freeChunks = new long[classes][];
+        this.freeCounts = new int[classes];
+        for (int i = 0; i < classes; ++i) {
+            freeChunks[i] = new long[16];
+        }
+    }
+
+    /**
+     * Returns the size class of chunks able to hold the given number of bytes, or -1 if it exceeds the slab size.
+     */
+    int sizeClass(int length) {
+        if (length > slabSize) {
+            return -1;
+        }
+        if (length <= MIN_CHUNK_SIZE) {
+            return 0;
+        }
+        return Integer.SIZE - Integer.numberOfLeadingZeros(length - 1) - MIN_CHUNK_SHIFT;
+    }
+
+    /**
+     * Allocates a chunk of the size class, carving a new slab if its free list is empty.
+     * @return Address of the chunk, or -1 if the free list is empty and no more slabs can be allocated.
+     */
+    long allocate(int sizeClass) {
+        if (0 == freeCounts[sizeClass]) {
+            if (slabs.size() >= maxSlabs) {
+                return -1L;
+            }
+            final long slab = slabs.size();
+            slabs.add(ByteBuffer.allocateDirect(slabSize));
+            final int chunkSize = MIN_CHUNK_SIZE << sizeClass;
+            for (int offset = slabSize - chunkSize; offset >= 0; offset -= chunkSize) {
+                free(sizeClass, (slab << 32) | offset);
+            }
+        }
+        return freeChunks[sizeClass][--freeCounts[sizeClass]];
+    }
+
+    /**
+     * Returns the chunk to the free list of its size class.
+     */
+    void free(int sizeClass, long address) {
+        if (freeCounts[sizeClass] == freeChunks[sizeClass].length) {
+            freeChunks[sizeClass] = Arrays.copyOf(freeChunks[sizeClass], freeChunks[sizeClass].length * 2);
+        }
+        freeChunks[sizeClass][freeCounts[sizeClass]++] = address;
+    }
+
+    void write(long address, byte[] bytes) {
+        slabs.get((int) (address >>> 32)).put((int) address, bytes);
+    }
+
+    void read(long address, byte[] bytes) {
+        slabs.get((int) (address >>> 32)).get((int) address, bytes);
+    }
+
+    /**
+     * Returns the number of off-heap bytes allocated so far.
+     */
+    long allocatedBytes() {
+        return (long) slabs.size() * slabSize;
+    }
+}
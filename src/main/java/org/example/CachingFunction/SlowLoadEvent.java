@@ -0,0 +1,32 @@
+package org.example.CachingFunction;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Java Flight Recorder event reported by a StatsCounter for a load slower than its threshold. Events cost nothing
+ * unless a recording is running, e.g. one started with -XX:StartFlightRecording.
+ */
+@Name("org.example.CachingFunction.SlowLoad")
+@Label("Slow Cache Load")
+@Category("Cache")
+@Description("Call to the function of a cache which took longer than the threshold of the cache")
+class SlowLoadEvent extends Event {
+
+    @Label("Cache")
+    String cache;
+
+    @Label("Key")
+    String key;
+
+    @Label("Load Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long loadTime;
+
+    @Label("Failed")
+    boolean failed;
+}
@@ -0,0 +1,311 @@
+package org.example.CachingFunction;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Thread-safe cache optimized for key sets which stop growing after a warm-up, and are then only read.
+ * Cached entries are published in an immutable open-addressing table through a single volatile reference, so a hit is
+ * a single array probe, without any lock or write to shared memory.
+ * Values loaded on misses are first kept in a pending ConcurrentHashMap. They are merged into a new copy of the table
+ * once enough of them are pending or the oldest one waited long enough, by whichever thread notices it first.
+ * Each rebuild copies the whole table, so a rebuild is only triggered by a number of pending values growing with the
+ * table (a quarter of its size), which keeps the copying amortized O(1) per cached value. Reads of values still
+ * pending take a hash lookup, so the cache suits a key set which mostly grows in the beginning.
+ */
+public class SnapshotCache<K, V> implements Cache<K, V> {
+
+    private static final int DEFAULT_REBUILD_THRESHOLD = 64;
+    private static final long DEFAULT_MAX_REBUILD_DELAY_MS = 100L;
+    private static final int REBUILD_SIZE_SHIFT = 2;
+
+    private volatile Snapshot snapshot;
+    private final ConcurrentHashMap<K, V> pending;
+    private final ConcurrentHashMap<K, CompletableFuture<V>> loads;
+    private final ReentrantLock rebuildLock;
+    private final int rebuildThreshold;
+    private final long maxRebuildDelayNanos;
+    private volatile long lastRebuildTime;
+
+    private final Function<K, V> srcFunc;
+    private final StatsCounter stats;
+
+    /**
+     * This field is for testing only. Incremented each time `srcFunc` is called.
+     */
+    private final AtomicInteger initCounter;
+
+    /**
+     * This field is for testing only. Incremented each time the snapshot table is rebuilt.
+     */
+    private final AtomicInteger rebuildCounter;
+
+    /**
+     * Constructor for the SnapshotCache rebuilding its table once 64 values, or a quarter of the table size, are
+     * pending, or after 100 ms.
+     * @param srcFunc Function to be called on a cache miss to calculate value (V) associated with a key (K).
+     */
+    public SnapshotCache(Function<K, V> srcFunc) {
+        this(srcFunc, DEFAULT_REBUILD_THRESHOLD, DEFAULT_MAX_REBUILD_DELAY_MS);
+    }
+
+    /**
+     * Constructor for the SnapshotCache.
+     * @param srcFunc Function to be called on a cache miss to calculate value (V) associated with a key (K).
+     * @param rebuildThreshold Minimum number of pending values triggering a rebuild of the table. Once the table holds
+     *                         more than 4 times as many values, a quarter of its size triggers it. Must be positive.
+     * @param maxRebuildDelayMs Time in milliseconds after the last rebuild after which any pending value triggers a
+     *                          rebuild on its next read.
+     */
+    public SnapshotCache(Function<K, V> srcFunc, int rebuildThreshold, long maxRebuildDelayMs) {
+        if (srcFunc == null) {
+            throw new NullPointerException("Parameter \"srcFunc\" cannot be null.");
+        }
+        if (rebuildThreshold <= 0 || maxRebuildDelayMs < 0L) {
+            throw new IllegalArgumentException("Rebuild threshold must be positive and rebuild delay cannot be negative.");
+        }
+        this.srcFunc = srcFunc;
+        this.rebuildThreshold = rebuildThreshold;
+        this.maxRebuildDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxRebuildDelayMs);
+        this.snapshot = new Snapshot(new Object[2], 0);
+        this.pending = new ConcurrentHashMap<>();
+        this.loads = new ConcurrentHashMap<>();
+        this.rebuildLock = new ReentrantLock();
+        this.lastRebuildTime = System.nanoTime();
+        this.stats = new StatsCounter(getClass().getSimpleName());
+        this.initCounter = new AtomicInteger(0);
+        this.rebuildCounter = new AtomicInteger(0);
+    }
+
+    /**
+     * Get value of type V associated with the provided key of type K from the snapshot table or the pending values if
+     * the value is cached. Otherwise, calls the provided Function<K, V> to calculate the value, cache it and return.
+     * @param key Key of type K associated with the requested value.
+     * @return Requested value of type V associated with the provided `key`.
+     */
+    @Override
+    public V get(K key) {
+        if (null == key) {
+            throw new NullPointerException("Cannot invoke \"Object.hashCode()\" because \"key\" is null");
+        }
+
+        final V value = snapshot.get(key);
+        if (null != value) {
+            return value;
+        }
+        final V pendingValue = pending.get(key);
+        if (null != pendingValue) {
+            stats.recordHit();
+            maybeRebuild();
+            return pendingValue;
+        }
+        stats.recordMiss();
+        return load(key);
+    }
+
+    private V load(K key) {
+        final CompletableFuture<V> future = new CompletableFuture<>();
+        final CompletableFuture<V> inFlight = loads.putIfAbsent(key, future);
+        if (null != inFlight) {
+            return await(inFlight);
+        }
+        try {
+            // A load may have been published between the reads in get() and registering this one. Values leave
+            // `pending` only after they are published in the snapshot, so the snapshot is read last.
+            V value = pending.get(key);
+            if (null == value) {
+                value = snapshot.get(key);
+            }
+            if (null == value) {
+                final long start = System.nanoTime();
+                try {
+                    value = srcFunc.apply(key);
+                } catch (RuntimeException | Error e) {
+                    stats.recordLoadFailure(key, System.nanoTime() - start);
+                    throw e;
+                }
+                if (null == value) {
+                    stats.recordLoadFailure(key, System.nanoTime() - start);
+                    throw new NullPointerException("The provided Function<K,V> returned null for the given \"key\"");
+                }
+                stats.recordLoadSuccess(key, System.nanoTime() - start);
+                pending.put(key, value);
+                initCounter.incrementAndGet();
+            }
+            future.complete(value);
+            maybeRebuild();
+            return value;
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loads.remove(key, future);
+        }
+    }
+
+    private V await(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    private void maybeRebuild() {
+        // Scaling the threshold with the table keeps a rebuild's copy proportional to the values it merges.
+        final int threshold = Math.max(rebuildThreshold, snapshot.size >>> REBUILD_SIZE_SHIFT);
+        if (pending.size() < threshold && System.nanoTime() - lastRebuildTime < maxRebuildDelayNanos) {
+            return;
+        }
+        if (!rebuildLock.tryLock()) {
+            // Another thread is already merging the pending values.
+            return;
+        }
+        try {
+            rebuild();
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * Publishes a new table with the entries of the current one and all the pending values, and only then removes the
+     * merged values from `pending`, so that a reader always finds a cached value in one of them.
+     * Must be called while holding the rebuild lock.
+     */
+    private void rebuild() {
+        if (pending.isEmpty()) {
+            lastRebuildTime = System.nanoTime();
+            return;
+        }
+        final Snapshot current = snapshot;
+        // Entries of a ConcurrentHashMap iterator hold the values read while iterating.
+        final List<Map.Entry<K, V>> merged = new ArrayList<>(pending.entrySet());
+        final int size = current.size + merged.size();
+        final Object[] table = new Object[2 * tableCapacity(size)];
+        final int mask = table.length / 2 - 1;
+        for (int i = 0; i < current.table.length; i += 2) {
+            if (null != current.table[i]) {
+                Snapshot.put(table, mask, current.table[i], current.table[i + 1]);
+            }
+        }
+        for (Map.Entry<K, V> entry : merged) {
+            Snapshot.put(table, mask, entry.getKey(), entry.getValue());
+        }
+        snapshot = new Snapshot(table, size);
+        rebuildCounter.incrementAndGet();
+        for (Map.Entry<K, V> entry : merged) {
+            pending.remove(entry.getKey(), entry.getValue());
+        }
+        lastRebuildTime = System.nanoTime();
+    }
+
+    /**
+     * Returns the power of two capacity keeping the table at most half full.
+     */
+    private static int tableCapacity(int size) {
+        return Math.max(2, Integer.highestOneBit(Math.max(size, 1)) << 2);
+    }
+
+    /**
+     * Returns size of the cache.
+     * @return Size of the cache.
+     */
+    public int size() {
+        // A value being merged may be counted twice for a moment.
+        return snapshot.size + pending.size();
+    }
+
+    /**
+     * Returns the number of values cached but not yet published in the snapshot table.
+     * @return Number of pending values.
+     */
+    public int pendingSize() {
+        return pending.size();
+    }
+
+    /**
+     * Returns a snapshot of the statistics of the cache. Hits of the snapshot table are not counted, so that they stay
+     * free of writes to shared memory; the hit count only covers reads of pending values.
+     * @return Snapshot of the statistics.
+     */
+    public CacheStats snapshot() {
+        return stats.snapshot(size());
+    }
+
+    /**
+     * Returns internal metric representing number of times the `srcFunc` was called.
+     * Note that this counts successful calls to `srcFunc` which did not result in raising exceptions.
+     * @return Number of times the `srcFunc` was called.
+     */
+    protected int getInitCounter() {
+        return initCounter.get();
+    }
+
+    /**
+     * Returns internal metric representing number of times the snapshot table was rebuilt.
+     * @return Number of rebuilds of the snapshot table.
+     */
+    protected int getRebuildCounter() {
+        return rebuildCounter.get();
+    }
+
+    /**
+     * Immutable open-addressing table with linear probing. Keys are stored at even and values at odd indexes.
+     */
+    static final class Snapshot {
+        final Object[] table;
+        final int mask;
+        final int size;
+
+        Snapshot(Object[] table, int size) {
+            this.table = table;
+            this.mask = table.length / 2 - 1;
+            this.size = size;
+        }
+
+        @SuppressWarnings("unchecked")
+        <V> V get(Object key) {
+            int index = spread(key.hashCode()) & mask;
+            while (true) {
+                final Object candidate = table[2 * index];
+                if (null == candidate) {
+                    return null;
+                }
+                if (candidate.equals(key)) {
+                    return (V) table[2 * index + 1];
+                }
+                index = (index + 1) & mask;
+            }
+        }
+
+        static void put(Object[] table, int mask, Object key, Object value) {
+            int index = spread(key.hashCode()) & mask;
+            while (null != table[2 * index]) {
+                index = (index + 1) & mask;
+            }
+            table[2 * index] = key;
+            table[2 * index + 1] = value;
+        }
+
+        private static int spread(int hash) {
+            final int h = hash * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package org.example.CachingFunction;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Accumulates statistics of a cache in striped counters (LongAdder), so that recording them from many threads does
+ * not make the threads contend on a single memory location. Load times are also recorded in a histogram with
+ * power-of-two buckets, and loads slower than a threshold are reported as SlowLoadEvent to Java Flight Recorder.
+ * Every Cache implementation with a snapshot() method records its statistics in a StatsCounter; CoherentCache reports
+ * those of its local cache. SimpleNotSynchronizedCache, a single-threaded baseline, records none, and neither do
+ * FrontCache (whose backing cache only sees the front caches' misses) and the primitive-keyed caches, which keep their
+ * hits free of writes to shared memory.
+ */
+public final class StatsCounter {
+
+    /**
+     * Number of buckets of the load time histogram. Bucket i counts the loads which took [2^i, 2^(i+1)) microseconds,
+     * the first one also counts faster loads and the last one all the slower loads.
+     */
+    public static final int HISTOGRAM_BUCKETS = 32;
+
+    private static final long DEFAULT_SLOW_LOAD_THRESHOLD_NANOS = TimeUnit.MILLISECONDS.toNanos(100L);
+
+    private final LongAdder hitCount;
+    private final LongAdder missCount;
+    private final LongAdder loadSuccessCount;
+    private final LongAdder loadFailureCount;
+    private final LongAdder evictionCount;
+    private final LongAdder totalLoadTime;
+    private final LongAdder[] loadTimeHistogram;
+    private final long slowLoadThresholdNanos;
+    private final String cacheName;
+
+    /**
+     * Constructor for the StatsCounter reporting loads slower than 100 ms.
+     * @param cacheName Name of the cache, used in the reported events.
+     */
+    public StatsCounter(String cacheName) {
+        this(cacheName, DEFAULT_SLOW_LOAD_THRESHOLD_NANOS);
+    }
+
+    /**
+     * Constructor for the StatsCounter.
+     * @param cacheName Name of the cache, used in the reported events.
+     * @param slowLoadThresholdNanos Loads taking at least this many nanoseconds are reported as SlowLoadEvent.
+     */
+    public StatsCounter(String cacheName, long slowLoadThresholdNanos) {
+        if (cacheName == null) {
+            throw new NullPointerException("Parameter \"cacheName\" cannot be null.");
+        }
+        this.cacheName = cacheName;
+        this.slowLoadThresholdNanos = slowLoadThresholdNanos;
+        this.hitCount = new LongAdder();
+        this.missCount = new LongAdder();
+        this.loadSuccessCount = new LongAdder();
+        this.loadFailureCount = new LongAdder();
+        this.evictionCount = new LongAdder();
+        this.totalLoadTime = new LongAdder();
+        this.loadTimeHistogram = new LongAdder[HISTOGRAM_BUCKETS];
+        for (int i = 0; i < loadTimeHistogram.length; ++i) {
+            loadTimeHistogram[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records a lookup which found its value in the cache.
+     */
+    public void recordHit() {
+        hitCount.increment();
+    }
+
+    /**
+     * Records a lookup which did not find its value in the cache.
+     */
+    public void recordMiss() {
+        missCount.increment();
+    }
+
+    /**
+     * Records a successful load.
+     * @param key Key (or keys) of the load, only converted to a String for a slow load event.
+     * @param loadTimeNanos Time the load took, in nanoseconds.
+     */
+    public void recordLoadSuccess(Object key, long loadTimeNanos) {
+        loadSuccessCount.increment();
+        recordLoadTime(key, loadTimeNanos, false);
+    }
+
+    /**
+     * Records a load which failed with an exception or returned no value.
+     * @param key Key (or keys) of the load, only converted to a String for a slow load event.
+     * @param loadTimeNanos Time the load took, in nanoseconds.
+     */
+    public void recordLoadFailure(Object key, long loadTimeNanos) {
+        loadFailureCount.increment();
+        recordLoadTime(key, loadTimeNanos, true);
+    }
+
+    /**
+     * Records an entry evicted by the cache's policy.
+     */
+    public void recordEviction() {
+        evictionCount.increment();
+    }
+
+    private void recordLoadTime(Object key, long loadTimeNanos, boolean failed) {
+        totalLoadTime.add(loadTimeNanos);
+        loadTimeHistogram[bucket(loadTimeNanos)].increment();
+        if (loadTimeNanos >= slowLoadThresholdNanos) {
+            final SlowLoadEvent event = new SlowLoadEvent();
+            if (event.isEnabled()) {
+                event.cache = cacheName;
+                event.key = String.valueOf(key);
+                event.loadTime = loadTimeNanos;
+                event.failed = failed;
+                event.commit();
+            }
+        }
+    }
+
+    static int bucket(long loadTimeNanos) {
+        final long micros = Math.max(loadTimeNanos / 1_000L, 1L);
+        return Math.min(Long.SIZE - 1 - Long.numberOfLeadingZeros(micros), HISTOGRAM_BUCKETS - 1);
+    }
+
+    /**
+     * Returns a snapshot of the statistics. Counters are read one by one without stopping the threads updating them,
+     * so the snapshot is consistent only when the cache is idle.
+     * @param size Approximate size of the cache, to be included in the snapshot.
+     * @return Snapshot of the statistics.
+     */
+    public CacheStats snapshot(long size) {
+        final long[] histogram = new long[HISTOGRAM_BUCKETS];
+        for (int i = 0; i < histogram.length; ++i) {
+            histogram[i] = loadTimeHistogram[i].sum();
+        }
+        return new CacheStats(hitCount.sum(), missCount.sum(), loadSuccessCount.sum(), loadFailureCount.sum(),
+                evictionCount.sum(), totalLoadTime.sum(), histogram, size);
+    }
+}
@@ -7,6 +7,8 @@ import java.util.function.Function;
 /**
  * Thread-safe cache that returns values of type V associated with keys of type K from an internal collection, if the
  * value is cached. Otherwise, it calls a provided function to get/calculate the value, caches it and returns it.
+ * The function is called while holding a lock shared by a stripe of keys, so it must not call get() of the same
+ * cache: nested loads can deadlock. ConcurrentCache supports recursive loads.
  */
 public class SynchronizedCache<K, V> implements Cache<K, V> {
 
@@ -15,6 +17,7 @@ public class SynchronizedCache<K, V> implements Cache<K, V> {
     private final Object[] locks;
 
     private final Function<K, V> srcFunc;
+    private final StatsCounter stats;
 
     /**
      * This field is for testing only. Incremented each time `srcFunc` is called.
@@ -35,6 +38,7 @@ public class SynchronizedCache<K, V> implements Cache<K, V> {
         for (int i = 0; i < locks.length; ++i) {
             locks[i] = new Object();
         }
+        this.stats = new StatsCounter(getClass().getSimpleName());
         this.initCounter = new AtomicInteger(0);
     }
 
@@ -53,26 +57,45 @@ public class SynchronizedCache<K, V> implements Cache<K, V> {
         final Object lock = locks[(key.hashCode() & 0x7FFFFFFF) % locks.length];
         synchronized (lock) {
             V value = map.get(key);
-            if (null == value) {
+            if (null != value) {
+                stats.recordHit();
+                return value;
+            }
+            stats.recordMiss();
+            final long start = System.nanoTime();
+            try {
                 value = srcFunc.apply(key);
-                if (null == value) {
-                    throw new NullPointerException("The provided Function<K,V> returned null for the given \"key\"");
-                }
-                map.put(key, value);
-                initCounter.incrementAndGet();
+            } catch (RuntimeException | Error e) {
+                stats.recordLoadFailure(key, System.nanoTime() - start);
+                throw e;
+            }
+            if (null == value) {
+                stats.recordLoadFailure(key, System.nanoTime() - start);
+                throw new NullPointerException("The provided Function<K,V> returned null for the given \"key\"");
             }
+            stats.recordLoadSuccess(key, System.nanoTime() - start);
+            map.put(key, value);
+            initCounter.incrementAndGet();
             return value;
         }
     }
 
     /**
-     * Returns size of the cache.
+     * Returns size of the cache. It is read without locking, so it is approximate while other threads add entries.
      * @return Size of the cache.
      */
-    public synchronized int size() {
+    public int size() {
         return map.size();
     }
 
+    /**
+     * Returns a snapshot of the statistics of the cache.
+     * @return Snapshot of the statistics.
+     */
+    public CacheStats snapshot() {
+        return stats.snapshot(map.size());
+    }
+
     /**
      * Returns internal metric representing number of times the `srcFunc` was called.
      * Note that this counts successful calls to `srcFunc` which did not result in raising exceptions.
@@ -0,0 +1,366 @@
+package org.example.CachingFunction;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Thread-safe two-tier cache. The first tier (L1) is an in-memory map, as in SynchronizedCache. The second tier (L2)
+ * is an append-only log of serialized entries in a memory-mapped file, so it survives a restart of the process.
+ * An L1 miss checks L2 before calling the provided function, and every loaded value is appended to the log.
+ *
+ * The location of each entry in the log is kept in an in-memory index. checkpoint() and close() write the index to
+ * a separate file together with the log position it covers. On startup the index file is read and only the part of
+ * the log written after the checkpoint is replayed, so a restarted cache serves hits in time proportional to the
+ * index size rather than the log size. Without an index file (e.g. after a crash before the first checkpoint) the
+ * whole log is replayed.
+ *
+ * Entries written after the last checkpoint survive a crash of the process, as the mapped pages belong to the OS;
+ * they are only guaranteed to survive a crash of the OS after checkpoint() or close(). Once the log is full, new
+ * values are cached in L1 only.
+ */
+public class TieredCache<K, V> implements Cache<K, V>, Closeable {
+
+    private static final int INITIAL_CAPACITY = 4096;
+    private static final long DEFAULT_MAX_LOG_BYTES = 64L << 20;
+
+    static final String LOG_FILE = "cache.log";
+    static final String INDEX_FILE = "cache.idx";
+
+    // Log layout: magic, end position, then records of [key length][value length][key bytes][value bytes].
+    private static final long LOG_MAGIC = 0x544345434C4F4701L;
+    private static final int END_POSITION = Long.BYTES;
+    private static final int HEADER_SIZE = 2 * Long.BYTES;
+    private static final int RECORD_HEADER_SIZE = 2 * Integer.BYTES;
+
+    // Index layout: magic, covered log position, entries count, then the offsets of the records.
+    private static final long INDEX_MAGIC = 0x544345434944580AL;
+
+    private final ConcurrentHashMap<K, V> map;
+    private final Object[] locks;
+
+    private final ConcurrentHashMap<K, Long> offsets;
+    private final Path directory;
+    private final MappedByteBuffer log;
+    private final Object logLock;
+
+    // Fields below are guarded by `logLock`.
+    private int end;
+    private boolean closed;
+
+    private final Function<K, V> srcFunc;
+    private final Serializer<K> keySerializer;
+    private final Serializer<V> valueSerializer;
+    private final StatsCounter stats;
+
+    /**
+     * This field is for testing only. Incremented each time `srcFunc` is called.
+     */
+    private final AtomicInteger initCounter;
+
+    /**
+     * This field is for testing only. Incremented each time a value is read from L2.
+     */
+    private final AtomicInteger diskHitCounter;
+
+    /**
+     * Constructor for the TieredCache with a log of at most 64 MiB.
+     * @param srcFunc Function to be called on a cache miss to calculate value (V) associated with a key (K).
+     * @param keySerializer Serializer of the keys.
+     * @param valueSerializer Serializer of the values.
+     * @param directory Directory of the log and index files. Created if it does not exist.
+     * @throws IOException If the files cannot be opened or mapped.
+     */
+    public TieredCache(Function<K, V> srcFunc, Serializer<K> keySerializer, Serializer<V> valueSerializer,
+                       Path directory) throws IOException {
+        this(srcFunc, keySerializer, valueSerializer, directory, DEFAULT_MAX_LOG_BYTES);
+    }
+
+    /**
+     * Constructor for the TieredCache.
+     * @param srcFunc Function to be called on a cache miss to calculate value (V) associated with a key (K).
+     * @param keySerializer Serializer of the keys.
+     * @param valueSerializer Serializer of the values.
+     * @param directory Directory of the log and index files. Created if it does not exist.
+     * @param maxLogBytes Size of the mapped log file, at most 2 GiB. An existing larger log keeps its size.
+     * @throws IOException If the files cannot be opened or mapped.
+     */
+    public TieredCache(Function<K, V> srcFunc, Serializer<K> keySerializer, Serializer<V> valueSerializer,
+                       Path directory, long maxLogBytes) throws IOException {
+        if (srcFunc == null) {
+            throw new NullPointerException("Parameter \"srcFunc\" cannot be null.");
+        }
+        if (keySerializer == null) {
+            throw new NullPointerException("Parameter \"keySerializer\" cannot be null.");
+        }
+        if (valueSerializer == null) {
+            throw new NullPointerException("Parameter \"valueSerializer\" cannot be null.");
+        }
+        if (directory == null) {
+            throw new NullPointerException("Parameter \"directory\" cannot be null.");
+        }
+        if (maxLogBytes <= HEADER_SIZE || maxLogBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Parameter \"maxLogBytes\" must be between " + (HEADER_SIZE + 1)
+                    + " and " + Integer.MAX_VALUE + ".");
+        }
+        this.srcFunc = srcFunc;
+        this.keySerializer = keySerializer;
+        this.valueSerializer = valueSerializer;
+        this.directory = directory;
+        this.map = new ConcurrentHashMap<>(INITIAL_CAPACITY);
+        this.locks = new Object[255];
+        for (int i = 0; i < locks.length; ++i) {
+            locks[i] = new Object();
+        }
+        this.offsets = new ConcurrentHashMap<>(INITIAL_CAPACITY);
+        this.logLock = new Object();
+        this.stats = new StatsCounter(getClass().getSimpleName());
+        this.initCounter = new AtomicInteger(0);
+        this.diskHitCounter = new AtomicInteger(0);
+
+        Files.createDirectories(directory);
+        try (FileChannel channel = FileChannel.open(directory.resolve(LOG_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            final long size = Math.max(channel.size(), maxLogBytes);
+            this.log = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.min(size, Integer.MAX_VALUE));
+        }
+        open();
+    }
+
+    /**
+     * Restores the index of the log: reads the index file, then replays the records appended after it was written.
+     */
+    private void open() throws IOException {
+        if (log.getLong(0) != LOG_MAGIC) {
+            // A new (or unrecognized) log starts empty.
+            log.putLong(0, LOG_MAGIC);
+            log.putLong(END_POSITION, HEADER_SIZE);
+            Files.deleteIfExists(directory.resolve(INDEX_FILE));
+        }
+        final long logEnd = log.getLong(END_POSITION);
+        end = logEnd < HEADER_SIZE || logEnd > log.capacity() ? HEADER_SIZE : (int) logEnd;
+
+        int position = readIndex();
+        while (position + RECORD_HEADER_SIZE <= end) {
+            final int keyLength = log.getInt(position);
+            final int valueLength = log.getInt(position + Integer.BYTES);
+            final long next = (long) position + RECORD_HEADER_SIZE + keyLength + valueLength;
+            if (keyLength < 0 || valueLength < 0 || next > end) {
+                break;
+            }
+            offsets.put(readKey(position), (long) position);
+            position = (int) next;
+        }
+        // Drops a torn record at the end of the log, if any.
+        end = position;
+        log.putLong(END_POSITION, end);
+    }
+
+    /**
+     * Loads the offsets stored in the index file.
+     * @return Log position covered by the index file, or the start of the log if there is no usable index file.
+     */
+    private int readIndex() throws IOException {
+        final Path path = directory.resolve(INDEX_FILE);
+        if (!Files.exists(path)) {
+            return HEADER_SIZE;
+        }
+        final ByteBuffer index = ByteBuffer.wrap(Files.readAllBytes(path));
+        if (index.remaining() < Long.BYTES * 2 + Integer.BYTES || index.getLong() != INDEX_MAGIC) {
+            return HEADER_SIZE;
+        }
+        final long covered = index.getLong();
+        final int count = index.getInt();
+        if (covered < HEADER_SIZE || covered > end || count < 0 || index.remaining() != count * Long.BYTES) {
+            return HEADER_SIZE;
+        }
+        for (int i = 0; i < count; ++i) {
+            final long offset = index.getLong();
+            if (offset < HEADER_SIZE || offset + RECORD_HEADER_SIZE > covered) {
+                offsets.clear();
+                return HEADER_SIZE;
+            }
+            offsets.put(readKey((int) offset), offset);
+        }
+        return (int) covered;
+    }
+
+    /**
+     * Get value of type V associated with the provided key of type K from memory or from the log if the value is
+     * cached. Otherwise, calls the provided Function<K, V> to calculate the value, cache it and return.
+     * @param key Key of type K associated with the requested value.
+     * @return Requested value of type V associated with the provided `key`.
+     */
+    @Override
+    public V get(K key) {
+        if (null == key) {
+            throw new NullPointerException("Cannot invoke \"Object.hashCode()\" because \"key\" is null");
+        }
+
+        V value = map.get(key);
+        if (null != value) {
+            stats.recordHit();
+            return value;
+        }
+        final Object lock = locks[(key.hashCode() & 0x7FFFFFFF) % locks.length];
+        synchronized (lock) {
+            value = map.get(key);
+            if (null == value) {
+                value = readValue(key);
+                if (null == value) {
+                    stats.recordMiss();
+                    final long start = System.nanoTime();
+                    try {
+                        value = srcFunc.apply(key);
+                    } catch (RuntimeException | Error e) {
+                        stats.recordLoadFailure(key, System.nanoTime() - start);
+                        throw e;
+                    }
+                    if (null == value) {
+                        stats.recordLoadFailure(key, System.nanoTime() - start);
+                        throw new NullPointerException("The provided Function<K,V> returned null for the given \"key\"");
+                    }
+                    stats.recordLoadSuccess(key, System.nanoTime() - start);
+                    initCounter.incrementAndGet();
+                    append(key, value);
+                } else {
+                    stats.recordHit();
+                }
+                map.put(key, value);
+            } else {
+                // Loaded by another lookup while this one waited for the lock.
+                stats.recordMiss();
+            }
+            return value;
+        }
+    }
+
+    private V readValue(K key) {
+        final Long offset = offsets.get(key);
+        if (null == offset) {
+            return null;
+        }
+        // Records are never modified once their offset is published, so they are read without a lock.
+        final int position = offset.intValue();
+        final int keyLength = log.getInt(position);
+        final int valueLength = log.getInt(position + Integer.BYTES);
+        diskHitCounter.incrementAndGet();
+        return valueSerializer.deserialize(log.slice(position + RECORD_HEADER_SIZE + keyLength, valueLength));
+    }
+
+    private K readKey(int position) {
+        final int keyLength = log.getInt(position);
+        return keySerializer.deserialize(log.slice(position + RECORD_HEADER_SIZE, keyLength));
+    }
+
+    private void append(K key, V value) {
+        final byte[] keyBytes = keySerializer.serialize(key);
+        final byte[] valueBytes = valueSerializer.serialize(value);
+        synchronized (logLock) {
+            final long next = (long) end + RECORD_HEADER_SIZE + keyBytes.length + valueBytes.length;
+            if (closed || next > log.capacity()) {
+                return;
+            }
+            log.putInt(end, keyBytes.length);
+            log.putInt(end + Integer.BYTES, valueBytes.length);
+            log.put(end + RECORD_HEADER_SIZE, keyBytes);
+            log.put(end + RECORD_HEADER_SIZE + keyBytes.length, valueBytes);
+            // The end position is moved only after the record is complete, so a torn record is never replayed.
+            log.putLong(END_POSITION, next);
+            offsets.put(key, (long) end);
+            end = (int) next;
+        }
+    }
+
+    /**
+     * Flushes the log to the disk and writes the index file, so that a restart replays only the records appended
+     * after this call.
+     * @throws IOException If the index file cannot be written.
+     */
+    public void checkpoint() throws IOException {
+        final int covered;
+        final List<Long> snapshot;
+        synchronized (logLock) {
+            if (closed) {
+                return;
+            }
+            covered = end;
+            snapshot = new ArrayList<>(offsets.values());
+            log.force();
+        }
+        final ByteBuffer index = ByteBuffer.allocate(Long.BYTES * 2 + Integer.BYTES + snapshot.size() * Long.BYTES);
+        index.putLong(INDEX_MAGIC).putLong(covered).putInt(snapshot.size());
+        for (Long offset : snapshot) {
+            index.putLong(offset);
+        }
+        final Path tmp = directory.resolve(INDEX_FILE + ".tmp");
+        Files.write(tmp, index.array());
+        Files.move(tmp, directory.resolve(INDEX_FILE), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Writes a checkpoint and stops appending to the log. Values loaded afterwards are cached in memory only.
+     * @throws IOException If the index file cannot be written.
+     */
+    @Override
+    public void close() throws IOException {
+        checkpoint();
+        synchronized (logLock) {
+            closed = true;
+        }
+    }
+
+    /**
+     * Returns size of the in-memory tier of the cache.
+     * @return Size of the in-memory tier of the cache.
+     */
+    public int size() {
+        return map.size();
+    }
+
+    /**
+     * Returns the number of entries stored in the log.
+     * @return Size of the persistent tier of the cache.
+     */
+    public int diskSize() {
+        return offsets.size();
+    }
+
+    /**
+     * Returns a snapshot of the statistics of the cache. A value read from the log counts as a hit, so only the calls
+     * to `srcFunc`, and the lookups which waited for one, count as misses. Its size is the size of the in-memory tier.
+     * @return Snapshot of the statistics.
+     */
+    public CacheStats snapshot() {
+        return stats.snapshot(map.size());
+    }
+
+    /**
+     * Returns internal metric representing number of times the `srcFunc` was called.
+     * Note that this counts successful calls to `srcFunc` which did not result in raising exceptions.
+     * @return Number of times the `srcFunc` was called.
+     */
+    protected int getInitCounter() {
+        return initCounter.get();
+    }
+
+    /**
+     * Returns internal metric representing number of times a value was read from the log.
+     * @return Number of hits of the persistent tier.
+     */
+    protected int getDiskHitCounter() {
+        return diskHitCounter.get();
+    }
+}
@@ -0,0 +1,435 @@
+package org.example.CachingFunction;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Thread-safe cache bounded by a maximum number of entries, using a W-TinyLFU style eviction policy.
+ * New entries enter a small LRU admission window (1% of the capacity). Entries leaving the window compete with the
+ * least recently used entry of the main space, and the one with the higher estimated frequency is kept. The main
+ * space is a segmented LRU with probation and protected segments. Frequencies are estimated by a FrequencySketch,
+ * so the policy keeps a high hit rate on skewed traffic and one-off scans do not flush popular entries.
+ * Cache hits are lock-free: they are recorded in striped lossy buffers which are replayed against the policy
+ * under the eviction lock, in batches, by whichever thread fills a buffer or loads a value.
+ */
+public class TinyLfuCache<K, V> implements Cache<K, V> {
+
+    private static final int INITIAL_CAPACITY = 4096;
+    private static final int READ_BUFFER_STRIPES = 16;
+
+    private static final int NEW = 0;
+    private static final int WINDOW = 1;
+    private static final int PROBATION = 2;
+    private static final int PROTECTED = 3;
+    private static final int DEAD = 4;
+
+    private final ConcurrentHashMap<K, Node<K, V>> map;
+    private final ConcurrentHashMap<K, CompletableFuture<V>> loads;
+    private final ReadBuffer[] readBuffers;
+    private final ReentrantLock evictionLock;
+
+    private final long maximumSize;
+    private final long maximumWindowSize;
+    private final long maximumProtectedSize;
+
+    // Fields below are guarded by evictionLock.
+    private final FrequencySketch sketch;
+    private final Node<K, V> window;
+    private final Node<K, V> probation;
+    private final Node<K, V> protectedSegment;
+    private long windowSize;
+    private long probationSize;
+    private long protectedSize;
+
+    private final Function<K, V> srcFunc;
+    private final StatsCounter stats;
+
+    /**
+     * This field is for testing only. Incremented each time `srcFunc` is called.
+     */
+    private final AtomicInteger initCounter;
+
+    /**
+     * Constructor for the size-bounded TinyLfuCache.
+     * @param srcFunc Function to be called on a cache miss to calculate value (V) associated with a key (K).
+     * @param maximumSize Maximum number of entries kept in the cache. Must be positive.
+     */
+    public TinyLfuCache(Function<K, V> srcFunc, long maximumSize) {
+        if (srcFunc == null) {
+            throw new NullPointerException("Parameter \"srcFunc\" cannot be null.");
+        }
+        if (maximumSize <= 0L) {
+            throw new IllegalArgumentException("Parameter \"maximumSize\" must be positive.");
+        }
+        this.srcFunc = srcFunc;
+        this.maximumSize = maximumSize;
+        this.maximumWindowSize = Math.max(1L, maximumSize / 100L);
+        this.maximumProtectedSize = (maximumSize - maximumWindowSize) * 4L / 5L;
+        this.map = new ConcurrentHashMap<>((int) Math.min(maximumSize, INITIAL_CAPACITY));
+        this.loads = new ConcurrentHashMap<>();
+        this.readBuffers = new ReadBuffer[READ_BUFFER_STRIPES];
+        for (int i = 0; i < readBuffers.length; ++i) {
+            readBuffers[i] = new ReadBuffer();
+        }
+        this.evictionLock = new ReentrantLock();
+        this.sketch = new FrequencySketch(maximumSize);
+        this.window = Node.sentinel();
+        this.probation = Node.sentinel();
+        this.protectedSegment = Node.sentinel();
+        this.stats = new StatsCounter(getClass().getSimpleName());
+        this.initCounter = new AtomicInteger(0);
+    }
+
+    /**
+     * Get value of type V associated with the provided key of type K from the internal collection if the value is
+     * cached. Otherwise, calls the provided Function<K, V> to calculate the value, cache it and return.
+     * Adding a value may evict another entry to keep the cache within its maximum size.
+     * @param key Key of type K associated with the requested value.
+     * @return Requested value of type V associated with the provided `key`.
+     */
+    @Override
+    public V get(K key) {
+        if (null == key) {
+            throw new NullPointerException("Cannot invoke \"Object.hashCode()\" because \"key\" is null");
+        }
+
+        final Node<K, V> node = map.get(key);
+        if (null != node) {
+            afterRead(node);
+            stats.recordHit();
+            return node.value;
+        }
+        stats.recordMiss();
+        return load(key);
+    }
+
+    private V load(K key) {
+        final CompletableFuture<V> future = new CompletableFuture<>();
+        final CompletableFuture<V> inFlight = loads.putIfAbsent(key, future);
+        if (null != inFlight) {
+            return await(inFlight);
+        }
+        try {
+            // A load may have been published between the map read in get() and registering this one.
+            final Node<K, V> existing = map.get(key);
+            if (null != existing) {
+                future.complete(existing.value);
+                return existing.value;
+            }
+            final long start = System.nanoTime();
+            final V value;
+            try {
+                value = srcFunc.apply(key);
+            } catch (RuntimeException | Error e) {
+                stats.recordLoadFailure(key, System.nanoTime() - start);
+                throw e;
+            }
+            if (null == value) {
+                stats.recordLoadFailure(key, System.nanoTime() - start);
+                throw new NullPointerException("The provided Function<K,V> returned null for the given \"key\"");
+            }
+            stats.recordLoadSuccess(key, System.nanoTime() - start);
+            final Node<K, V> node = new Node<>(key, value);
+            map.put(key, node);
+            initCounter.incrementAndGet();
+            afterWrite(node);
+            future.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loads.remove(key, future);
+        }
+    }
+
+    private V await(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Records a hit in the read buffer of the calling thread's stripe. The buffers are lossy, so a hit may be dropped
+     * under heavy contention, which only makes the policy slightly less accurate.
+     */
+    private void afterRead(Node<K, V> node) {
+        final ReadBuffer buffer = readBuffers[(int) (Thread.currentThread().getId() & (READ_BUFFER_STRIPES - 1))];
+        if (buffer.offer(node) && evictionLock.tryLock()) {
+            try {
+                maintenance(null);
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    private void afterWrite(Node<K, V> node) {
+        evictionLock.lock();
+        try {
+            maintenance(node);
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Replays buffered reads, links the newly added node and evicts entries over the maximum size.
+     * Must be called while holding the eviction lock.
+     */
+    @SuppressWarnings("unchecked")
+    private void maintenance(Node<K, V> added) {
+        for (ReadBuffer buffer : readBuffers) {
+            buffer.drain(node -> onAccess((Node<K, V>) node));
+        }
+        if (null != added && NEW == added.queue) {
+            sketch.increment(added.key.hashCode());
+            added.queue = WINDOW;
+            added.linkLast(window);
+            ++windowSize;
+        }
+        evict();
+    }
+
+    private void onAccess(Node<K, V> node) {
+        sketch.increment(node.key.hashCode());
+        if (WINDOW == node.queue) {
+            node.unlink();
+            node.linkLast(window);
+        } else if (PROBATION == node.queue) {
+            node.unlink();
+            --probationSize;
+            node.queue = PROTECTED;
+            node.linkLast(protectedSegment);
+            ++protectedSize;
+            while (protectedSize > maximumProtectedSize) {
+                final Node<K, V> demoted = protectedSegment.next;
+                demoted.unlink();
+                --protectedSize;
+                demoted.queue = PROBATION;
+                demoted.linkLast(probation);
+                ++probationSize;
+            }
+        } else if (PROTECTED == node.queue) {
+            node.unlink();
+            node.linkLast(protectedSegment);
+        }
+    }
+
+    /**
+     * Moves entries out of the admission window and, while the cache is over its maximum size, lets the candidate
+     * leaving the window compete with the main space's victim. The entry with the lower frequency is evicted.
+     */
+    private void evict() {
+        while (windowSize > maximumWindowSize) {
+            final Node<K, V> candidate = window.next;
+            candidate.unlink();
+            --windowSize;
+            candidate.queue = PROBATION;
+            candidate.linkLast(probation);
+            ++probationSize;
+
+            if (windowSize + probationSize + protectedSize <= maximumSize) {
+                continue;
+            }
+            Node<K, V> victim = probation.next;
+            if (victim == candidate && protectedSize > 0L) {
+                victim = protectedSegment.next;
+            }
+            if (victim != candidate
+                    && sketch.frequency(candidate.key.hashCode()) > sketch.frequency(victim.key.hashCode())) {
+                evictNode(victim);
+            } else {
+                evictNode(candidate);
+            }
+        }
+        while (windowSize + probationSize + protectedSize > maximumSize) {
+            final Node<K, V> victim = probationSize > 0L ? probation.next
+                    : (protectedSize > 0L ? protectedSegment.next : window.next);
+            evictNode(victim);
+        }
+    }
+
+    private void evictNode(Node<K, V> node) {
+        node.unlink();
+        if (WINDOW == node.queue) {
+            --windowSize;
+        } else if (PROBATION == node.queue) {
+            --probationSize;
+        } else if (PROTECTED == node.queue) {
+            --protectedSize;
+        }
+        node.queue = DEAD;
+        map.remove(node.key, node);
+        stats.recordEviction();
+    }
+
+    /**
+     * Returns size of the cache.
+     * @return Size of the cache.
+     */
+    public int size() {
+        return map.size();
+    }
+
+    /**
+     * Returns the maximum number of entries kept in the cache.
+     * @return Maximum number of entries.
+     */
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * Returns the cached keys with the highest estimated frequencies, e.g. to be saved at shutdown and warmed up on
+     * the next start.
+     * @param limit Maximum number of keys to return.
+     * @return Keys in descending order of their estimated frequencies.
+     */
+    public List<K> hotKeys(int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Parameter \"limit\" cannot be negative.");
+        }
+        final List<Map.Entry<K, Integer>> frequencies = new ArrayList<>(map.size());
+        evictionLock.lock();
+        try {
+            maintenance(null);
+            for (K key : map.keySet()) {
+                frequencies.add(new AbstractMap.SimpleImmutableEntry<>(key, sketch.frequency(key.hashCode())));
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+        frequencies.sort(Map.Entry.<K, Integer>comparingByValue().reversed());
+        final List<K> keys = new ArrayList<>(Math.min(limit, frequencies.size()));
+        for (Map.Entry<K, Integer> entry : frequencies) {
+            if (keys.size() >= limit) {
+                break;
+            }
+            keys.add(entry.getKey());
+        }
+        return keys;
+    }
+
+    /**
+     * Returns a snapshot of the statistics of the cache.
+     * @return Snapshot of the statistics.
+     */
+    public CacheStats snapshot() {
+        return stats.snapshot(map.size());
+    }
+
+    /**
+     * Returns internal metric representing number of times the `srcFunc` was called.
+     * Note that this counts successful calls to `srcFunc` which did not result in raising exceptions.
+     * @return Number of times the `srcFunc` was called.
+     */
+    protected int getInitCounter() {
+        return initCounter.get();
+    }
+
+    /**
+     * Cache entry, doubling as a node of the policy's intrusive doubly-linked lists.
+     * Links and queue type are guarded by the eviction lock.
+     */
+    static final class Node<K, V> {
+        final K key;
+        final V value;
+        int queue;
+        Node<K, V> prev;
+        Node<K, V> next;
+
+        Node(K key, V value) {
+            this.key = key;
+            this.value = value;
+            this.queue = NEW;
+        }
+
+        static <K, V> Node<K, V> sentinel() {
+            final Node<K, V> node = new Node<>(null, null);
+            node.prev = node;
+            node.next = node;
+            return node;
+        }
+
+        void linkLast(Node<K, V> head) {
+            this.prev = head.prev;
+            this.next = head;
+            head.prev.next = this;
+            head.prev = this;
+        }
+
+        void unlink() {
+            prev.next = next;
+            next.prev = prev;
+            prev = null;
+            next = null;
+        }
+    }
+
+    /**
+     * Bounded lossy ring buffer of recorded reads. Any thread may offer; only the eviction lock holder drains.
+     */
+    static final class ReadBuffer {
+        private static final int SIZE = 16;
+        private static final int MASK = SIZE - 1;
+
+        private final AtomicReferenceArray<Object> buffer = new AtomicReferenceArray<>(SIZE);
+        private final AtomicLong writeCounter = new AtomicLong();
+        private volatile long readCounter;
+
+        /**
+         * Adds the node to the buffer unless it is full or contended.
+         * @return true if the buffer should be drained.
+         */
+        boolean offer(Object node) {
+            final long head = readCounter;
+            final long tail = writeCounter.get();
+            final long size = tail - head;
+            if (size >= SIZE) {
+                return true;
+            }
+            if (writeCounter.compareAndSet(tail, tail + 1L)) {
+                buffer.lazySet((int) (tail & MASK), node);
+                return size + 1L >= SIZE;
+            }
+            return false;
+        }
+
+        void drain(Consumer<Object> consumer) {
+            long head = readCounter;
+            final long tail = writeCounter.get();
+            while (head < tail) {
+                final int index = (int) (head & MASK);
+                final Object node = buffer.get(index);
+                if (null == node) {
+                    break;
+                }
+                buffer.lazySet(index, null);
+                consumer.accept(node);
+                ++head;
+            }
+            readCounter = head;
+        }
+    }
+}
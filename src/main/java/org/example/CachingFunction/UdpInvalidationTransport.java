@@ -0,0 +1,145 @@
+package org.example.CachingFunction;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
+import java.net.SocketException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * InvalidationTransport sending each message as a UDP datagram to every peer. Datagrams can be lost or reordered, so
+ * it suits caches whose entries also expire, or a loopback setup of processes on the same machine.
+ * Received messages are delivered by a daemon thread of the transport. Failures to send to a peer, to receive or to
+ * apply a message do not stop the transport; they are passed to its error handler.
+ */
+public class UdpInvalidationTransport implements InvalidationTransport {
+
+    private static final int MAX_MESSAGE_SIZE = 8192;
+
+    private final DatagramSocket socket;
+    private final List<InetSocketAddress> peers;
+    private final Consumer<Throwable> errorHandler;
+    private Thread receiverThread;
+
+    /**
+     * Constructor for the UdpInvalidationTransport passing its failures to the uncaught exception handler of the
+     * thread they happen in.
+     * @param bindAddress Local address to receive the datagrams on. Port 0 picks a free port.
+     * @param peers Addresses of the peers' transports.
+     * @throws UncheckedIOException If the socket cannot be bound.
+     */
+    public UdpInvalidationTransport(InetSocketAddress bindAddress, List<InetSocketAddress> peers) {
+        this(bindAddress, peers, CoherentCache::reportFailure);
+    }
+
+    /**
+     * Constructor for the UdpInvalidationTransport.
+     * @param bindAddress Local address to receive the datagrams on. Port 0 picks a free port.
+     * @param peers Addresses of the peers' transports.
+     * @param errorHandler Called with the failures to send, receive or apply messages, from the thread they happen in.
+     * @throws UncheckedIOException If the socket cannot be bound.
+     */
+    public UdpInvalidationTransport(InetSocketAddress bindAddress, List<InetSocketAddress> peers,
+                                    Consumer<Throwable> errorHandler) {
+        if (bindAddress == null) {
+            throw new NullPointerException("Parameter \"bindAddress\" cannot be null.");
+        }
+        if (peers == null) {
+            throw new NullPointerException("Parameter \"peers\" cannot be null.");
+        }
+        if (errorHandler == null) {
+            throw new NullPointerException("Parameter \"errorHandler\" cannot be null.");
+        }
+        try {
+            this.socket = new DatagramSocket(bindAddress);
+        } catch (SocketException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.peers = new CopyOnWriteArrayList<>(peers);
+        this.errorHandler = errorHandler;
+    }
+
+    /**
+     * Adds a peer, e.g. one started after this transport.
+     * @param peer Address of the peer's transport.
+     */
+    public void addPeer(InetSocketAddress peer) {
+        if (peer == null) {
+            throw new NullPointerException("Parameter \"peer\" cannot be null.");
+        }
+        peers.add(peer);
+    }
+
+    /**
+     * Returns the local address the datagrams are received on.
+     * @return Bound address of the socket.
+     */
+    public InetSocketAddress getLocalAddress() {
+        return (InetSocketAddress) socket.getLocalSocketAddress();
+    }
+
+    @Override
+    public synchronized void start(Consumer<byte[]> receiver) {
+        if (receiver == null) {
+            throw new NullPointerException("Parameter \"receiver\" cannot be null.");
+        }
+        if (null != receiverThread) {
+            throw new IllegalStateException("The transport has already been started.");
+        }
+        receiverThread = new Thread(() -> receive(receiver), "udp-invalidation-receiver");
+        receiverThread.setDaemon(true);
+        receiverThread.start();
+    }
+
+    private void receive(Consumer<byte[]> receiver) {
+        final DatagramPacket packet = new DatagramPacket(new byte[MAX_MESSAGE_SIZE], MAX_MESSAGE_SIZE);
+        while (!socket.isClosed()) {
+            try {
+                socket.receive(packet);
+            } catch (IOException e) {
+                // Closing the socket ends the blocking receive with an exception.
+                if (!socket.isClosed()) {
+                    errorHandler.accept(new UncheckedIOException("Receiving invalidations failed.", e));
+                }
+                continue;
+            }
+            try {
+                receiver.accept(Arrays.copyOfRange(packet.getData(), packet.getOffset(),
+                        packet.getOffset() + packet.getLength()));
+            } catch (RuntimeException e) {
+                errorHandler.accept(e);
+            }
+        }
+    }
+
+    @Override
+    public void broadcast(byte[] message) {
+        if (message.length > MAX_MESSAGE_SIZE) {
+            throw new IllegalArgumentException("Message of " + message.length + " bytes exceeds the maximum of "
+                    + MAX_MESSAGE_SIZE + " bytes.");
+        }
+        for (InetSocketAddress peer : peers) {
+            try {
+                socket.send(new DatagramPacket(message, message.length, peer));
+            } catch (IOException e) {
+                // Delivery is best-effort, one unreachable peer does not stop the others.
+                errorHandler.accept(new UncheckedIOException("Sending invalidations to " + peer + " failed.", e));
+            }
+        }
+    }
+
+    @Override
+    public int maxMessageSize() {
+        return MAX_MESSAGE_SIZE;
+    }
+
+    @Override
+    public void close() {
+        socket.close();
+    }
+}
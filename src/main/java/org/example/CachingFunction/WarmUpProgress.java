@@ -0,0 +1,14 @@
+package org.example.CachingFunction;
+
+/**
+ * Receives the progress of a CacheWarmer warm-up.
+ */
+@FunctionalInterface
+public interface WarmUpProgress {
+    /**
+     * Reports the keys processed so far. It may be called from any of the loading threads.
+     * @param processed Number of keys processed so far, loaded or not.
+     * @param failed Number of processed keys whose load threw a RuntimeException.
+     */
+    void report(long processed, long failed);
+}
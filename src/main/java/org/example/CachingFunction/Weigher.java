@@ -0,0 +1,16 @@
+package org.example.CachingFunction;
+
+/**
+ * Calculates the weight of cache entries, e.g. the approximate number of bytes the entry holds on the heap.
+ */
+@FunctionalInterface
+public interface Weigher<K, V> {
+    /**
+     * Returns the weight of a cache entry. There is no unit for weights, the cache only compares their sum with its
+     * budget.
+     * @param key Key of the entry.
+     * @param value Value of the entry.
+     * @return Non-negative weight of the entry.
+     */
+    int weigh(K key, V value);
+}
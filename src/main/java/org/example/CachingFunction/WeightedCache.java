@@ -0,0 +1,298 @@
+package org.example.CachingFunction;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Thread-safe cache bounded by the total weight of its entries rather than by their count.
+ * The weight of each entry is calculated once, when it is loaded, by the provided Weigher.
+ * Entries are spread across segments selected by key hash. Each segment keeps its own CLOCK eviction queue and the
+ * total weight of its entries behind its own lock, so concurrent loads do not contend on a single queue or counter,
+ * and a hit only sets the entry's reference bit, without any lock. The budget is shared by all the segments: their
+ * weights are summed, and a load exceeding the budget evicts from its own segment first, then from the following
+ * ones, so a single entry may use the whole budget.
+ */
+public class WeightedCache<K, V> implements Cache<K, V> {
+
+    private static final int INITIAL_CAPACITY = 4096;
+    private static final int SEGMENTS_COUNT = 16;
+
+    private final ConcurrentHashMap<K, Node<K, V>> map;
+    private final ConcurrentHashMap<K, CompletableFuture<V>> loads;
+    private final Segment<K, V>[] segments;
+    private final long maximumWeight;
+
+    private final Function<K, V> srcFunc;
+    private final Weigher<K, V> weigher;
+    private final StatsCounter stats;
+
+    /**
+     * This field is for testing only. Incremented each time `srcFunc` is called.
+     */
+    private final AtomicInteger initCounter;
+
+    /**
+     * Constructor for the weight-bounded WeightedCache.
+     * @param srcFunc Function to be called on a cache miss to calculate value (V) associated with a key (K).
+     * @param weigher Weigher calculating the weight of each loaded entry.
+     * @param maximumWeight Budget for the total weight of the cached entries. Must be positive.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public WeightedCache(Function<K, V> srcFunc, Weigher<K, V> weigher, long maximumWeight) {
+        if (srcFunc == null) {
+            throw new NullPointerException("Parameter \"srcFunc\" cannot be null.");
+        }
+        if (weigher == null) {
+            throw new NullPointerException("Parameter \"weigher\" cannot be null.");
+        }
+        if (maximumWeight <= 0L) {
+            throw new IllegalArgumentException("Parameter \"maximumWeight\" must be positive.");
+        }
+        this.srcFunc = srcFunc;
+        this.weigher = weigher;
+        this.maximumWeight = maximumWeight;
+        this.map = new ConcurrentHashMap<>(INITIAL_CAPACITY);
+        this.loads = new ConcurrentHashMap<>();
+        this.segments = new Segment[SEGMENTS_COUNT];
+        for (int i = 0; i < segments.length; ++i) {
+            segments[i] = new Segment<>(map);
+        }
+        this.stats = new StatsCounter(getClass().getSimpleName());
+        this.initCounter = new AtomicInteger(0);
+    }
+
+    /**
+     * Get value of type V associated with the provided key of type K from the internal collection if the value is
+     * cached. Otherwise, calls the provided Function<K, V> to calculate the value, cache it and return.
+     * Adding a value may evict other entries to keep the cache within its budget. A value heavier than the whole
+     * budget is returned but not cached, without evicting anything.
+     * @param key Key of type K associated with the requested value.
+     * @return Requested value of type V associated with the provided `key`.
+     */
+    @Override
+    public V get(K key) {
+        if (null == key) {
+            throw new NullPointerException("Cannot invoke \"Object.hashCode()\" because \"key\" is null");
+        }
+
+        final Node<K, V> node = map.get(key);
+        if (null != node) {
+            if (!node.referenced) {
+                node.referenced = true;
+            }
+            stats.recordHit();
+            return node.value;
+        }
+        stats.recordMiss();
+        return load(key);
+    }
+
+    private V load(K key) {
+        final CompletableFuture<V> future = new CompletableFuture<>();
+        final CompletableFuture<V> inFlight = loads.putIfAbsent(key, future);
+        if (null != inFlight) {
+            return await(inFlight);
+        }
+        try {
+            // A load may have been published between the map read in get() and registering this one.
+            final Node<K, V> existing = map.get(key);
+            if (null != existing) {
+                future.complete(existing.value);
+                return existing.value;
+            }
+            final long start = System.nanoTime();
+            final V value;
+            try {
+                value = srcFunc.apply(key);
+            } catch (RuntimeException | Error e) {
+                stats.recordLoadFailure(key, System.nanoTime() - start);
+                throw e;
+            }
+            if (null == value) {
+                stats.recordLoadFailure(key, System.nanoTime() - start);
+                throw new NullPointerException("The provided Function<K,V> returned null for the given \"key\"");
+            }
+            stats.recordLoadSuccess(key, System.nanoTime() - start);
+            final int weight = weigher.weigh(key, value);
+            if (weight < 0) {
+                throw new IllegalArgumentException("The provided Weigher<K,V> returned negative weight for the given \"key\"");
+            }
+            initCounter.incrementAndGet();
+            if (weight <= maximumWeight) {
+                final Node<K, V> node = new Node<>(key, value, weight);
+                map.put(key, node);
+                final int index = segmentIndex(key);
+                segments[index].add(node);
+                evict(index, node);
+            }
+            future.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loads.remove(key, future);
+        }
+    }
+
+    private V await(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Evicts entries until the total weight is back within the budget, starting with the segment of the added node and
+     * locking one segment at a time. The added node is never evicted by its own load, as it fits in the budget.
+     */
+    private void evict(int index, Node<K, V> added) {
+        int emptySegments = 0;
+        // Summed again after each eviction, as concurrent loads may have evicted too.
+        while (getWeight() > maximumWeight && emptySegments < SEGMENTS_COUNT) {
+            if (!segments[index].evictOne(added)) {
+                ++emptySegments;
+                index = (index + 1) & (SEGMENTS_COUNT - 1);
+                continue;
+            }
+            emptySegments = 0;
+            stats.recordEviction();
+        }
+    }
+
+    private int segmentIndex(K key) {
+        final int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (SEGMENTS_COUNT - 1);
+    }
+
+    /**
+     * Returns size of the cache.
+     * @return Size of the cache.
+     */
+    public int size() {
+        return map.size();
+    }
+
+    /**
+     * Returns the total weight of the cached entries, summed over the segments. The weight of a loaded entry is added
+     * before the entries it displaces are evicted, so the result may exceed the budget for a moment while entries are
+     * being loaded.
+     * @return Total weight of the cached entries.
+     */
+    public long getWeight() {
+        long weight = 0L;
+        for (Segment<K, V> segment : segments) {
+            weight += segment.weight;
+        }
+        return weight;
+    }
+
+    /**
+     * Returns the weight that can still be added before entries start being evicted.
+     * @return Remaining part of the weight budget.
+     */
+    public long getRemainingWeight() {
+        return Math.max(0L, maximumWeight - getWeight());
+    }
+
+    /**
+     * Returns the budget for the total weight of the cached entries.
+     * @return Maximum total weight.
+     */
+    public long getMaximumWeight() {
+        return maximumWeight;
+    }
+
+    /**
+     * Returns a snapshot of the statistics of the cache.
+     * @return Snapshot of the statistics.
+     */
+    public CacheStats snapshot() {
+        return stats.snapshot(map.size());
+    }
+
+    /**
+     * Returns internal metric representing number of times the `srcFunc` was called.
+     * Note that this counts successful calls to `srcFunc` which did not result in raising exceptions.
+     * @return Number of times the `srcFunc` was called.
+     */
+    protected int getInitCounter() {
+        return initCounter.get();
+    }
+
+    /**
+     * Cache entry with its weight and the CLOCK reference bit set on each hit.
+     */
+    static final class Node<K, V> {
+        final K key;
+        final V value;
+        final int weight;
+        volatile boolean referenced;
+
+        Node(K key, V value, int weight) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * Part of the cache with its own CLOCK queue and the total weight of its entries.
+     */
+    static final class Segment<K, V> {
+        private final ConcurrentHashMap<K, Node<K, V>> map;
+        private final ArrayDeque<Node<K, V>> clock;
+        /**
+         * Written while holding the segment's lock, read without it.
+         */
+        private volatile long weight;
+
+        Segment(ConcurrentHashMap<K, Node<K, V>> map) {
+            this.map = map;
+            this.clock = new ArrayDeque<>();
+        }
+
+        synchronized void add(Node<K, V> node) {
+            clock.addLast(node);
+            weight += node.weight;
+        }
+
+        /**
+         * Evicts the first node not referenced since the clock hand last passed it. The excluded node is skipped.
+         * @return True if a node was evicted, false if the segment holds no other node.
+         */
+        synchronized boolean evictOne(Node<K, V> excluded) {
+            while (!clock.isEmpty()) {
+                final Node<K, V> candidate = clock.pollFirst();
+                if (candidate == excluded) {
+                    clock.addLast(candidate);
+                    if (1 == clock.size()) {
+                        return false;
+                    }
+                    continue;
+                }
+                if (candidate.referenced) {
+                    candidate.referenced = false;
+                    clock.addLast(candidate);
+                    continue;
+                }
+                map.remove(candidate.key, candidate);
+                weight -= candidate.weight;
+                return true;
+            }
+            return false;
+        }
+    }
+}
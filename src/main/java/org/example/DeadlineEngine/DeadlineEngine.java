@@ -1,6 +1,7 @@
 package org.example.DeadlineEngine;
 
 import java.util.function.Consumer;
+import java.util.function.LongConsumer;
 
 /**
  * Manages an active set of deadlines to be raised whenever they expire.
@@ -36,6 +37,19 @@ public interface DeadlineEngine {
      */
     int poll(long nowMs, Consumer<Long> handler, int maxPoll);
 
+    /**
+     * Same as poll(), but passes the identifiers of expired deadlines to the handler as primitives, so that engines
+     * overriding it can fire deadlines without boxing them. The default implementation delegates to poll().
+     * It is not an overload of poll(), as calls passing null or a lambda would be ambiguous between the two.
+     * @param nowMs time in millis since epoch to check deadlines against.
+     * @param handler to call with identifier of expired deadlines.
+     * @param maxPoll count of maximum number of expired deadlines to process.
+     * @return number of expired deadlines that fired successfully.
+     */
+    default int pollLong(long nowMs, LongConsumer handler, int maxPoll) {
+        return poll(nowMs, null == handler ? null : handler::accept, maxPoll);
+    }
+
     /**
      *
      * @return the number of registered deadlines.
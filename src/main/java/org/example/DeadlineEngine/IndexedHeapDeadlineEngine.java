@@ -0,0 +1,206 @@
+package org.example.DeadlineEngine;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Synchronized implementation of DeadlineEngine interface based on an indexed 4-ary heap.
+ * Manages an active set of deadlines to be raised whenever they expire.
+ * Each deadline knows its position in the heap, so a cancelled deadline is removed in O(log n) without scanning the
+ * heap, and found from its identifier in a SlotTable without hashing.
+ * Deadlines are ordered by timeout, then by identifier, as in the other engines.
+ */
+public class IndexedHeapDeadlineEngine implements DeadlineEngine {
+
+    private static final int ARITY = 4;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private Deadline[] heap;
+    private int size;
+    private final SlotTable<Deadline> deadlines;
+
+    public IndexedHeapDeadlineEngine() {
+        this.heap = new Deadline[INITIAL_CAPACITY];
+        this.deadlines = new SlotTable<>();
+    }
+
+    /**
+     * Request a new deadline be added to the engine.  The deadline is in millis offset from
+     * unix epoch. https://en.wikipedia.org/wiki/Unix_time
+     * The engine will raise an event whenever a deadline (usually now in millis) supplied in the poll method
+     * exceeds the request deadline.
+     * @param deadlineMs Deadline as unix epoch (in milliseconds).
+     * @return Returns -1 if deadlineMs param is negative or zero. Otherwise, returns an identifier for the scheduled deadline.
+     */
+    @Override
+    public synchronized long schedule(long deadlineMs) {
+        if (deadlineMs <= 0L) {
+            return -1L;
+        }
+        final Deadline deadline = new Deadline(deadlines.reserve(), deadlineMs);
+        deadlines.set(deadline.id, deadline);
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, 2 * size);
+        }
+        siftUp(size++, deadline);
+        return deadline.id;
+    }
+
+    /**
+     * Remove the scheduled event using the identifier returned when the deadline was scheduled.
+     * @param requestId Identifier of the scheduled deadline to be cancelled.
+     * @return Returns true if canceled and false otherwise.
+     */
+    @Override
+    public synchronized boolean cancel(long requestId) {
+        final Deadline deadline = deadlines.remove(requestId);
+        if (null == deadline) {
+            return false;
+        }
+        removeFromHeap(deadline);
+        return true;
+    }
+
+    /**
+     * Supplies a deadline in millis to check against scheduled deadlines.  If any deadlines are triggered the
+     * supplied handler is called with the identifier of the expired deadline.
+     * To avoid a system flood and manage how many expired events we can handle we also pass in the maximum number of
+     * expired deadlines to fire.  Those expired deadlines that wernt raised will be available in the next poll.
+     * There is no need for the triggered deadlines to fire in order.
+     * @param nowMs time in millis since epoch to check deadlines against.
+     * @param handler to call with identifier of expired deadlines.
+     * @param maxPoll count of maximum number of expired deadlines to process.
+     * @return number of expired deadlines that fired successfully.
+     */
+    @Override
+    public int poll(long nowMs, Consumer<Long> handler, int maxPoll) {
+        if (nowMs <= 0 || maxPoll <= 0) {
+            return 0;
+        }
+        int counter = 0;
+        while (counter < maxPoll) {
+            synchronized (this) {
+                if (size <= 0) {
+                    break;
+                }
+                final Deadline deadline = heap[0];
+                if (deadline.timeout > nowMs) {
+                    break;
+                }
+                if (null != handler) {
+                    handler.accept(deadline.id);
+                }
+                // The handler may have cancelled the deadline, or scheduled an earlier one.
+                if (deadline == deadlines.remove(deadline.id)) {
+                    removeFromHeap(deadline);
+                }
+                ++counter;
+            }
+        }
+        return counter;
+    }
+
+    /**
+     * Removes the deadline from the heap. Must be called while holding the lock.
+     */
+    private void removeFromHeap(Deadline deadline) {
+        final int index = deadline.index;
+        final Deadline last = heap[--size];
+        heap[size] = null;
+        if (index != size) {
+            siftDown(index, last);
+            if (last == heap[index]) {
+                siftUp(index, last);
+            }
+        }
+    }
+
+    private void siftUp(int index, Deadline deadline) {
+        while (index > 0) {
+            final int parent = (index - 1) / ARITY;
+            final Deadline parentDeadline = heap[parent];
+            if (!deadline.isBefore(parentDeadline)) {
+                break;
+            }
+            heap[index] = parentDeadline;
+            parentDeadline.index = index;
+            index = parent;
+        }
+        heap[index] = deadline;
+        deadline.index = index;
+    }
+
+    private void siftDown(int index, Deadline deadline) {
+        while (true) {
+            final int firstChild = ARITY * index + 1;
+            if (firstChild >= size) {
+                break;
+            }
+            // The children of a node are adjacent, so finding the smallest one reads a single run of the array.
+            int minChild = firstChild;
+            final int lastChild = Math.min(firstChild + ARITY, size);
+            for (int child = firstChild + 1; child < lastChild; ++child) {
+                if (heap[child].isBefore(heap[minChild])) {
+                    minChild = child;
+                }
+            }
+            final Deadline minDeadline = heap[minChild];
+            if (!minDeadline.isBefore(deadline)) {
+                break;
+            }
+            heap[index] = minDeadline;
+            minDeadline.index = index;
+            index = minChild;
+        }
+        heap[index] = deadline;
+        deadline.index = index;
+    }
+
+    /**
+     * The number of registered deadlines.
+     * @return the number of registered deadlines.
+     */
+    @Override
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Returns string representation of the scheduled deadlines. Enclosed in square brackets and comma separated.
+     * @return String representation of the scheduled deadlines sorted from nearest to farthest.
+     */
+    @Override
+    public String toString() {
+        final long[] array;
+        synchronized (this) {
+            array = new long[size];
+            for (int i = 0; i < size; ++i) {
+                array[i] = heap[i].timeout;
+            }
+        }
+        Arrays.sort(array);
+        return Arrays.stream(array).mapToObj(String::valueOf).collect(Collectors.joining(", ", "[", "]"));
+    }
+
+    /**
+     * Internal class representing a deadline object with a timeout, an identifier and its position in the heap.
+     */
+    static class Deadline {
+        final private long id;
+        final private long timeout;
+        private int index;
+
+        Deadline(long id, long deadlineMs) {
+            this.id = id;
+            this.timeout = deadlineMs;
+        }
+
+        /**
+         * Same order as the Deadline.compareTo() of the other engines: by timeout, then by identifier.
+         */
+        boolean isBefore(Deadline deadline) {
+            return this.timeout < deadline.timeout || (this.timeout == deadline.timeout && this.id < deadline.id);
+        }
+    }
+}
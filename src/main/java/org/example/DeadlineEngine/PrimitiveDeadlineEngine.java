@@ -0,0 +1,261 @@
+package org.example.DeadlineEngine;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.stream.Collectors;
+
+/**
+ * Synchronized implementation of DeadlineEngine interface storing deadlines in primitive arrays only.
+ * Manages an active set of deadlines to be raised whenever they expire.
+ * Deadlines are kept in an indexed 4-ary heap of parallel timeout and identifier arrays. The identifier of a deadline
+ * encodes a slot, which holds the position of the deadline in the heap, and the slot's generation, as in a SlotTable,
+ * so an identifier of a slot reused by a later deadline is rejected. Slots are reused and the arrays only grow, so
+ * once they are large enough schedule(), cancel() and pollLong() allocate nothing. poll() boxes the identifiers passed
+ * to its handler.
+ */
+public class PrimitiveDeadlineEngine implements DeadlineEngine {
+
+    private static final int ARITY = 4;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private long[] heapTimeouts;
+    private long[] heapIds;
+    private int size;
+    private int[] positions;
+    private int[] generations;
+    private int[] freeSlots;
+    private int freeCount;
+    private int slotCount;
+
+    public PrimitiveDeadlineEngine() {
+        this(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Constructor for the PrimitiveDeadlineEngine.
+     * @param initialCapacity Number of deadlines the engine holds before growing its arrays. Must be positive.
+     */
+    public PrimitiveDeadlineEngine(int initialCapacity) {
+        if (initialCapacity <= 0) {
+            throw new IllegalArgumentException("Parameter \"initialCapacity\" must be positive.");
+        }
+        this.heapTimeouts = new long[initialCapacity];
+        this.heapIds = new long[initialCapacity];
+        this.positions = new int[initialCapacity];
+        this.generations = new int[initialCapacity];
+        this.freeSlots = new int[initialCapacity];
+    }
+
+    /**
+     * Request a new deadline be added to the engine.  The deadline is in millis offset from
+     * unix epoch. https://en.wikipedia.org/wiki/Unix_time
+     * The engine will raise an event whenever a deadline (usually now in millis) supplied in the poll method
+     * exceeds the request deadline.
+     * @param deadlineMs Deadline as unix epoch (in milliseconds).
+     * @return Returns -1 if deadlineMs param is negative or zero. Otherwise, returns an identifier for the scheduled deadline.
+     */
+    @Override
+    public synchronized long schedule(long deadlineMs) {
+        if (deadlineMs <= 0L) {
+            return -1L;
+        }
+        final int slot = allocateSlot();
+        final long id = SlotTable.id(slot, generations[slot]);
+        if (size == heapTimeouts.length) {
+            heapTimeouts = Arrays.copyOf(heapTimeouts, 2 * size);
+            heapIds = Arrays.copyOf(heapIds, 2 * size);
+        }
+        siftUp(size++, deadlineMs, id);
+        return id;
+    }
+
+    /**
+     * Remove the scheduled event using the identifier returned when the deadline was scheduled.
+     * @param requestId Identifier of the scheduled deadline to be cancelled.
+     * @return Returns true if canceled and false otherwise.
+     */
+    @Override
+    public synchronized boolean cancel(long requestId) {
+        final int index = indexOf(requestId);
+        if (index < 0) {
+            return false;
+        }
+        removeAt(index);
+        return true;
+    }
+
+    /**
+     * Supplies a deadline in millis to check against scheduled deadlines.  If any deadlines are triggered the
+     * supplied handler is called with the identifier of the expired deadline.
+     * To avoid a system flood and manage how many expired events we can handle we also pass in the maximum number of
+     * expired deadlines to fire.  Those expired deadlines that wernt raised will be available in the next poll.
+     * There is no need for the triggered deadlines to fire in order.
+     * @param nowMs time in millis since epoch to check deadlines against.
+     * @param handler to call with identifier of expired deadlines.
+     * @param maxPoll count of maximum number of expired deadlines to process.
+     * @return number of expired deadlines that fired successfully.
+     */
+    @Override
+    public int poll(long nowMs, Consumer<Long> handler, int maxPoll) {
+        return pollLong(nowMs, null == handler ? null : handler::accept, maxPoll);
+    }
+
+    /**
+     * Same as poll(), without boxing the identifiers passed to the handler.
+     * @param nowMs time in millis since epoch to check deadlines against.
+     * @param handler to call with identifier of expired deadlines.
+     * @param maxPoll count of maximum number of expired deadlines to process.
+     * @return number of expired deadlines that fired successfully.
+     */
+    @Override
+    public int pollLong(long nowMs, LongConsumer handler, int maxPoll) {
+        if (nowMs <= 0 || maxPoll <= 0) {
+            return 0;
+        }
+        int counter = 0;
+        while (counter < maxPoll) {
+            synchronized (this) {
+                if (size <= 0 || heapTimeouts[0] > nowMs) {
+                    break;
+                }
+                final long id = heapIds[0];
+                if (null != handler) {
+                    handler.accept(id);
+                }
+                // The handler may have cancelled the deadline, or scheduled an earlier one.
+                final int index = indexOf(id);
+                if (index >= 0) {
+                    removeAt(index);
+                }
+                ++counter;
+            }
+        }
+        return counter;
+    }
+
+    /**
+     * Returns the heap index of the scheduled deadline with the given identifier, or -1. Must be called while holding
+     * the lock.
+     */
+    private int indexOf(long requestId) {
+        if (requestId <= 0L) {
+            return -1;
+        }
+        final int slot = SlotTable.slotOf(requestId);
+        if (slot < 0 || slot >= slotCount || generations[slot] != SlotTable.generationOf(requestId)) {
+            return -1;
+        }
+        return positions[slot];
+    }
+
+    /**
+     * Removes the deadline at the heap index and frees its slot. Must be called while holding the lock.
+     */
+    private void removeAt(int index) {
+        final int slot = SlotTable.slotOf(heapIds[index]);
+        final int last = --size;
+        if (index != last) {
+            final long timeout = heapTimeouts[last];
+            final long id = heapIds[last];
+            siftDown(index, timeout, id);
+            if (id == heapIds[index]) {
+                siftUp(index, timeout, id);
+            }
+        }
+        releaseSlot(slot);
+    }
+
+    private int allocateSlot() {
+        if (freeCount > 0) {
+            return freeSlots[--freeCount];
+        }
+        if (slotCount == positions.length) {
+            positions = Arrays.copyOf(positions, 2 * slotCount);
+            generations = Arrays.copyOf(generations, 2 * slotCount);
+            freeSlots = Arrays.copyOf(freeSlots, 2 * slotCount);
+        }
+        generations[slotCount] = 1;
+        return slotCount++;
+    }
+
+    private void releaseSlot(int slot) {
+        positions[slot] = -1;
+        generations[slot] = SlotTable.nextGeneration(generations[slot]);
+        freeSlots[freeCount++] = slot;
+    }
+
+    private void siftUp(int index, long timeout, long id) {
+        while (index > 0) {
+            final int parent = (index - 1) / ARITY;
+            if (!isBefore(timeout, id, heapTimeouts[parent], heapIds[parent])) {
+                break;
+            }
+            move(parent, index);
+            index = parent;
+        }
+        place(index, timeout, id);
+    }
+
+    private void siftDown(int index, long timeout, long id) {
+        while (true) {
+            final int firstChild = ARITY * index + 1;
+            if (firstChild >= size) {
+                break;
+            }
+            int minChild = firstChild;
+            final int lastChild = Math.min(firstChild + ARITY, size);
+            for (int child = firstChild + 1; child < lastChild; ++child) {
+                if (isBefore(heapTimeouts[child], heapIds[child], heapTimeouts[minChild], heapIds[minChild])) {
+                    minChild = child;
+                }
+            }
+            if (!isBefore(heapTimeouts[minChild], heapIds[minChild], timeout, id)) {
+                break;
+            }
+            move(minChild, index);
+            index = minChild;
+        }
+        place(index, timeout, id);
+    }
+
+    private void move(int from, int to) {
+        place(to, heapTimeouts[from], heapIds[from]);
+    }
+
+    private void place(int index, long timeout, long id) {
+        heapTimeouts[index] = timeout;
+        heapIds[index] = id;
+        positions[SlotTable.slotOf(id)] = index;
+    }
+
+    /**
+     * Same order as the Deadline.compareTo() of the other engines: by timeout, then by identifier.
+     */
+    private static boolean isBefore(long timeout, long id, long otherTimeout, long otherId) {
+        return timeout < otherTimeout || (timeout == otherTimeout && id < otherId);
+    }
+
+    /**
+     * The number of registered deadlines.
+     * @return the number of registered deadlines.
+     */
+    @Override
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Returns string representation of the scheduled deadlines. Enclosed in square brackets and comma separated.
+     * @return String representation of the scheduled deadlines sorted from nearest to farthest.
+     */
+    @Override
+    public String toString() {
+        final long[] array;
+        synchronized (this) {
+            array = Arrays.copyOf(heapTimeouts, size);
+        }
+        Arrays.sort(array);
+        return Arrays.stream(array).mapToObj(String::valueOf).collect(Collectors.joining(", ", "[", "]"));
+    }
+}
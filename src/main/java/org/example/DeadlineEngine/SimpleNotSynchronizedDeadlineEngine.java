@@ -1,7 +1,6 @@
 package org.example.DeadlineEngine;
 
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.PriorityQueue;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
@@ -9,28 +8,27 @@ import java.util.stream.Collectors;
 public class SimpleNotSynchronizedDeadlineEngine implements DeadlineEngine {
 
     private final PriorityQueue<Deadline> queue;
-    private final HashMap<Long, Deadline> map;
+    private final SlotTable<Deadline> slots;
 
     SimpleNotSynchronizedDeadlineEngine() {
         this.queue = new PriorityQueue<>();
-        this.map = new HashMap<>();
+        this.slots = new SlotTable<>();
     }
 
     @Override
     public long schedule(long deadlineMs) {
-        final Deadline deadline = new Deadline(deadlineMs);
+        final Deadline deadline = new Deadline(slots.reserve(), deadlineMs);
+        slots.set(deadline.id, deadline);
         queue.add(deadline);
-        map.put(deadline.id, deadline);
         return deadline.id;
     }
 
     @Override
     public boolean cancel(long requestId) {
-        Deadline deadline = map.get(requestId);
+        final Deadline deadline = slots.remove(requestId);
         if (null == deadline) {
             return false;
         }
-        map.remove(requestId);
         return queue.remove(deadline);
     }
 
@@ -49,6 +47,7 @@ public class SimpleNotSynchronizedDeadlineEngine implements DeadlineEngine {
                 handler.accept(deadline.id);
             }
             queue.poll();
+            slots.remove(deadline.id);
             ++counter;
         }
         return counter;
@@ -67,11 +66,10 @@ public class SimpleNotSynchronizedDeadlineEngine implements DeadlineEngine {
     }
 
     static class Deadline implements Comparable<Deadline> {
-        private static long nextId = 0L;
         private final long id;
         private final long timeout;
-        Deadline (long deadlineMs) {
-            this.id = ++nextId;
+        Deadline(long id, long deadlineMs) {
+            this.id = id;
             this.timeout = deadlineMs;
         }
 
@@ -0,0 +1,152 @@
+package org.example.DeadlineEngine;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Table of the deadlines of an engine, indexed by identifiers which encode a slot of the table in their low 32 bits
+ * and the slot's generation in their high bits. Looking up an identifier reads its slot directly, without hashing,
+ * and the generation of a slot changes each time it is freed, so an identifier of a cancelled or fired deadline is
+ * rejected even after its slot is reused.
+ * Identifiers are only unique within a table, and the table is not thread-safe: engines access it while holding
+ * their lock, which also makes generating identifiers safe without any shared counter.
+ */
+final class SlotTable<T> {
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int SLOT_BITS = 32;
+    private static final long SLOT_MASK = (1L << SLOT_BITS) - 1L;
+
+    private Object[] values;
+    private int[] generations;
+    private int[] freeSlots;
+    private int freeCount;
+    private int slotCount;
+    private int size;
+
+    SlotTable() {
+        this.values = new Object[INITIAL_CAPACITY];
+        this.generations = new int[INITIAL_CAPACITY];
+        this.freeSlots = new int[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Reserves a slot and returns its identifier. The identifier is positive, so it differs from the -1 returned by
+     * the engines on errors.
+     * @return Identifier of the reserved slot, holding no value until set() is called.
+     */
+    long reserve() {
+        final int slot = allocateSlot();
+        ++size;
+        return id(slot, generations[slot]);
+    }
+
+    /**
+     * Stores the value in the slot reserved for the identifier.
+     * @param id Identifier returned by reserve().
+     * @param value Value to store.
+     */
+    void set(long id, T value) {
+        values[slotOf(id)] = value;
+    }
+
+    /**
+     * Returns the value of the identifier, or null if the identifier is unknown or stale.
+     * @param id Identifier returned by reserve().
+     * @return Value of the identifier.
+     */
+    @SuppressWarnings("unchecked")
+    T get(long id) {
+        return isCurrent(id) ? (T) values[slotOf(id)] : null;
+    }
+
+    /**
+     * Removes the value of the identifier and frees its slot.
+     * @param id Identifier returned by reserve().
+     * @return Removed value, or null if the identifier is unknown or stale.
+     */
+    @SuppressWarnings("unchecked")
+    T remove(long id) {
+        if (!isCurrent(id)) {
+            return null;
+        }
+        final int slot = slotOf(id);
+        final T value = (T) values[slot];
+        values[slot] = null;
+        generations[slot] = nextGeneration(generations[slot]);
+        freeSlots[freeCount++] = slot;
+        --size;
+        return value;
+    }
+
+    /**
+     * Calls the action with each value of the table.
+     * @param action Action to call.
+     */
+    @SuppressWarnings("unchecked")
+    void forEach(Consumer<? super T> action) {
+        for (int slot = 0; slot < slotCount; ++slot) {
+            if (null != values[slot]) {
+                action.accept((T) values[slot]);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of reserved identifiers.
+     * @return Number of reserved identifiers.
+     */
+    int size() {
+        return size;
+    }
+
+    private boolean isCurrent(long id) {
+        if (id <= 0L) {
+            return false;
+        }
+        final long slot = id & SLOT_MASK;
+        return slot < slotCount && generations[(int) slot] == generationOf(id);
+    }
+
+    private int allocateSlot() {
+        if (freeCount > 0) {
+            return freeSlots[--freeCount];
+        }
+        if (slotCount == values.length) {
+            values = Arrays.copyOf(values, 2 * slotCount);
+            generations = Arrays.copyOf(generations, 2 * slotCount);
+            freeSlots = Arrays.copyOf(freeSlots, 2 * slotCount);
+        }
+        generations[slotCount] = 1;
+        return slotCount++;
+    }
+
+    /**
+     * Returns the identifier of the slot at the given generation.
+     */
+    static long id(int slot, int generation) {
+        return ((long) generation << SLOT_BITS) | slot;
+    }
+
+    /**
+     * Returns the slot encoded in the identifier.
+     */
+    static int slotOf(long id) {
+        return (int) (id & SLOT_MASK);
+    }
+
+    /**
+     * Returns the generation encoded in the identifier.
+     */
+    static int generationOf(long id) {
+        return (int) (id >>> SLOT_BITS);
+    }
+
+    /**
+     * Returns the generation following the given one. Generations stay positive, so identifiers stay positive.
+     */
+    static int nextGeneration(int generation) {
+        final int next = (generation + 1) & Integer.MAX_VALUE;
+        return 0 == next ? 1 : next;
+    }
+}
@@ -1,23 +1,48 @@
 package org.example.DeadlineEngine;
 
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.PriorityQueue;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
  * Synchronized implementation of DeadlineEngine interface.
  * Manages an active set of deadlines to be raised whenever they expire.
+ * Polling removes the expired deadlines in a single critical section and then calls the handler with no lock held,
+ * so a slow handler does not block the threads scheduling or cancelling deadlines. A deadline is removed before its
+ * handler is called, so it fires at most once, and cancelling it from a handler returns false.
+ * A RuntimeException thrown by the handler is passed to the engine's error handler, and the remaining expired
+ * deadlines are still dispatched.
  */
 public class SynchronizedDeadlineEngine implements DeadlineEngine {
 
+    private static final int INITIAL_BATCH_CAPACITY = 16;
+
     private final PriorityQueue<Deadline> queue;
-    private final HashMap<Long, Deadline> map;
+    private final SlotTable<Deadline> slots;
+    private final BiConsumer<Long, RuntimeException> errorHandler;
+
+    /**
+     * Constructor for the SynchronizedDeadlineEngine passing the exceptions thrown by handlers to the uncaught exception
+     * handler of the polling thread.
+     */
+    public SynchronizedDeadlineEngine() {
+        this(SynchronizedDeadlineEngine::reportHandlerFailure);
+    }
 
-    SynchronizedDeadlineEngine() {
+    /**
+     * Constructor for the SynchronizedDeadlineEngine.
+     * @param errorHandler Called with the identifier of the deadline and the exception, whenever the handler passed to
+     *                     poll() throws a RuntimeException. Called from the polling thread, with no lock held.
+     */
+    public SynchronizedDeadlineEngine(BiConsumer<Long, RuntimeException> errorHandler) {
+        if (errorHandler == null) {
+            throw new NullPointerException("Parameter \"errorHandler\" cannot be null.");
+        }
         this.queue = new PriorityQueue<>();
-        this.map = new HashMap<>();
+        this.slots = new SlotTable<>();
+        this.errorHandler = errorHandler;
     }
 
     /**
@@ -33,9 +58,9 @@ public class SynchronizedDeadlineEngine implements DeadlineEngine {
         if (deadlineMs <= 0L) {
             return -1L;
         }
-        final Deadline deadline = new Deadline(deadlineMs);
+        final Deadline deadline = new Deadline(slots.reserve(), deadlineMs);
+        slots.set(deadline.id, deadline);
         queue.add(deadline);
-        map.put(deadline.id, deadline);
         return deadline.id;
     }
 
@@ -46,11 +71,10 @@ public class SynchronizedDeadlineEngine implements DeadlineEngine {
      */
     @Override
     public synchronized boolean cancel(long requestId) {
-        final Deadline deadline = map.get(requestId);
+        final Deadline deadline = slots.remove(requestId);
         if (null == deadline) {
             return false;
         }
-        map.remove(requestId);
         return queue.remove(deadline);
     }
 
@@ -60,6 +84,9 @@ public class SynchronizedDeadlineEngine implements DeadlineEngine {
      * To avoid a system flood and manage how many expired events we can handle we also pass in the maximum number of
      * expired deadlines to fire.  Those expired deadlines that wernt raised will be available in the next poll.
      * There is no need for the triggered deadlines to fire in order.
+     * The expired deadlines are removed before the handler is called for them, with no lock held. A deadline whose
+     * handler throws a RuntimeException is passed to the error handler and not counted; an Error thrown by the
+     * handler propagates, dropping the deadlines of the batch not dispatched yet.
      * @param nowMs time in millis since epoch to check deadlines against.
      * @param handler to call with identifier of expired deadlines.
      * @param maxPoll count of maximum number of expired deadlines to process.
@@ -70,27 +97,46 @@ public class SynchronizedDeadlineEngine implements DeadlineEngine {
         if (nowMs <= 0 || maxPoll <= 0) {
             return 0;
         }
-        int counter = 0;
-        while (counter < maxPoll) {
-            synchronized (this) {
-                if (queue.size() <= 0) {
-                    break;
-                }
+        // Sized by the number of expired deadlines rather than by the number of live ones.
+        long[] expired = new long[Math.min(maxPoll, INITIAL_BATCH_CAPACITY)];
+        int expiredCount = 0;
+        synchronized (this) {
+            while (expiredCount < maxPoll) {
                 final Deadline deadline = queue.peek();
-                if (deadline.timeout > nowMs) {
+                if (null == deadline || deadline.timeout > nowMs) {
                     break;
                 }
-                if (null != handler) {
-                    handler.accept(deadline.id);
-                }
                 queue.poll();
-                map.remove(deadline.id);
+                slots.remove(deadline.id);
+                if (expiredCount == expired.length) {
+                    expired = Arrays.copyOf(expired, (int) Math.min(maxPoll, 2L * expiredCount));
+                }
+                expired[expiredCount++] = deadline.id;
+            }
+        }
+        if (null == handler) {
+            return expiredCount;
+        }
+        int counter = 0;
+        for (int i = 0; i < expiredCount; ++i) {
+            try {
+                handler.accept(expired[i]);
                 ++counter;
+            } catch (RuntimeException e) {
+                errorHandler.accept(expired[i], e);
             }
         }
         return counter;
     }
 
+    /**
+     * Default error handler of the engines dispatching outside the lock.
+     */
+    static void reportHandlerFailure(Long id, RuntimeException e) {
+        final Thread thread = Thread.currentThread();
+        thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+    }
+
     /**
      * The number of registered deadlines.
      * @return the number of registered deadlines.
@@ -118,12 +164,11 @@ public class SynchronizedDeadlineEngine implements DeadlineEngine {
      * Internal class representing a deadline object with a timeout and an identifier.
      */
     static class Deadline implements Comparable<Deadline> {
-        private static long nextId = 0L;
         final private long id;
         final private long timeout;
 
-        Deadline(long deadlineMs) {
-            this.id = ++nextId;
+        Deadline(long id, long deadlineMs) {
+            this.id = id;
             this.timeout = deadlineMs;
         }
 
@@ -1,7 +1,6 @@
 package org.example.DeadlineEngine;
 
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.PriorityQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -15,12 +14,12 @@ import java.util.stream.Collectors;
 public class SynchronizedExecutorDeadlineEngine implements DeadlineEngine {
 
     private final PriorityQueue<Deadline> queue;
-    private final HashMap<Long, Deadline> map;
+    private final SlotTable<Deadline> slots;
     private final ExecutorService executor;
 
     SynchronizedExecutorDeadlineEngine() {
         this.queue = new PriorityQueue<>();
-        this.map = new HashMap<>();
+        this.slots = new SlotTable<>();
         this.executor = Executors.newSingleThreadExecutor();
     }
 
@@ -37,9 +36,9 @@ public class SynchronizedExecutorDeadlineEngine implements DeadlineEngine {
         if (deadlineMs <= 0L) {
             return -1L;
         }
-        final Deadline deadline = new Deadline(deadlineMs);
+        final Deadline deadline = new Deadline(slots.reserve(), deadlineMs);
+        slots.set(deadline.id, deadline);
         queue.add(deadline);
-        map.put(deadline.id, deadline);
         return deadline.id;
     }
 
@@ -50,11 +49,10 @@ public class SynchronizedExecutorDeadlineEngine implements DeadlineEngine {
      */
     @Override
     public synchronized boolean cancel(long requestId) {
-        final Deadline deadline = map.get(requestId);
+        final Deadline deadline = slots.remove(requestId);
         if (null == deadline) {
             return false;
         }
-        map.remove(requestId);
         return queue.remove(deadline);
     }
 
@@ -91,7 +89,7 @@ public class SynchronizedExecutorDeadlineEngine implements DeadlineEngine {
                     });
                 }
                 queue.poll();
-                map.remove(deadline.id);
+                slots.remove(deadline.id);
                 ++counter;
             }
         }
@@ -125,12 +123,11 @@ public class SynchronizedExecutorDeadlineEngine implements DeadlineEngine {
      * Internal class representing a deadline object with a timeout and an identifier.
      */
     static class Deadline implements Comparable<Deadline> {
-        private static long nextId = 0L;
         final private long id;
         final private long timeout;
 
-        Deadline(long deadlineMs) {
-            this.id = ++nextId;
+        Deadline(long id, long deadlineMs) {
+            this.id = id;
             this.timeout = deadlineMs;
         }
 
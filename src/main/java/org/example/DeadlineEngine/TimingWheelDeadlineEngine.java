@@ -0,0 +1,292 @@
+package org.example.DeadlineEngine;
+
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Synchronized implementation of DeadlineEngine interface based on a hierarchical timing wheel.
+ * Manages an active set of deadlines to be raised whenever they expire.
+ * The wheel has a level for each group of 6 bits of the deadline, each level with 64 slots and a bitmap of its
+ * occupied slots. A deadline is kept in the level of the highest bit in which it differs from the time the wheel was
+ * advanced to, so deadlines far in the future land in the higher (overflow) levels, which are only allocated once
+ * used. Each slot is an intrusive doubly linked list, so scheduling and cancelling take constant time.
+ * Polling advances the wheel to the polled time, jumping straight to the next occupied slot, and moves the deadlines
+ * of each slot reached one level down, until they are expired. A deadline moves down at most once per level, so each
+ * expiry costs amortized constant time.
+ * As in the SynchronizedDeadlineEngine, polling removes the expired deadlines in a single critical section and then
+ * calls the handler with no lock held, passing a RuntimeException thrown by the handler to the engine's error handler.
+ */
+public class TimingWheelDeadlineEngine implements DeadlineEngine {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int LEVELS = (Long.SIZE + SLOT_BITS - 1) / SLOT_BITS;
+    private static final int EXPIRED = -1;
+    private static final int REMOVED = -2;
+    private static final int INITIAL_BATCH_CAPACITY = 16;
+
+    private final Deadline[][] wheels;
+    private final long[] occupied;
+    private final SlotTable<Deadline> deadlines;
+    private Deadline expiredHead;
+    private Deadline expiredTail;
+    private long current;
+    private final BiConsumer<Long, RuntimeException> errorHandler;
+
+    /**
+     * Constructor for the TimingWheelDeadlineEngine passing the exceptions thrown by handlers to the uncaught exception
+     * handler of the polling thread.
+     */
+    public TimingWheelDeadlineEngine() {
+        this(SynchronizedDeadlineEngine::reportHandlerFailure);
+    }
+
+    /**
+     * Constructor for the TimingWheelDeadlineEngine.
+     * @param errorHandler Called with the identifier of the deadline and the exception, whenever the handler passed to
+     *                     poll() throws a RuntimeException. Called from the polling thread, with no lock held.
+     */
+    public TimingWheelDeadlineEngine(BiConsumer<Long, RuntimeException> errorHandler) {
+        if (errorHandler == null) {
+            throw new NullPointerException("Parameter \"errorHandler\" cannot be null.");
+        }
+        this.errorHandler = errorHandler;
+        this.wheels = new Deadline[LEVELS][];
+        this.occupied = new long[LEVELS];
+        this.deadlines = new SlotTable<>();
+        this.current = 0L;
+    }
+
+    /**
+     * Request a new deadline be added to the engine.  The deadline is in millis offset from
+     * unix epoch. https://en.wikipedia.org/wiki/Unix_time
+     * The engine will raise an event whenever a deadline (usually now in millis) supplied in the poll method
+     * exceeds the request deadline.
+     * @param deadlineMs Deadline as unix epoch (in milliseconds).
+     * @return Returns -1 if deadlineMs param is negative or zero. Otherwise, returns an identifier for the scheduled deadline.
+     */
+    @Override
+    public synchronized long schedule(long deadlineMs) {
+        if (deadlineMs <= 0L) {
+            return -1L;
+        }
+        final Deadline deadline = new Deadline(deadlines.reserve(), deadlineMs);
+        deadlines.set(deadline.id, deadline);
+        insert(deadline);
+        return deadline.id;
+    }
+
+    /**
+     * Remove the scheduled event using the identifier returned when the deadline was scheduled.
+     * @param requestId Identifier of the scheduled deadline to be cancelled.
+     * @return Returns true if canceled and false otherwise.
+     */
+    @Override
+    public synchronized boolean cancel(long requestId) {
+        final Deadline deadline = deadlines.remove(requestId);
+        if (null == deadline) {
+            return false;
+        }
+        unlink(deadline);
+        return true;
+    }
+
+    /**
+     * Supplies a deadline in millis to check against scheduled deadlines.  If any deadlines are triggered the
+     * supplied handler is called with the identifier of the expired deadline.
+     * To avoid a system flood and manage how many expired events we can handle we also pass in the maximum number of
+     * expired deadlines to fire.  Those expired deadlines that wernt raised will be available in the next poll.
+     * There is no need for the triggered deadlines to fire in order.
+     * The expired deadlines are removed before the handler is called for them, with no lock held. A deadline whose
+     * handler throws a RuntimeException is passed to the error handler and not counted; an Error thrown by the
+     * handler propagates, dropping the deadlines of the batch not dispatched yet.
+     * @param nowMs time in millis since epoch to check deadlines against.
+     * @param handler to call with identifier of expired deadlines.
+     * @param maxPoll count of maximum number of expired deadlines to process.
+     * @return number of expired deadlines that fired successfully.
+     */
+    @Override
+    public int poll(long nowMs, Consumer<Long> handler, int maxPoll) {
+        if (nowMs <= 0 || maxPoll <= 0) {
+            return 0;
+        }
+        // Sized by the number of expired deadlines rather than by the number of live ones.
+        long[] expired = new long[Math.min(maxPoll, INITIAL_BATCH_CAPACITY)];
+        int expiredCount = 0;
+        synchronized (this) {
+            advance(nowMs);
+            // Deadlines later than nowMs are only in the expired list if an earlier poll was given a later time.
+            Deadline deadline = expiredHead;
+            while (null != deadline && expiredCount < maxPoll) {
+                final Deadline next = deadline.next;
+                if (deadline.timeout <= nowMs) {
+                    deadlines.remove(deadline.id);
+                    unlink(deadline);
+                    if (expiredCount == expired.length) {
+                        expired = Arrays.copyOf(expired, (int) Math.min(maxPoll, 2L * expiredCount));
+                    }
+                    expired[expiredCount++] = deadline.id;
+                }
+                deadline = next;
+            }
+        }
+        if (null == handler) {
+            return expiredCount;
+        }
+        int counter = 0;
+        for (int i = 0; i < expiredCount; ++i) {
+            try {
+                handler.accept(expired[i]);
+                ++counter;
+            } catch (RuntimeException e) {
+                errorHandler.accept(expired[i], e);
+            }
+        }
+        return counter;
+    }
+
+    /**
+     * Moves the wheel forward to the given time, moving the deadlines of each occupied slot reached to a lower level
+     * or to the expired list. Must be called while holding the lock.
+     */
+    private void advance(long nowMs) {
+        while (current < nowMs) {
+            // The lowest occupied level holds the earliest deadlines, in its lowest occupied slot.
+            int level = 0;
+            while (level < LEVELS && 0L == occupied[level]) {
+                ++level;
+            }
+            if (LEVELS == level) {
+                current = nowMs;
+                return;
+            }
+            final int slot = Long.numberOfTrailingZeros(occupied[level]);
+            final int shift = level * SLOT_BITS;
+            // Shifting in two steps keeps a shift of 64 bits or more from wrapping around.
+            final long blockMask = (1L << shift << SLOT_BITS) - 1L;
+            final long slotStart = (current & ~blockMask) | ((long) slot << shift);
+            if (slotStart > nowMs) {
+                current = nowMs;
+                return;
+            }
+            current = slotStart;
+            Deadline deadline = wheels[level][slot];
+            wheels[level][slot] = null;
+            occupied[level] &= ~(1L << slot);
+            while (null != deadline) {
+                final Deadline next = deadline.next;
+                insert(deadline);
+                deadline = next;
+            }
+        }
+    }
+
+    /**
+     * Adds the deadline to the expired list if it is not later than the wheel's time, or to the slot of the level of
+     * the highest bit in which the deadline and the wheel's time differ. Must be called while holding the lock.
+     */
+    private void insert(Deadline deadline) {
+        if (deadline.timeout <= current) {
+            deadline.level = EXPIRED;
+            deadline.next = null;
+            deadline.prev = expiredTail;
+            if (null != expiredTail) {
+                expiredTail.next = deadline;
+            } else {
+                expiredHead = deadline;
+            }
+            expiredTail = deadline;
+            return;
+        }
+        final int level = (Long.SIZE - 1 - Long.numberOfLeadingZeros(deadline.timeout ^ current)) / SLOT_BITS;
+        final int slot = (int) (deadline.timeout >>> (level * SLOT_BITS)) & (SLOTS - 1);
+        Deadline[] wheel = wheels[level];
+        if (null == wheel) {
+            wheel = new Deadline[SLOTS];
+            wheels[level] = wheel;
+        }
+        deadline.level = level;
+        deadline.slot = slot;
+        deadline.prev = null;
+        deadline.next = wheel[slot];
+        if (null != deadline.next) {
+            deadline.next.prev = deadline;
+        }
+        wheel[slot] = deadline;
+        occupied[level] |= 1L << slot;
+    }
+
+    /**
+     * Removes the deadline from its slot or from the expired list. Must be called while holding the lock.
+     */
+    private void unlink(Deadline deadline) {
+        if (null != deadline.next) {
+            deadline.next.prev = deadline.prev;
+        }
+        if (EXPIRED == deadline.level) {
+            if (null != deadline.prev) {
+                deadline.prev.next = deadline.next;
+            } else {
+                expiredHead = deadline.next;
+            }
+            if (null == deadline.next) {
+                expiredTail = deadline.prev;
+            }
+        } else if (null != deadline.prev) {
+            deadline.prev.next = deadline.next;
+        } else {
+            wheels[deadline.level][deadline.slot] = deadline.next;
+            if (null == deadline.next) {
+                occupied[deadline.level] &= ~(1L << deadline.slot);
+            }
+        }
+        deadline.prev = null;
+        deadline.next = null;
+        deadline.level = REMOVED;
+    }
+
+    /**
+     * The number of registered deadlines.
+     * @return the number of registered deadlines.
+     */
+    @Override
+    public synchronized int size() {
+        return deadlines.size();
+    }
+
+    /**
+     * Returns string representation of the scheduled deadlines. Enclosed in square brackets and comma separated.
+     * @return String representation of the scheduled deadlines sorted from nearest to farthest.
+     */
+    @Override
+    public String toString() {
+        final long[] array;
+        synchronized (this) {
+            array = new long[deadlines.size()];
+            final int[] index = { 0 };
+            deadlines.forEach(dl -> array[index[0]++] = dl.timeout);
+        }
+        Arrays.sort(array);
+        return Arrays.stream(array).mapToObj(String::valueOf).collect(Collectors.joining(", ", "[", "]"));
+    }
+
+    /**
+     * Internal class representing a deadline object with a timeout and an identifier, linked into the list of its
+     * slot or into the expired list.
+     */
+    static class Deadline {
+        final private long id;
+        final private long timeout;
+        private Deadline prev;
+        private Deadline next;
+        private int level;
+        private int slot;
+
+        Deadline(long id, long deadlineMs) {
+            this.id = id;
+            this.timeout = deadlineMs;
+        }
+    }
+}
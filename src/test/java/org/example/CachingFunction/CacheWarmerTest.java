@@ -0,0 +1,92 @@
+package org.example.CachingFunction;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheWarmerTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void constructorThrowsWhenParamsAreInvalidTest() {
+        final ConcurrentCache<Integer, String> cache = new ConcurrentCache<>(String::valueOf);
+        assertThrows(NullPointerException.class, () -> { new CacheWarmer<Integer, String>(null); });
+        assertThrows(IllegalArgumentException.class, () -> { new CacheWarmer<>(cache, 0, 10); });
+        assertThrows(IllegalArgumentException.class, () -> { new CacheWarmer<>(cache, 4, 0); });
+    }
+
+    @Test
+    void warmUpLoadsEveryKeyOnceTest() {
+        final AtomicInteger calls = new AtomicInteger(0);
+        final ConcurrentCache<Integer, String> cache = new ConcurrentCache<>(i -> {
+            calls.incrementAndGet();
+            return String.valueOf(i);
+        });
+        final List<Long> reports = new CopyOnWriteArrayList<>();
+        final CacheWarmer<Integer, String> warmer = new CacheWarmer<>(cache, 8, 100);
+        // Every key is listed twice.
+        assertEquals(2_000, warmer.warmUp(IntStream.range(0, 2_000).map(i -> i % 1_000).boxed(),
+                (processed, failed) -> reports.add(processed)));
+        assertEquals(1_000, cache.size());
+        assertEquals(1_000, calls.get());
+        assertEquals(21, reports.size());
+        assertEquals(2_000L, reports.get(reports.size() - 1).longValue());
+    }
+
+    @Test
+    void failedKeysAreSkippedTest() {
+        final ConcurrentCache<Integer, String> cache = new ConcurrentCache<>(i -> 0 == i % 10 ? null : String.valueOf(i));
+        final CacheWarmer<Integer, String> warmer = new CacheWarmer<>(cache, 4, 10);
+        assertEquals(90, warmer.warmUp(IntStream.range(0, 100).boxed()));
+        assertEquals(90, cache.size());
+    }
+
+    @Test
+    void failedKeysAreReportedTest() {
+        final ConcurrentCache<Integer, String> cache = new ConcurrentCache<>(i -> 0 == i % 10 ? null : String.valueOf(i));
+        final List<long[]> reports = new CopyOnWriteArrayList<>();
+        final CacheWarmer<Integer, String> warmer = new CacheWarmer<>(cache, 4, 1_000);
+        assertEquals(900, warmer.warmUp(IntStream.range(0, 1_000).boxed(),
+                (processed, failed) -> reports.add(new long[] {processed, failed})));
+        assertEquals(2, reports.size());
+        assertEquals(1_000L, reports.get(1)[0]);
+        assertEquals(100L, reports.get(1)[1]);
+        for (long[] report : reports) {
+            assertTrue(report[1] <= report[0]);
+        }
+    }
+
+    @Test
+    void savedKeysAreWarmedUpTest() throws IOException {
+        final TinyLfuCache<Integer, String> previous = new TinyLfuCache<>(String::valueOf, 100);
+        for (int round=0; round < 10; ++round) {
+            for (int i=0; i < 20; ++i) {
+                previous.get(i);
+            }
+        }
+        for (int i=1_000; i < 1_050; ++i) {
+            previous.get(i);
+        }
+        final Path keyFile = directory.resolve("hot-keys.txt");
+        new CacheWarmer<>(previous).saveKeys(keyFile, previous.hotKeys(20), String::valueOf);
+        assertEquals(20, Files.readAllLines(keyFile).size());
+
+        final ConcurrentCache<Integer, String> cache = new ConcurrentCache<>(String::valueOf);
+        assertEquals(20, new CacheWarmer<>(cache, 2, 5).warmUp(keyFile, Integer::valueOf, (processed, failed) -> { }));
+        for (int i=0; i < 20; ++i) {
+            assertEquals(String.valueOf(i), cache.get(i));
+        }
+        assertEquals(20, cache.getInitCounter());
+    }
+}
@@ -0,0 +1,301 @@
+package org.example.CachingFunction;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CoherentCacheTest {
+
+    private static final Serializer<Integer> INT_SERIALIZER = new Serializer<>() {
+        @Override
+        public byte[] serialize(Integer object) {
+            return ByteBuffer.allocate(Integer.BYTES).putInt(object).array();
+        }
+
+        @Override
+        public Integer deserialize(ByteBuffer buffer) {
+            return buffer.getInt(buffer.position());
+        }
+    };
+
+    /**
+     * Transport delivering the messages synchronously to the other transports of the same group.
+     */
+    private static class LocalTransport implements InvalidationTransport {
+        private final List<LocalTransport> group;
+        private final int maxMessageSize;
+        private final List<byte[]> sent = new CopyOnWriteArrayList<>();
+        private Consumer<byte[]> receiver;
+        private boolean closed;
+        private int failingMessage = -1;
+
+        LocalTransport(List<LocalTransport> group, int maxMessageSize) {
+            this.group = group;
+            this.maxMessageSize = maxMessageSize;
+            group.add(this);
+        }
+
+        @Override
+        public void start(Consumer<byte[]> receiver) {
+            this.receiver = receiver;
+        }
+
+        @Override
+        public void broadcast(byte[] message) {
+            assertTrue(message.length <= maxMessageSize);
+            if (sent.size() == failingMessage) {
+                failingMessage = -1;
+                throw new IllegalStateException("link down");
+            }
+            sent.add(message);
+            for (LocalTransport peer : group) {
+                if (peer != this) {
+                    peer.receiver.accept(message);
+                }
+            }
+        }
+
+        @Override
+        public int maxMessageSize() {
+            return maxMessageSize;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+    @Test
+    void constructorThrowsWhenParamsAreInvalidTest() {
+        final ConcurrentCache<Integer, String> backing = new ConcurrentCache<>(String::valueOf);
+        final LocalTransport transport = new LocalTransport(new CopyOnWriteArrayList<>(), 1024);
+        assertThrows(NullPointerException.class, () -> { new CoherentCache<>(null, INT_SERIALIZER, transport); });
+        assertThrows(NullPointerException.class, () -> { new CoherentCache<>(backing, null, transport); });
+        assertThrows(NullPointerException.class, () -> { new CoherentCache<>(backing, INT_SERIALIZER, null); });
+        assertThrows(IllegalArgumentException.class, () -> { new CoherentCache<>(backing, INT_SERIALIZER, transport, 0L); });
+        assertThrows(NullPointerException.class, () -> { new CoherentCache<>(backing, INT_SERIALIZER, transport, 10L, null); });
+    }
+
+    @Test
+    void basicSizeAndValueTest() {
+        final CoherentCache<Integer, String> cache = new CoherentCache<>(new ConcurrentCache<>(String::valueOf),
+                INT_SERIALIZER, new LocalTransport(new CopyOnWriteArrayList<>(), 1024));
+        final int[] arr =  { 1, 3, 21, 5, 7, 8, 15, 2, 11, 21, 20,  2,  9, 21,  5, 17, 13,  6, 14, 16};
+        final int[] size = { 1, 2,  3, 4, 5, 6,  7, 8,  9,  9, 10, 10, 11, 11, 11, 12, 13, 14, 15, 16};
+        for (int i=0; i < arr.length; ++i) {
+            assertEquals(String.valueOf(arr[i]), cache.get(arr[i]));
+            assertEquals(size[i], cache.size());
+        }
+        cache.close();
+    }
+
+    @Test
+    void invalidationIsAppliedByPeersTest() {
+        final AtomicInteger version = new AtomicInteger(0);
+        final List<LocalTransport> group = new CopyOnWriteArrayList<>();
+        final LocalTransport transport = new LocalTransport(group, 1024);
+        final CoherentCache<Integer, String> first = new CoherentCache<>(
+                new ConcurrentCache<>(key -> key + "v" + version.get()), INT_SERIALIZER, transport, 60_000L);
+        final CoherentCache<Integer, String> second = new CoherentCache<>(
+                new ConcurrentCache<>(key -> key + "v" + version.get()), INT_SERIALIZER, new LocalTransport(group, 1024), 60_000L);
+        assertEquals("1v0", first.get(1));
+        assertEquals("1v0", second.get(1));
+        assertEquals("2v0", second.get(2));
+
+        version.set(1);
+        first.invalidate(1);
+        assertEquals("1v1", first.get(1));
+        assertEquals("1v0", second.get(1));
+        assertEquals(1, first.pendingSize());
+
+        first.flush();
+        assertEquals(0, first.pendingSize());
+        assertEquals("1v1", second.get(1));
+        assertEquals("2v0", second.get(2));
+        assertEquals(1, transport.sent.size());
+        first.close();
+        second.close();
+        assertTrue(transport.closed);
+    }
+
+    @Test
+    void invalidationDuringLoadIsNotCachedTest() throws InterruptedException {
+        final AtomicInteger version = new AtomicInteger(0);
+        final CountDownLatch loading = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<LocalTransport> group = new CopyOnWriteArrayList<>();
+        final CoherentCache<Integer, String> first = new CoherentCache<>(
+                new ConcurrentCache<>(key -> key + "v" + version.get()), INT_SERIALIZER, new LocalTransport(group, 1024), 60_000L);
+        final CoherentCache<Integer, String> second = new CoherentCache<>(new ConcurrentCache<>(key -> {
+            final String value = key + "v" + version.get();
+            loading.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            return value;
+        }), INT_SERIALIZER, new LocalTransport(group, 1024), 60_000L);
+
+        final List<String> loaded = new CopyOnWriteArrayList<>();
+        final Thread reader = new Thread(() -> loaded.add(second.get(1)));
+        reader.start();
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        // The source changes and the invalidation reaches the peer while its load holds the old value.
+        version.set(1);
+        first.invalidate(1);
+        first.flush();
+        release.countDown();
+        reader.join();
+        assertEquals(List.of("1v0"), loaded);
+        assertEquals(0, second.size());
+        assertEquals("1v1", second.get(1));
+        first.close();
+        second.close();
+    }
+
+    @Test
+    void failedBroadcastKeepsUnsentKeysTest() {
+        final LocalTransport transport = new LocalTransport(new CopyOnWriteArrayList<>(), 64);
+        final CoherentCache<Integer, String> cache = new CoherentCache<>(new ConcurrentCache<>(String::valueOf),
+                INT_SERIALIZER, transport, 60_000L);
+        for (int i=0; i < 12; ++i) {
+            cache.invalidate(i);
+        }
+        // 64 bytes hold 6 keys, the second message fails.
+        transport.failingMessage = 1;
+        assertThrows(IllegalStateException.class, cache::flush);
+        assertEquals(1, transport.sent.size());
+        assertEquals(6, cache.pendingSize());
+
+        cache.flush();
+        assertEquals(0, cache.pendingSize());
+        final Set<Integer> keys = new HashSet<>();
+        for (byte[] message : transport.sent) {
+            final ByteBuffer buffer = ByteBuffer.wrap(message);
+            final int count = buffer.getInt(Long.BYTES);
+            for (int i=0; i < count; ++i) {
+                keys.add(buffer.getInt(Long.BYTES + Integer.BYTES + i * 2 * Integer.BYTES + Integer.BYTES));
+            }
+        }
+        assertEquals(12, keys.size());
+        cache.close();
+    }
+
+    @Test
+    void scheduledFlushFailureGoesToErrorHandlerTest() throws InterruptedException {
+        final LocalTransport transport = new LocalTransport(new CopyOnWriteArrayList<>(), 1024);
+        transport.failingMessage = 0;
+        final List<Throwable> errors = new CopyOnWriteArrayList<>();
+        final CoherentCache<Integer, String> cache = new CoherentCache<>(new ConcurrentCache<>(String::valueOf),
+                INT_SERIALIZER, transport, 5L, errors::add);
+        cache.invalidate(1);
+        final long deadline = System.currentTimeMillis() + 5_000L;
+        while ((errors.isEmpty() || 0 != cache.pendingSize()) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5L);
+        }
+        assertEquals(1, errors.size());
+        assertEquals("link down", errors.get(0).getMessage());
+        // The next scheduled flush sends the key again.
+        assertEquals(0, cache.pendingSize());
+        assertEquals(1, transport.sent.size());
+        cache.close();
+    }
+
+    @Test
+    void invalidationsAreCoalescedAndBatchedTest() {
+        final LocalTransport transport = new LocalTransport(new CopyOnWriteArrayList<>(), 64);
+        final CoherentCache<Integer, String> cache = new CoherentCache<>(new ConcurrentCache<>(String::valueOf),
+                INT_SERIALIZER, transport, 60_000L);
+        for (int i=0; i < 100; ++i) {
+            cache.invalidate(1);
+        }
+        assertEquals(1, cache.pendingSize());
+        cache.flush();
+        assertEquals(1, transport.sent.size());
+        assertEquals(Long.BYTES + Integer.BYTES + Integer.BYTES + Integer.BYTES, transport.sent.get(0).length);
+
+        transport.sent.clear();
+        for (int i=0; i < 100; ++i) {
+            cache.invalidate(i);
+        }
+        cache.flush();
+        // 64 bytes hold a 12 bytes header and 6 keys of 8 bytes.
+        assertEquals(17, transport.sent.size());
+        int keys = 0;
+        for (byte[] message : transport.sent) {
+            keys += ByteBuffer.wrap(message).getInt(Long.BYTES);
+        }
+        assertEquals(100, keys);
+
+        transport.sent.clear();
+        cache.flush();
+        assertTrue(transport.sent.isEmpty());
+        cache.close();
+    }
+
+    @Test
+    void ownMessagesAreIgnoredTest() {
+        final List<LocalTransport> group = new CopyOnWriteArrayList<>();
+        final LocalTransport transport = new LocalTransport(group, 1024);
+        final ConcurrentCache<Integer, String> backing = new ConcurrentCache<>(String::valueOf);
+        final CoherentCache<Integer, String> cache = new CoherentCache<>(backing, INT_SERIALIZER, transport, 60_000L);
+        cache.invalidate(1);
+        cache.flush();
+        assertEquals("1", cache.get(1));
+        final long epoch = backing.getEpoch();
+        transport.receiver.accept(transport.sent.get(0));
+        assertEquals(epoch, backing.getEpoch());
+        assertEquals(1, cache.size());
+        cache.close();
+    }
+
+    @Test
+    void tooLargeKeyThrowsTest() {
+        final CoherentCache<Integer, String> cache = new CoherentCache<>(new ConcurrentCache<>(String::valueOf),
+                INT_SERIALIZER, new LocalTransport(new CopyOnWriteArrayList<>(), 16));
+        assertThrows(IllegalArgumentException.class, () -> { cache.invalidate(1); });
+        assertThrows(NullPointerException.class, () -> { cache.invalidate(null); });
+        cache.close();
+    }
+
+    @Test
+    void udpLoopbackTest() throws InterruptedException {
+        final InetSocketAddress any = new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+        final UdpInvalidationTransport firstTransport = new UdpInvalidationTransport(any, List.of());
+        final UdpInvalidationTransport secondTransport = new UdpInvalidationTransport(any, List.of());
+        firstTransport.addPeer(secondTransport.getLocalAddress());
+        secondTransport.addPeer(firstTransport.getLocalAddress());
+        final AtomicInteger version = new AtomicInteger(0);
+        final CoherentCache<Integer, String> first = new CoherentCache<>(
+                new ConcurrentCache<>(key -> key + "v" + version.get()), INT_SERIALIZER, firstTransport, 5L);
+        final CoherentCache<Integer, String> second = new CoherentCache<>(
+                new ConcurrentCache<>(key -> key + "v" + version.get()), INT_SERIALIZER, secondTransport, 5L);
+        assertEquals("7v0", second.get(7));
+
+        version.set(1);
+        first.invalidate(7);
+        // The scheduled flush sends the invalidation without an explicit flush().
+        final long deadline = System.currentTimeMillis() + 5_000L;
+        while (1 == second.size() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5L);
+        }
+        assertEquals(0, second.size());
+        assertEquals("7v1", second.get(7));
+        first.close();
+        second.close();
+    }
+}
@@ -0,0 +1,106 @@
+package org.example.CachingFunction;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentAsyncCacheTest {
+
+    @Test
+    void constructorThrowsWhenParamsAreNullTest() {
+        assertThrows(NullPointerException.class, () -> { new ConcurrentAsyncCache<Integer, String>(null); });
+        assertThrows(NullPointerException.class, () -> { new ConcurrentAsyncCache<Integer, String>(String::valueOf, null); });
+    }
+
+    @Test
+    void getAsyncReturnsValueTest() throws Exception {
+        final ConcurrentAsyncCache<Integer, String> cache = new ConcurrentAsyncCache<>(String::valueOf);
+        assertEquals("1", cache.getAsync(1).get());
+        assertEquals("1", cache.get(1));
+        assertEquals("2", cache.get(2));
+        assertEquals(2, cache.size());
+        assertEquals(2, cache.getInitCounter());
+    }
+
+    @Test
+    void concurrentMissesShareSingleFutureTest() {
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger calls = new AtomicInteger(0);
+        final ConcurrentAsyncCache<Integer, String> cache = new ConcurrentAsyncCache<>(i -> {
+            calls.incrementAndGet();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return String.valueOf(i);
+        });
+        final CompletableFuture<String> first = cache.getAsync(1);
+        final CompletableFuture<String> second = cache.getAsync(1);
+        assertSame(first, second);
+        assertFalse(first.isDone());
+        release.countDown();
+        assertEquals("1", first.join());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void failedFutureIsEvictedTest() {
+        final AtomicInteger calls = new AtomicInteger(0);
+        final ConcurrentAsyncCache<Integer, String> cache = new ConcurrentAsyncCache<>(i -> {
+            if (1 == calls.incrementAndGet()) {
+                throw new IllegalStateException("first call fails");
+            }
+            return String.valueOf(i);
+        }, Runnable::run);
+        final CompletableFuture<String> failed = cache.getAsync(1);
+        assertTrue(failed.isCompletedExceptionally());
+        assertThrows(ExecutionException.class, failed::get);
+        assertEquals(0, cache.size());
+
+        assertEquals("1", cache.getAsync(1).join());
+        assertEquals(1, cache.size());
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void blockingGetRethrowsCauseTest() {
+        final ConcurrentAsyncCache<Integer, String> cache = new ConcurrentAsyncCache<>(i -> null, Runnable::run);
+        assertThrows(NullPointerException.class, () -> cache.get(1));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void rejectedLoadIsEvictedTest() {
+        final ConcurrentAsyncCache<Integer, String> cache = new ConcurrentAsyncCache<>(String::valueOf, runnable -> {
+            throw new RejectedExecutionException("shut down");
+        });
+        assertTrue(cache.getAsync(1).isCompletedExceptionally());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void snapshotCountsSharedLoadsAsMissesTest() {
+        final List<Runnable> tasks = new ArrayList<>();
+        final ConcurrentAsyncCache<Integer, String> cache = new ConcurrentAsyncCache<>(i -> i < 0 ? null : String.valueOf(i), tasks::add);
+        cache.getAsync(1);
+        cache.getAsync(1);
+        cache.getAsync(-1);
+        tasks.forEach(Runnable::run);
+        cache.getAsync(1);
+        final CacheStats stats = cache.snapshot();
+        assertEquals(1, stats.hitCount());
+        assertEquals(3, stats.missCount());
+        assertEquals(1, stats.loadSuccessCount());
+        assertEquals(1, stats.loadFailureCount());
+        assertEquals(1, stats.size());
+    }
+}
@@ -0,0 +1,462 @@
+package org.example.CachingFunction;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentCacheTest {
+
+    @Test
+    void constructorThrowsWhenFuncIsNullTest() {
+        assertThrows(NullPointerException.class, () -> { new ConcurrentCache<Integer, String>(null); });
+    }
+
+    @Test
+    void throwsExceptionWhenFuncReturnsNullTest() {
+        final ConcurrentCache<Integer, String> cache = new ConcurrentCache<>(i -> null);
+        assertThrows(NullPointerException.class, () -> cache.get(1));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void throwsExceptionWhenKeyIsNullTest() {
+        final ConcurrentCache<Integer, String> cache = new ConcurrentCache<>(String::valueOf);
+        assertThrows(NullPointerException.class, () -> cache.get(null));
+    }
+
+    @Test
+    void basicSizeAndValueTest() {
+        final ConcurrentCache<Integer, String> cache = new ConcurrentCache<>(String::valueOf);
+        assertEquals(0, cache.size());
+
+        final int[] arr =  { 1, 3, 21, 5, 7, 8, 15, 2, 11, 21, 20,  2,  9, 21,  5, 17, 13,  6, 14, 16};
+        final int[] size = { 1, 2,  3, 4, 5, 6,  7, 8,  9,  9, 10, 10, 11, 11, 11, 12, 13, 14, 15, 16};
+        for (int i=0; i < arr.length; ++i) {
+            assertEquals(String.valueOf(arr[i]), cache.get(arr[i]));
+            assertEquals(size[i], cache.size());
+        }
+        assertEquals(16, cache.size());
+        assertEquals(16, cache.getInitCounter());
+    }
+
+    @Test
+    void snapshotCountsHitsMissesAndLoadsTest() {
+        final ConcurrentCache<Integer, String> cache = new ConcurrentCache<>(String::valueOf, keys -> {
+            final Map<Integer, String> values = new HashMap<>();
+            keys.forEach(key -> values.put(key, String.valueOf(key)));
+            return values;
+        });
+        cache.get(1);
+        cache.get(1);
+        cache.getAll(List.of(1, 2, 3, 4));
+        final CacheStats stats = cache.snapshot();
+        assertEquals(2, stats.hitCount());
+        assertEquals(4, stats.missCount());
+        assertEquals(2, stats.loadSuccessCount());
+        assertEquals(0, stats.loadFailureCount());
+        assertEquals(4, stats.size());
+        assertEquals(1.0 / 3.0, stats.hitRate(), 1e-9);
+    }
+
+    @Test
+    void failedLoadIsRetriedOnNextGetTest() {
+        final AtomicInteger calls = new AtomicInteger(0);
+        final Function<Integer, String> func = (i) -> {
+            if (1 == calls.incrementAndGet()) {
+                throw new IllegalStateException("first call fails");
+            }
+            return String.valueOf(i);
+        };
+        final ConcurrentCache<Integer, String> cache = new ConcurrentCache<>(func);
+        assertThrows(IllegalStateException.class, () -> cache.get(1));
+        assertEquals(0, cache.size());
+        assertEquals("1", cache.get(1));
+        assertEquals(1, cache.size());
+        assertEquals(1, cache.getInitCounter());
+    }
+
+    @Test
+    void concurrentMissesShareSingleLoadTest() throws InterruptedException {
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger calls = new AtomicInteger(0);
+        final ConcurrentCache<Integer, String> cache = new ConcurrentCache<>(i -> {
+            calls.incrementAndGet();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return String.valueOf(i);
+        });
+
+        final Thread[] threads = new Thread[16];
+        for (int indx=0; indx < threads.length; ++indx) {
+            threads[indx] = new Thread(() -> assertEquals("7", cache.get(7)));
+            threads[indx].start();
+        }
+        Thread.sleep(50);
+        release.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(1, calls.get());
+        assertEquals(1, cache.getInitCounter());
+    }
+
+    @Test
+    void slowLoadDoesNotBlockOtherKeysTest() throws InterruptedException {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final ConcurrentCache<Integer, String> cache = new ConcurrentCache<>(i -> {
+            if (1 == i) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return String.valueOf(i);
+        });
+
+        final Thread slow = new Thread(() -> cache.get(1));
+        slow.start();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        for (int i=2; i < 1_000; ++i) {
+            assertEquals(String.valueOf(i), cache.get(i));
+        }
+        release.countDown();
+        slow.join();
+        assertEquals(999, cache.size());
+    }
+
+    @Test
+    void parallelRequestsTest() throws InterruptedException {
+        final int MAX_REQUEST = 10_000;
+        final int THREADS_COUNT = 64;
+        final ConcurrentCache<Integer, String> cache = new ConcurrentCache<>(Object::toString);
+
+        final Runnable runnable = () -> {
+            for (int x=0; x < MAX_REQUEST; ++x) {
+                cache.get(x);
+            }
+        };
+        final Thread[] threads = new Thread[THREADS_COUNT];
+        for (int indx=0; indx < threads.length; ++indx) {
+            threads[indx] = new Thread(runnable);
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(MAX_REQUEST, cache.size());
+        assertEquals(MAX_REQUEST, cache.getInitCounter());
+    }
+
+    private static Map<Integer, String> loadAll(Set<Integer> keys) {
+        final Map<Integer, String> values = new HashMap<>();
+        for (Integer key : keys) {
+            values.put(key, String.valueOf(key));
+        }
+        return values;
+    }
+
+    @Test
+    void getAllLoadsMissesInOneBatchTest() {
+        final List<Set<Integer>> batches = new CopyOnWriteArrayList<>();
+        final ConcurrentCache<Integer, String> cache = new ConcurrentCache<>(String::valueOf, keys -> {
+            batches.add(keys);
+            return loadAll(keys);
+        });
+        cache.get(2);
+        final Map<Integer, String> result = cache.getAll(Arrays.asList(5, 1, 2, 3, 1));
+        assertEquals(Arrays.asList(5, 1, 2, 3), List.copyOf(result.keySet()));
+        assertEquals("5", result.get(5));
+        assertEquals("2", result.get(2));
+        assertEquals(1, batches.size());
+        assertEquals(Set.of(1, 3, 5), batches.get(0));
+        assertEquals(4, cache.size());
+        assertEquals(4, cache.getInitCounter());
+
+        cache.getAll(Arrays.asList(1, 2, 3));
+        assertEquals(1, batches.size());
+    }
+
+    @Test
+    void getAllWithoutBatchLoaderUsesSrcFuncTest() {
+        final ConcurrentCache<Integer, String> cache = new ConcurrentCache<>(String::valueOf);
+        final Map<Integer, String> result = cache.getAll(Arrays.asList(1, 2, 3));
+        assertEquals(3, result.size());
+        assertEquals("3", result.get(3));
+        assertEquals(3, cache.getInitCounter());
+    }
+
+    @Test
+    void getAllFailsWhenBatchLoaderMissesKeyTest() {
+        final ConcurrentCache<Integer, String> cache = new ConcurrentCache<>(String::valueOf, keys -> Map.of(1, "1"));
+        assertThrows(NullPointerException.class, () -> cache.getAll(Arrays.asList(1, 2)));
+        assertEquals(0, cache.size());
+        assertEquals("2", cache.get(2));
+    }
+
+    @Test
+    void getAllWithNullKeyLeavesNoLoadBehindTest() throws Exception {
+        final ConcurrentCache<Integer, String> cache = new ConcurrentCache<>(String::valueOf, ConcurrentCacheTest::loadAll);
+        assertThrows(NullPointerException.class, () -> cache.getAll(Arrays.asList(1, null)));
+        assertEquals(0, cache.size());
+        final CompletableFuture<String> value = CompletableFuture.supplyAsync(() -> cache.get(1));
+        assertEquals("1", value.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void getAllReadsKeysOnceTest() {
+        final ConcurrentCache<Integer, String> cache = new ConcurrentCache<>(String::valueOf, ConcurrentCacheTest::loadAll);
+        final Iterator<Integer> iterator = Arrays.asList(3, 1, 2).iterator();
+        final Map<Integer, String> result = cache.getAll(() -> iterator);
+        assertEquals(Arrays.asList(3, 1, 2), List.copyOf(result.keySet()));
+        assertEquals("1", result.get(1));
+    }
+
+    @Test
+    void getAllWaitsForKeysLoadedByOtherThreadsTest() throws InterruptedException {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<Set<Integer>> batches = new CopyOnWriteArrayList<>();
+        final ConcurrentCache<Integer, String> cache = new ConcurrentCache<>(i -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return String.valueOf(i);
+        }, keys -> {
+            batches.add(keys);
+            return loadAll(keys);
+        });
+
+        final Thread loader = new Thread(() -> cache.get(1));
+        loader.start();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        final Thread releaser = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            release.countDown();
+        });
+        releaser.start();
+        final Map<Integer, String> result = cache.getAll(Arrays.asList(1, 2, 3));
+        loader.join();
+        releaser.join();
+        assertEquals("1", result.get(1));
+        assertEquals(1, batches.size());
+        assertEquals(Set.of(2, 3), batches.get(0));
+        assertEquals(3, cache.getInitCounter());
+    }
+
+    @Test
+    void constructorThrowsWhenBatchingParamsAreInvalidTest() {
+        assertThrows(IllegalArgumentException.class, () -> { new ConcurrentCache<Integer, String>(String::valueOf, ConcurrentCacheTest::loadAll, 0, 1); });
+        assertThrows(IllegalArgumentException.class, () -> { new ConcurrentCache<Integer, String>(String::valueOf, ConcurrentCacheTest::loadAll, 8, -1); });
+        assertThrows(NullPointerException.class, () -> { new ConcurrentCache<Integer, String>(String::valueOf, null, 8, 1); });
+    }
+
+    @Test
+    void microBatchingLoadsSingleMissAfterWindowTest() {
+        final List<Set<Integer>> batches = new CopyOnWriteArrayList<>();
+        final ConcurrentCache<Integer, String> cache = new ConcurrentCache<>(String::valueOf, keys -> {
+            batches.add(keys);
+            return loadAll(keys);
+        }, 64, 5);
+        assertEquals("1", cache.get(1));
+        assertEquals("1", cache.get(1));
+        assertEquals(1, batches.size());
+        assertEquals(Set.of(1), batches.get(0));
+    }
+
+    @Test
+    void microBatchingCollectsConcurrentMissesTest() throws InterruptedException {
+        final int THREADS_COUNT = 32;
+        final int MAX_BATCH_SIZE = 8;
+        final List<Set<Integer>> batches = new CopyOnWriteArrayList<>();
+        final ConcurrentCache<Integer, String> cache = new ConcurrentCache<>(String::valueOf, keys -> {
+            batches.add(keys);
+            return loadAll(keys);
+        }, MAX_BATCH_SIZE, 200);
+
+        final CountDownLatch start = new CountDownLatch(1);
+        final Thread[] threads = new Thread[THREADS_COUNT];
+        for (int indx=0; indx < threads.length; ++indx) {
+            final int key = indx % (THREADS_COUNT / 2);
+            threads[indx] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                assertEquals(String.valueOf(key), cache.get(key));
+            });
+            threads[indx].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        int loadedKeys = 0;
+        for (Set<Integer> batch : batches) {
+            assertTrue(batch.size() <= MAX_BATCH_SIZE);
+            loadedKeys += batch.size();
+        }
+        assertEquals(THREADS_COUNT / 2, loadedKeys);
+        assertTrue(batches.size() < THREADS_COUNT / 2);
+        assertEquals(THREADS_COUNT / 2, cache.getInitCounter());
+    }
+
+    @Test
+    void microBatchingFailureReachesEveryCallerTest() {
+        final ConcurrentCache<Integer, String> cache = new ConcurrentCache<>(String::valueOf, keys -> {
+            throw new IllegalStateException("backend down");
+        }, 4, 1);
+        assertThrows(IllegalStateException.class, () -> cache.get(1));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void microBatchingLoaderReadingItsOwnBatchFailsTest() throws InterruptedException {
+        final AtomicReference<ConcurrentCache<Integer, String>> cache = new AtomicReference<>();
+        cache.set(new ConcurrentCache<>(String::valueOf, keys -> {
+            final Map<Integer, String> values = new HashMap<>();
+            for (Integer key : keys) {
+                values.put(key, cache.get().get(key));
+            }
+            return values;
+        }, 4, 1));
+        final List<Throwable> failures = new CopyOnWriteArrayList<>();
+        final Thread thread = new Thread(() -> {
+            try {
+                cache.get().get(1);
+            } catch (RuntimeException e) {
+                failures.add(e);
+            }
+        });
+        thread.start();
+        thread.join(TimeUnit.SECONDS.toMillis(10));
+        assertFalse(thread.isAlive());
+        assertEquals(1, failures.size());
+        assertTrue(failures.get(0) instanceof IllegalStateException);
+        assertEquals(0, cache.get().size());
+    }
+
+    @Test
+    void recursiveLoadsMemoizeTest() {
+        final AtomicReference<ConcurrentCache<Integer, BigInteger>> fib = new AtomicReference<>();
+        fib.set(new ConcurrentCache<>(n -> n < 2 ? BigInteger.valueOf(n) : fib.get().get(n - 1).add(fib.get().get(n - 2))));
+        assertEquals(new BigInteger("354224848179261915075"), fib.get().get(100));
+        assertEquals(101, fib.get().getInitCounter());
+    }
+
+    @Test
+    void parallelRecursiveLoadsOnForkJoinPoolTest() {
+        final AtomicReference<ConcurrentCache<Integer, BigInteger>> fib = new AtomicReference<>();
+        fib.set(new ConcurrentCache<>(n -> n < 2 ? BigInteger.valueOf(n) : fib.get().get(n - 1).add(fib.get().get(n - 2))));
+        final ForkJoinPool pool = new ForkJoinPool(8);
+        try {
+            final List<BigInteger> values = pool.submit(() -> IntStream.range(0, 1_000).parallel()
+                    .mapToObj(n -> fib.get().get(n)).collect(Collectors.toList())).join();
+            for (int n=2; n < values.size(); ++n) {
+                assertEquals(values.get(n - 1).add(values.get(n - 2)), values.get(n));
+            }
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(1_000, fib.get().getInitCounter());
+    }
+
+    @Test
+    void selfDependentLoadFailsTest() {
+        final AtomicReference<ConcurrentCache<Integer, String>> cache = new AtomicReference<>();
+        cache.set(new ConcurrentCache<>(i -> 3 == i ? cache.get().get(1) : cache.get().get(i + 1)));
+        assertThrows(IllegalStateException.class, () -> cache.get().get(1));
+        assertEquals(0, cache.get().size());
+        assertThrows(IllegalStateException.class, () -> cache.get().get(1));
+    }
+
+    @Test
+    void crossThreadCycleFailsInsteadOfDeadlockingTest() throws InterruptedException {
+        final CountDownLatch bothLoading = new CountDownLatch(2);
+        final AtomicReference<ConcurrentCache<Integer, String>> cache = new AtomicReference<>();
+        cache.set(new ConcurrentCache<>(i -> {
+            bothLoading.countDown();
+            try {
+                bothLoading.await();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            return cache.get().get(1 - i);
+        }));
+        final List<Throwable> failures = new CopyOnWriteArrayList<>();
+        final Thread[] threads = new Thread[2];
+        for (int indx=0; indx < threads.length; ++indx) {
+            final int key = indx;
+            threads[indx] = new Thread(() -> {
+                try {
+                    cache.get().get(key);
+                } catch (RuntimeException e) {
+                    failures.add(e);
+                }
+            });
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+            assertFalse(thread.isAlive());
+        }
+        assertEquals(2, failures.size());
+        for (Throwable failure : failures) {
+            assertTrue(failure instanceof IllegalStateException);
+        }
+        assertEquals(0, cache.get().size());
+    }
+
+    @Test
+    void invalidateRemovesValueAndAdvancesEpochTest() {
+        final ConcurrentCache<Integer, String> cache = new ConcurrentCache<>(String::valueOf);
+        cache.get(1);
+        cache.get(2);
+        assertEquals(0, cache.getEpoch());
+        cache.invalidate(1);
+        assertEquals(1, cache.size());
+        assertEquals(1, cache.getEpoch());
+        assertEquals("1", cache.get(1));
+        assertEquals(3, cache.getInitCounter());
+        cache.invalidateAll();
+        assertEquals(0, cache.size());
+        assertEquals(2, cache.getEpoch());
+        assertThrows(NullPointerException.class, () -> cache.invalidate(null));
+    }
+}
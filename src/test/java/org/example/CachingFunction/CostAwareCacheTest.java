@@ -0,0 +1,157 @@
+package org.example.CachingFunction;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CostAwareCacheTest {
+
+    @Test
+    void constructorThrowsWhenParamsAreInvalidTest() {
+        assertThrows(NullPointerException.class, () -> { new CostAwareCache<Integer, String>(null, 10); });
+        assertThrows(NullPointerException.class, () -> { new CostAwareCache<Integer, String>(String::valueOf, null, 10); });
+        assertThrows(IllegalArgumentException.class, () -> { new CostAwareCache<Integer, String>(String::valueOf, 0); });
+    }
+
+    @Test
+    void throwsExceptionWhenFuncReturnsNullTest() {
+        final CostAwareCache<Integer, String> cache = new CostAwareCache<>(i -> null, 10);
+        assertThrows(NullPointerException.class, () -> cache.get(1));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void basicSizeAndValueTest() {
+        final CostAwareCache<Integer, String> cache = new CostAwareCache<>(String::valueOf, 100);
+        final int[] arr =  { 1, 3, 21, 5, 7, 8, 15, 2, 11, 21, 20,  2,  9, 21,  5, 17, 13,  6, 14, 16};
+        final int[] size = { 1, 2,  3, 4, 5, 6,  7, 8,  9,  9, 10, 10, 11, 11, 11, 12, 13, 14, 15, 16};
+        for (int i=0; i < arr.length; ++i) {
+            assertEquals(String.valueOf(arr[i]), cache.get(arr[i]));
+            assertEquals(size[i], cache.size());
+        }
+        assertEquals(16, cache.getInitCounter());
+    }
+
+    @Test
+    void weightNeverExceedsMaximumTest() {
+        final CostAwareCache<Integer, String> cache = new CostAwareCache<>(String::valueOf, (k, v) -> 1 + k % 7, 50);
+        final Random random = new Random(5);
+        for (int i=0; i < 10_000; ++i) {
+            final int key = random.nextInt(1_000);
+            assertEquals(String.valueOf(key), cache.get(key));
+            assertTrue(cache.getWeight() <= 50);
+        }
+        assertEquals(cache.snapshot().evictionCount(), cache.getInitCounter() - cache.size());
+    }
+
+    @Test
+    void valueHeavierThanBudgetIsNotCachedTest() {
+        final CostAwareCache<Integer, String> cache = new CostAwareCache<>(String::valueOf, (k, v) -> 11, 10);
+        assertEquals("1", cache.get(1));
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getWeight());
+    }
+
+    @Test
+    void expensiveEntriesSurviveCheapScanTest() {
+        final AtomicLong ticker = new AtomicLong();
+        final CostAwareCache<Integer, String> cache = new CostAwareCache<>(i -> {
+            ticker.addAndGet(i < 5 ? 1_000_000L : 10L);
+            return String.valueOf(i);
+        }, (k, v) -> 1, 20, ticker::get);
+        for (int i=0; i < 5; ++i) {
+            cache.get(i);
+        }
+        for (int i=5; i < 10_000; ++i) {
+            cache.get(i);
+        }
+        for (int i=0; i < 5; ++i) {
+            cache.get(i);
+        }
+        assertEquals(10_000, cache.getInitCounter());
+        assertEquals(20, cache.size());
+    }
+
+    @Test
+    void frequentEntriesSurviveTest() {
+        final AtomicLong ticker = new AtomicLong();
+        final CostAwareCache<Integer, String> cache = new CostAwareCache<>(i -> {
+            ticker.addAndGet(100L);
+            return String.valueOf(i);
+        }, (k, v) -> 1, 10, ticker::get);
+        for (int round=0; round < 20; ++round) {
+            cache.get(0);
+            cache.get(1);
+        }
+        for (int i=2; i < 100; ++i) {
+            cache.get(i);
+        }
+        final int loads = cache.getInitCounter();
+        cache.get(0);
+        cache.get(1);
+        assertEquals(loads, cache.getInitCounter());
+    }
+
+    @Test
+    void parallelRequestsTest() throws InterruptedException {
+        final CostAwareCache<Integer, String> cache = new CostAwareCache<>(String::valueOf, 100);
+        final Runnable runnable = () -> {
+            final Random random = new Random();
+            for (int x=0; x < 20_000; ++x) {
+                final int key = random.nextInt(500);
+                assertEquals(String.valueOf(key), cache.get(key));
+            }
+        };
+        final Thread[] threads = new Thread[16];
+        for (int indx=0; indx < threads.length; ++indx) {
+            threads[indx] = new Thread(runnable);
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue(cache.getWeight() <= 100);
+        assertTrue(cache.size() <= 100);
+    }
+
+    @Test
+    void evictionCompletesUnderConstantHitsTest() throws InterruptedException {
+        final CostAwareCache<Integer, String> cache = new CostAwareCache<>(String::valueOf, 100);
+        for (int i=0; i < 100; ++i) {
+            cache.get(i);
+        }
+        final AtomicBoolean loading = new AtomicBoolean(true);
+        final Runnable hits = () -> {
+            while (loading.get()) {
+                for (int i=0; i < 100; ++i) {
+                    cache.get(i);
+                }
+            }
+        };
+        final Thread[] hitters = new Thread[4];
+        for (int indx=0; indx < hitters.length; ++indx) {
+            hitters[indx] = new Thread(hits);
+            hitters[indx].start();
+        }
+        final Thread loader = new Thread(() -> {
+            for (int i=100; i < 10_000; ++i) {
+                cache.get(i);
+            }
+        });
+        loader.start();
+        loader.join(10_000);
+        final boolean finished = !loader.isAlive();
+        loading.set(false);
+        for (Thread hitter : hitters) {
+            hitter.join();
+        }
+        assertTrue(finished);
+        assertTrue(cache.getWeight() <= 100);
+    }
+}
@@ -0,0 +1,164 @@
+package org.example.CachingFunction;
+
+import org.example.DeadlineEngine.DeadlineEngine;
+import org.example.DeadlineEngine.SynchronizedDeadlineEngine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExpiringCacheTest {
+
+    private AtomicLong now;
+    private SynchronizedDeadlineEngine engine;
+
+    @BeforeEach
+    void setup() {
+        now = new AtomicLong(1_000L);
+        engine = new SynchronizedDeadlineEngine();
+    }
+
+    private ExpiringCache<Integer, String> newCache(long expireAfterWriteMs, long expireAfterAccessMs) {
+        return new ExpiringCache<>(i -> i + "@" + now.get(), expireAfterWriteMs, expireAfterAccessMs, engine, now::get);
+    }
+
+    @Test
+    void constructorThrowsWhenParamsAreInvalidTest() {
+        assertThrows(NullPointerException.class, () -> { new ExpiringCache<Integer, String>(null, 10, 0); });
+        assertThrows(IllegalArgumentException.class, () -> { new ExpiringCache<Integer, String>(String::valueOf, 0, 0); });
+        assertThrows(IllegalArgumentException.class, () -> { new ExpiringCache<Integer, String>(String::valueOf, -1, 10); });
+    }
+
+    @Test
+    void valueExpiresAfterWriteTest() {
+        final ExpiringCache<Integer, String> cache = newCache(100, 0);
+        assertEquals("1@1000", cache.get(1));
+        now.set(1_099L);
+        assertEquals("1@1000", cache.get(1));
+        now.set(1_100L);
+        assertEquals("1@1100", cache.get(1));
+        assertEquals(2, cache.getInitCounter());
+    }
+
+    @Test
+    void readsExtendTimeToIdleTest() {
+        final ExpiringCache<Integer, String> cache = newCache(0, 100);
+        assertEquals("1@1000", cache.get(1));
+        for (long t = 1_050L; t <= 1_500L; t += 50L) {
+            now.set(t);
+            assertEquals("1@1000", cache.get(1));
+            cache.cleanUp();
+            assertEquals(1, cache.size());
+        }
+        now.set(1_600L);
+        cache.cleanUp();
+        assertEquals(0, cache.size());
+        assertEquals(1, cache.getInitCounter());
+    }
+
+    @Test
+    void timeToLiveWinsOverReadsTest() {
+        final ExpiringCache<Integer, String> cache = newCache(200, 100);
+        cache.get(1);
+        for (long t = 1_050L; t < 1_200L; t += 50L) {
+            now.set(t);
+            assertEquals("1@1000", cache.get(1));
+        }
+        now.set(1_200L);
+        assertEquals("1@1200", cache.get(1));
+    }
+
+    @Test
+    void expiredEntriesAreReclaimedInBatchesTest() {
+        final ExpiringCache<Integer, String> cache = newCache(100, 0);
+        for (int i=0; i < 200; ++i) {
+            cache.get(i);
+        }
+        assertEquals(200, cache.size());
+        assertEquals(200, engine.size());
+
+        now.set(1_100L);
+        cache.cleanUp();
+        assertEquals(200 - 64, cache.size());
+        cache.cleanUp();
+        cache.cleanUp();
+        cache.cleanUp();
+        assertEquals(0, cache.size());
+        assertEquals(0, engine.size());
+    }
+
+    @Test
+    void deadlinePolledWhileBeingScheduledIsNotLostTest() throws InterruptedException {
+        final AtomicReference<ExpiringCache<Integer, String>> cache = new AtomicReference<>();
+        // Runs a cleanUp() from another thread, past the deadline, right after each deadline is scheduled.
+        final DeadlineEngine racingEngine = new DeadlineEngine() {
+            @Override
+            public long schedule(long deadlineMs) {
+                final long id = engine.schedule(deadlineMs);
+                now.set(deadlineMs);
+                final Thread cleaner = new Thread(() -> cache.get().cleanUp());
+                cleaner.start();
+                try {
+                    cleaner.join();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                return id;
+            }
+
+            @Override
+            public boolean cancel(long requestId) {
+                return engine.cancel(requestId);
+            }
+
+            @Override
+            public int poll(long nowMs, Consumer<Long> handler, int maxPoll) {
+                return engine.poll(nowMs, handler, maxPoll);
+            }
+
+            @Override
+            public int size() {
+                return engine.size();
+            }
+        };
+        cache.set(new ExpiringCache<>(i -> i + "@" + now.get(), 100, 0, racingEngine, now::get));
+        assertEquals("1@1000", cache.get().get(1));
+        assertEquals(1, cache.get().size());
+        cache.get().cleanUp();
+        assertEquals(0, cache.get().size());
+        assertEquals(0, engine.size());
+    }
+
+    @Test
+    void loadsReclaimExpiredEntriesTest() {
+        final ExpiringCache<Integer, String> cache = newCache(100, 0);
+        for (int i=0; i < 10; ++i) {
+            cache.get(i);
+        }
+        now.set(2_000L);
+        cache.get(100);
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void snapshotCountsExpiredEntriesAsEvictionsTest() {
+        final ExpiringCache<Integer, String> cache = newCache(100, 0);
+        for (int i=0; i < 10; ++i) {
+            cache.get(i);
+        }
+        cache.get(0);
+        now.set(1_100L);
+        cache.get(0);
+        cache.cleanUp();
+        final CacheStats stats = cache.snapshot();
+        assertEquals(1, stats.hitCount());
+        assertEquals(11, stats.missCount());
+        assertEquals(11, stats.loadSuccessCount());
+        assertEquals(10, stats.evictionCount());
+        assertEquals(1, stats.size());
+    }
+}
@@ -0,0 +1,101 @@
+package org.example.CachingFunction;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FrontCacheTest {
+
+    @Test
+    void constructorThrowsWhenParamsAreInvalidTest() {
+        final ConcurrentCache<Integer, String> backing = new ConcurrentCache<>(String::valueOf);
+        assertThrows(NullPointerException.class, () -> { new FrontCache<Integer, String>(null); });
+        assertThrows(IllegalArgumentException.class, () -> { new FrontCache<>(backing, 100, 8); });
+        assertThrows(IllegalArgumentException.class, () -> { new FrontCache<>(backing, 64, 0); });
+    }
+
+    @Test
+    void basicSizeAndValueTest() {
+        final FrontCache<Integer, String> cache = new FrontCache<>(new ConcurrentCache<>(String::valueOf));
+        final int[] arr =  { 1, 3, 21, 5, 7, 8, 15, 2, 11, 21, 20,  2,  9, 21,  5, 17, 13,  6, 14, 16};
+        final int[] size = { 1, 2,  3, 4, 5, 6,  7, 8,  9,  9, 10, 10, 11, 11, 11, 12, 13, 14, 15, 16};
+        for (int i=0; i < arr.length; ++i) {
+            assertEquals(String.valueOf(arr[i]), cache.get(arr[i]));
+            assertEquals(size[i], cache.size());
+        }
+    }
+
+    @Test
+    void hotKeyIsPromotedTest() {
+        final ConcurrentCache<Integer, String> backing = new ConcurrentCache<>(String::valueOf);
+        final FrontCache<Integer, String> cache = new FrontCache<>(backing, 64, 4);
+        for (int i=0; i < 4; ++i) {
+            assertEquals("1", cache.get(1));
+        }
+        assertEquals(1, cache.frontSize());
+        final long backingReads = backing.snapshot().hitCount() + backing.snapshot().missCount();
+        for (int i=0; i < 1_000; ++i) {
+            assertEquals("1", cache.get(1));
+        }
+        assertEquals(backingReads, backing.snapshot().hitCount() + backing.snapshot().missCount());
+    }
+
+    @Test
+    void interleavedKeysOfSameSlotAreNotPromotedTest() {
+        final FrontCache<Integer, String> cache = new FrontCache<>(new ConcurrentCache<>(String::valueOf), 1, 2);
+        for (int i=0; i < 100; ++i) {
+            cache.get(i % 2);
+        }
+        assertEquals(0, cache.frontSize());
+        cache.get(5);
+        cache.get(5);
+        assertEquals(1, cache.frontSize());
+    }
+
+    @Test
+    void invalidationReachesFrontCachesTest() throws InterruptedException {
+        final AtomicInteger version = new AtomicInteger(0);
+        final ConcurrentCache<Integer, String> backing = new ConcurrentCache<>(i -> i + "v" + version.get());
+        final FrontCache<Integer, String> cache = new FrontCache<>(backing, 64, 1);
+        assertEquals("1v0", cache.get(1));
+        assertEquals(1, cache.frontSize());
+
+        version.set(1);
+        backing.invalidate(1);
+        assertEquals(0, cache.frontSize());
+        assertEquals("1v1", cache.get(1));
+
+        final Thread other = new Thread(() -> assertEquals("1v1", cache.get(1)));
+        other.start();
+        other.join();
+        version.set(2);
+        backing.invalidateAll();
+        assertEquals(0, backing.size());
+        assertEquals("1v2", cache.get(1));
+    }
+
+    @Test
+    void parallelRequestsTest() throws InterruptedException {
+        final ConcurrentCache<Integer, String> backing = new ConcurrentCache<>(String::valueOf);
+        final FrontCache<Integer, String> cache = new FrontCache<>(backing);
+        final Runnable runnable = () -> {
+            for (int x=0; x < 100_000; ++x) {
+                final int key = 0 == x % 10 ? x : x % 4;
+                assertEquals(String.valueOf(key), cache.get(key));
+            }
+        };
+        final Thread[] threads = new Thread[16];
+        for (int indx=0; indx < threads.length; ++indx) {
+            threads[indx] = new Thread(runnable);
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(backing.size(), backing.getInitCounter());
+    }
+}
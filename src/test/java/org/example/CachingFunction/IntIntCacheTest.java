@@ -0,0 +1,68 @@
+package org.example.CachingFunction;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntIntCacheTest {
+
+    @Test
+    void constructorThrowsWhenFuncIsNullTest() {
+        assertThrows(NullPointerException.class, () -> { new IntIntCache(null); });
+    }
+
+    @Test
+    void basicSizeAndValueTest() {
+        final IntIntCache cache = new IntIntCache(i -> -i);
+        final int[] keys = { 0, -1, Integer.MIN_VALUE, Integer.MAX_VALUE, 42, 0, 42 };
+        final int[] size = { 1, 2, 3, 4, 5, 5, 5 };
+        for (int i=0; i < keys.length; ++i) {
+            assertEquals(-keys[i], cache.get(keys[i]));
+            assertEquals(size[i], cache.size());
+        }
+        assertEquals(5, cache.getInitCounter());
+    }
+
+    @Test
+    void growsBeyondInitialCapacityTest() {
+        final IntIntCache cache = new IntIntCache(i -> -i);
+        final int N = 100_000;
+        for (int i=0; i < N; ++i) {
+            assertEquals(-i * 1_003, cache.get(i * 1_003));
+        }
+        for (int i=0; i < N; ++i) {
+            assertEquals(-i * 1_003, cache.get(i * 1_003));
+        }
+        assertEquals(N, cache.size());
+        assertEquals(N, cache.getInitCounter());
+    }
+
+    @Test
+    void parallelRequestsTest() throws InterruptedException {
+        final int MAX_REQUEST = 20_000;
+        final AtomicInteger calls = new AtomicInteger(0);
+        final IntIntCache cache = new IntIntCache(i -> {
+            calls.incrementAndGet();
+            return i + 1;
+        });
+        final Runnable runnable = () -> {
+            for (int x=0; x < MAX_REQUEST; ++x) {
+                assertEquals(x + 1, cache.get(x));
+            }
+        };
+        final Thread[] threads = new Thread[32];
+        for (int indx=0; indx < threads.length; ++indx) {
+            threads[indx] = new Thread(runnable);
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(MAX_REQUEST, cache.size());
+        assertEquals(MAX_REQUEST, calls.get());
+    }
+}
@@ -0,0 +1,197 @@
+package org.example.CachingFunction;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LimitedCacheTest {
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Test
+    void constructorThrowsWhenParamsAreInvalidTest() {
+        final LoadLimiter limiter = new LoadLimiter(1, 1, 10);
+        assertThrows(NullPointerException.class, () -> { new LimitedCache<Integer, String>(null, limiter); });
+        assertThrows(NullPointerException.class, () -> { new LimitedCache<Integer, String>(String::valueOf, null); });
+        assertThrows(IllegalArgumentException.class, () -> { new LimitedCache<Integer, String>(String::valueOf, limiter, -1); });
+        assertThrows(NullPointerException.class, () -> { new LimitedCache<Integer, String>(String::valueOf, limiter, 1, 1, null, System::currentTimeMillis); });
+        assertThrows(IllegalArgumentException.class, () -> { new LimitedCache<Integer, String>(String::valueOf, limiter, 1, 0, Runnable::run, System::currentTimeMillis); });
+    }
+
+    @Test
+    void basicSizeAndValueTest() {
+        final LimitedCache<Integer, String> cache = new LimitedCache<>(String::valueOf, new LoadLimiter(1, 0, 0));
+        final int[] arr =  { 1, 3, 21, 5, 7, 8, 15, 2, 11, 21, 20,  2,  9, 21,  5, 17, 13,  6, 14, 16};
+        final int[] size = { 1, 2,  3, 4, 5, 6,  7, 8,  9,  9, 10, 10, 11, 11, 11, 12, 13, 14, 15, 16};
+        for (int i=0; i < arr.length; ++i) {
+            assertEquals(String.valueOf(arr[i]), cache.get(arr[i]));
+            assertEquals(size[i], cache.size());
+        }
+        assertEquals(16, cache.getInitCounter());
+    }
+
+    @Test
+    void expiredEntryIsReloadedTest() {
+        final AtomicLong now = new AtomicLong(1_000L);
+        final LimitedCache<Integer, String> cache = new LimitedCache<>(i -> i + "@" + now.get(), new LoadLimiter(1, 0, 0), 100, 1_000, Runnable::run, now::get);
+        assertEquals("1@1000", cache.get(1));
+        now.set(1_099L);
+        assertEquals("1@1000", cache.get(1));
+        now.set(1_100L);
+        assertEquals("1@1100", cache.get(1));
+        assertEquals(2, cache.getInitCounter());
+    }
+
+    @Test
+    void snapshotCountsExpiredReadsAsMissesTest() {
+        final AtomicLong now = new AtomicLong(1_000L);
+        final LimitedCache<Integer, String> cache = new LimitedCache<>(i -> i < 0 ? null : i + "@" + now.get(), new LoadLimiter(1, 0, 0), 100, 1_000, Runnable::run, now::get);
+        cache.get(1);
+        cache.get(1);
+        now.set(1_100L);
+        cache.get(1);
+        assertThrows(NullPointerException.class, () -> cache.get(-1));
+        final CacheStats stats = cache.snapshot();
+        assertEquals(1, stats.hitCount());
+        assertEquals(3, stats.missCount());
+        assertEquals(2, stats.loadSuccessCount());
+        assertEquals(1, stats.loadFailureCount());
+        assertEquals(1, stats.size());
+    }
+
+    @Test
+    void rejectedLoadReturnsStaleValueOrFailsFastTest() throws InterruptedException {
+        final AtomicLong now = new AtomicLong(1_000L);
+        final LoadLimiter limiter = new LoadLimiter(1, 0, 0);
+        final CountDownLatch running = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final LimitedCache<Integer, String> cache = new LimitedCache<>(i -> {
+            if (0 == i) {
+                running.countDown();
+                await(release);
+            }
+            return i + "@" + now.get();
+        }, limiter, 100, 1_000, Runnable::run, now::get);
+        assertEquals("1@1000", cache.get(1));
+        now.set(2_000L);
+
+        // Key 0 takes the only permit.
+        final Thread holder = new Thread(() -> cache.get(0));
+        holder.start();
+        running.await();
+
+        assertEquals("1@1000", cache.get(1));
+        assertThrows(RejectedExecutionException.class, () -> cache.get(2));
+        assertEquals(2, limiter.getRejectedLoads());
+
+        release.countDown();
+        holder.join();
+        assertEquals("1@2000", cache.get(1));
+        assertEquals("2@2000", cache.get(2));
+    }
+
+    @Test
+    void slowReloadReturnsStaleValueTest() throws InterruptedException {
+        final AtomicLong now = new AtomicLong(1_000L);
+        final CountDownLatch release = new CountDownLatch(1);
+        final LimitedCache<Integer, String> cache = new LimitedCache<>(i -> {
+            if (now.get() >= 2_000L) {
+                await(release);
+            }
+            return i + "@" + now.get();
+        }, new LoadLimiter(1, 0, 20), 100, 20, ConcurrentAsyncCache.defaultExecutor(), now::get);
+        assertEquals("1@1000", cache.get(1));
+        now.set(2_000L);
+
+        // The reload blocks until released, the caller gets the stale value after the timeouts.
+        assertEquals("1@1000", cache.get(1));
+        assertEquals(1, cache.getInitCounter());
+
+        release.countDown();
+        while (2 != cache.getInitCounter()) {
+            Thread.sleep(1);
+        }
+        assertEquals("1@2000", cache.get(1));
+    }
+
+    @Test
+    void missOnHungBackendFailsFastTest() throws InterruptedException {
+        final CountDownLatch release = new CountDownLatch(1);
+        final LimitedCache<Integer, String> cache = new LimitedCache<>(i -> {
+            await(release);
+            return String.valueOf(i);
+        }, new LoadLimiter(1, 0, 20), 0, 20, ConcurrentAsyncCache.defaultExecutor(), System::currentTimeMillis);
+        final long start = System.nanoTime();
+        assertThrows(RejectedExecutionException.class, () -> cache.get(1));
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+        assertEquals(0, cache.size());
+
+        // The load keeps running and caches its value when the backend answers.
+        release.countDown();
+        while (1 != cache.getInitCounter()) {
+            Thread.sleep(1);
+        }
+        assertEquals("1", cache.get(1));
+    }
+
+    @Test
+    void waitersTimeOutOnSlowLoadTest() throws InterruptedException {
+        final CountDownLatch running = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final LimitedCache<Integer, String> cache = new LimitedCache<>(i -> {
+            running.countDown();
+            await(release);
+            return String.valueOf(i);
+        }, new LoadLimiter(1, 0, 20), 0, 20, ConcurrentAsyncCache.defaultExecutor(), System::currentTimeMillis);
+        final Thread owner = new Thread(() -> assertThrows(RejectedExecutionException.class, () -> cache.get(1)));
+        owner.start();
+        running.await();
+        assertThrows(RejectedExecutionException.class, () -> cache.get(1));
+
+        release.countDown();
+        owner.join();
+        assertEquals("1", cache.get(1));
+        assertEquals(1, cache.getInitCounter());
+    }
+
+    @Test
+    void parallelLoadsAreLimitedTest() throws InterruptedException {
+        final AtomicInteger running = new AtomicInteger(0);
+        final AtomicInteger maxRunning = new AtomicInteger(0);
+        final LimitedCache<Integer, String> cache = new LimitedCache<>(i -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.yield();
+            running.decrementAndGet();
+            return String.valueOf(i);
+        }, new LoadLimiter(4, 64, 10_000));
+        final Runnable runnable = () -> {
+            for (int i=0; i < 1_000; ++i) {
+                assertEquals(String.valueOf(i), cache.get(i));
+            }
+        };
+        final Thread[] threads = new Thread[16];
+        for (int indx=0; indx < threads.length; ++indx) {
+            threads[indx] = new Thread(runnable);
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue(maxRunning.get() <= 4);
+        assertEquals(1_000, cache.getInitCounter());
+    }
+}
@@ -0,0 +1,127 @@
+package org.example.CachingFunction;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoadLimiterTest {
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Test
+    void constructorThrowsWhenParamsAreInvalidTest() {
+        assertThrows(IllegalArgumentException.class, () -> { new LoadLimiter(0, 1, 10); });
+        assertThrows(IllegalArgumentException.class, () -> { new LoadLimiter(1, -1, 10); });
+        assertThrows(IllegalArgumentException.class, () -> { new LoadLimiter(1, 1, -10); });
+    }
+
+    @Test
+    void executeReturnsResultAndReleasesPermitTest() {
+        final LoadLimiter limiter = new LoadLimiter(1, 0, 0);
+        assertEquals("a", limiter.execute(() -> "a"));
+        assertEquals("b", limiter.execute(() -> "b"));
+        assertThrows(IllegalStateException.class, () -> limiter.execute(() -> { throw new IllegalStateException(); }));
+        assertEquals("c", limiter.execute(() -> "c"));
+        assertEquals(0, limiter.getActiveLoads());
+        assertEquals(0, limiter.getRejectedLoads());
+    }
+
+    @Test
+    void fullQueueAndTimeoutAreRejectedTest() throws InterruptedException {
+        final LoadLimiter limiter = new LoadLimiter(1, 1, 50);
+        final CountDownLatch running = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final Thread holder = new Thread(() -> limiter.execute(() -> {
+            running.countDown();
+            await(release);
+            return null;
+        }));
+        holder.start();
+        running.await();
+        assertEquals(1, limiter.getActiveLoads());
+
+        // Waits in the queue and times out.
+        final Thread queued = new Thread(() -> assertThrows(RejectedExecutionException.class, () -> limiter.execute(() -> "queued")));
+        queued.start();
+        while (0 == limiter.getQueuedLoads() && queued.isAlive()) {
+            Thread.onSpinWait();
+        }
+        // The queue is full.
+        assertThrows(RejectedExecutionException.class, () -> limiter.execute(() -> "rejected"));
+        queued.join();
+        assertEquals(0, limiter.getQueuedLoads());
+        assertEquals(2, limiter.getRejectedLoads());
+
+        release.countDown();
+        holder.join();
+        assertEquals(0, limiter.getActiveLoads());
+    }
+
+    @Test
+    void newLoadDoesNotBargePastQueuedLoadTest() throws InterruptedException {
+        final LoadLimiter limiter = new LoadLimiter(1, 2, 10_000);
+        final List<String> order = new CopyOnWriteArrayList<>();
+        final CountDownLatch running = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final Thread holder = new Thread(() -> limiter.execute(() -> {
+            running.countDown();
+            await(release);
+            return null;
+        }));
+        holder.start();
+        running.await();
+
+        final Thread queued = new Thread(() -> limiter.execute(() -> order.add("queued")));
+        queued.start();
+        while (Thread.State.TIMED_WAITING != queued.getState()) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+        holder.join();
+        // The permit released by the holder is free, but the queued load is first in line for it.
+        limiter.execute(() -> order.add("new"));
+        queued.join();
+        assertEquals(List.of("queued", "new"), order);
+        assertEquals(0, limiter.getRejectedLoads());
+    }
+
+    @Test
+    void concurrentLoadsNeverExceedLimitTest() throws InterruptedException {
+        final LoadLimiter limiter = new LoadLimiter(3, 100, 10_000);
+        final AtomicInteger running = new AtomicInteger(0);
+        final AtomicInteger maxRunning = new AtomicInteger(0);
+        final Runnable runnable = () -> {
+            for (int x=0; x < 100; ++x) {
+                limiter.execute(() -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    Thread.yield();
+                    return running.decrementAndGet();
+                });
+            }
+        };
+        final Thread[] threads = new Thread[16];
+        for (int indx=0; indx < threads.length; ++indx) {
+            threads[indx] = new Thread(runnable);
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue(maxRunning.get() <= 3);
+        assertEquals(0, limiter.getRejectedLoads());
+    }
+}
@@ -0,0 +1,75 @@
+package org.example.CachingFunction;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongObjectCacheTest {
+
+    @Test
+    void constructorThrowsWhenFuncIsNullTest() {
+        assertThrows(NullPointerException.class, () -> { new LongObjectCache<String>(null); });
+    }
+
+    @Test
+    void throwsExceptionWhenFuncReturnsNullTest() {
+        final LongObjectCache<String> cache = new LongObjectCache<>(i -> null);
+        assertThrows(NullPointerException.class, () -> cache.get(1L));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void basicSizeAndValueTest() {
+        final LongObjectCache<String> cache = new LongObjectCache<>(String::valueOf);
+        final long[] keys = { 0L, -1L, Long.MIN_VALUE, Long.MAX_VALUE, 42L, 0L, 42L };
+        final int[] size = { 1, 2, 3, 4, 5, 5, 5 };
+        for (int i=0; i < keys.length; ++i) {
+            assertEquals(String.valueOf(keys[i]), cache.get(keys[i]));
+            assertEquals(size[i], cache.size());
+        }
+        assertEquals(5, cache.getInitCounter());
+    }
+
+    @Test
+    void growsBeyondInitialCapacityTest() {
+        final LongObjectCache<String> cache = new LongObjectCache<>(String::valueOf);
+        final int N = 100_000;
+        for (long i=0; i < N; ++i) {
+            assertEquals(String.valueOf(i * 1_000_003L), cache.get(i * 1_000_003L));
+        }
+        for (long i=0; i < N; ++i) {
+            assertEquals(String.valueOf(i * 1_000_003L), cache.get(i * 1_000_003L));
+        }
+        assertEquals(N, cache.size());
+        assertEquals(N, cache.getInitCounter());
+    }
+
+    @Test
+    void parallelRequestsTest() throws InterruptedException {
+        final int MAX_REQUEST = 20_000;
+        final AtomicInteger calls = new AtomicInteger(0);
+        final LongObjectCache<String> cache = new LongObjectCache<>(i -> {
+            calls.incrementAndGet();
+            return String.valueOf(i);
+        });
+        final Runnable runnable = () -> {
+            for (long x=0; x < MAX_REQUEST; ++x) {
+                assertEquals(String.valueOf(x), cache.get(x));
+            }
+        };
+        final Thread[] threads = new Thread[32];
+        for (int indx=0; indx < threads.length; ++indx) {
+            threads[indx] = new Thread(runnable);
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(MAX_REQUEST, cache.size());
+        assertEquals(MAX_REQUEST, calls.get());
+    }
+}
@@ -0,0 +1,129 @@
+package org.example.CachingFunction;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapCacheTest {
+
+    private static final Serializer<String> STRING_SERIALIZER = new Serializer<>() {
+        @Override
+        public byte[] serialize(String object) {
+            return object.getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public String deserialize(ByteBuffer buffer) {
+            return StandardCharsets.UTF_8.decode(buffer).toString();
+        }
+    };
+
+    private static String repeat(int key, int length) {
+        return String.valueOf(key % 10).repeat(length);
+    }
+
+    @Test
+    void constructorThrowsWhenParamsAreInvalidTest() {
+        assertThrows(NullPointerException.class, () -> { new OffHeapCache<Integer, String>(null, STRING_SERIALIZER, 1 << 20); });
+        assertThrows(NullPointerException.class, () -> { new OffHeapCache<Integer, String>(String::valueOf, null, 1 << 20); });
+        assertThrows(IllegalArgumentException.class, () -> { new OffHeapCache<Integer, String>(String::valueOf, STRING_SERIALIZER, 1 << 20, 1000); });
+        assertThrows(IllegalArgumentException.class, () -> { new OffHeapCache<Integer, String>(String::valueOf, STRING_SERIALIZER, 1 << 10, 1 << 20); });
+    }
+
+    @Test
+    void basicSizeAndValueTest() {
+        final OffHeapCache<Integer, String> cache = new OffHeapCache<>(String::valueOf, STRING_SERIALIZER, 1 << 20);
+        final int[] arr =  { 1, 3, 21, 5, 7, 8, 15, 2, 11, 21, 20,  2,  9, 21,  5, 17, 13,  6, 14, 16};
+        final int[] size = { 1, 2,  3, 4, 5, 6,  7, 8,  9,  9, 10, 10, 11, 11, 11, 12, 13, 14, 15, 16};
+        for (int i=0; i < arr.length; ++i) {
+            assertEquals(String.valueOf(arr[i]), cache.get(arr[i]));
+            assertEquals(size[i], cache.size());
+        }
+        assertEquals(16, cache.getInitCounter());
+        assertEquals(1 << 20, cache.getOffHeapBytes());
+    }
+
+    @Test
+    void snapshotCountsHitsMissesAndEvictionsTest() {
+        final OffHeapCache<Integer, String> cache = new OffHeapCache<>(i -> repeat(i, 100), STRING_SERIALIZER, 4096, 4096);
+        for (int i=0; i < 100; ++i) {
+            cache.get(i);
+        }
+        cache.get(99);
+        final CacheStats stats = cache.snapshot();
+        assertEquals(1, stats.hitCount());
+        assertEquals(100, stats.missCount());
+        assertEquals(100, stats.loadSuccessCount());
+        assertTrue(stats.evictionCount() > 0);
+        assertEquals(100 - cache.size(), stats.evictionCount());
+        assertEquals(cache.size(), stats.size());
+    }
+
+    @Test
+    void offHeapMemoryStaysWithinLimitTest() {
+        final int slabSize = 4096;
+        final long limit = 16L * slabSize;
+        final OffHeapCache<Integer, String> cache = new OffHeapCache<>(i -> repeat(i, 100 + i % 300), STRING_SERIALIZER, limit, slabSize);
+        final Random random = new Random(3);
+        for (int i=0; i < 20_000; ++i) {
+            final int key = random.nextInt(5_000);
+            assertEquals(repeat(key, 100 + key % 300), cache.get(key));
+            assertTrue(cache.getOffHeapBytes() <= limit);
+        }
+        assertTrue(cache.size() > 0);
+        assertTrue(cache.getInitCounter() > 5_000);
+    }
+
+    @Test
+    void evictedChunksAreReusedTest() {
+        final int slabSize = 1024;
+        final OffHeapCache<Integer, String> cache = new OffHeapCache<>(i -> repeat(i, 200), STRING_SERIALIZER, slabSize, slabSize);
+        for (int i=0; i < 4; ++i) {
+            cache.get(i);
+        }
+        assertEquals(4, cache.size());
+        cache.get(4);
+        assertEquals(4, cache.size());
+        assertEquals(slabSize, cache.getOffHeapBytes());
+        assertEquals(5, cache.getInitCounter());
+        // Oldest entry was evicted, the others are still cached.
+        cache.get(1);
+        assertEquals(5, cache.getInitCounter());
+        cache.get(0);
+        assertEquals(6, cache.getInitCounter());
+    }
+
+    @Test
+    void valueLargerThanSlabIsNotCachedTest() {
+        final OffHeapCache<Integer, String> cache = new OffHeapCache<>(i -> repeat(i, 2_000), STRING_SERIALIZER, 4096, 1024);
+        assertEquals(repeat(1, 2_000), cache.get(1));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void parallelRequestsTest() throws InterruptedException {
+        final OffHeapCache<Integer, String> cache = new OffHeapCache<>(i -> repeat(i, 50 + i % 500), STRING_SERIALIZER, 64 * 1024, 4096);
+        final Runnable runnable = () -> {
+            final Random random = new Random();
+            for (int x=0; x < 20_000; ++x) {
+                final int key = random.nextInt(2_000);
+                assertEquals(repeat(key, 50 + key % 500), cache.get(key));
+            }
+        };
+        final Thread[] threads = new Thread[16];
+        for (int indx=0; indx < threads.length; ++indx) {
+            threads[indx] = new Thread(runnable);
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue(cache.getOffHeapBytes() <= 64 * 1024);
+    }
+}
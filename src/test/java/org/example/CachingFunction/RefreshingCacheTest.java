@@ -0,0 +1,113 @@
+package org.example.CachingFunction;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RefreshingCacheTest {
+
+    private AtomicLong now;
+    private List<Runnable> tasks;
+    private AtomicBoolean failing;
+    private RefreshingCache<Integer, String> cache;
+
+    @BeforeEach
+    void setup() {
+        now = new AtomicLong(1_000L);
+        tasks = new ArrayList<>();
+        failing = new AtomicBoolean(false);
+        cache = new RefreshingCache<>(i -> {
+            if (failing.get()) {
+                throw new IllegalStateException("backend down");
+            }
+            return i + "@" + now.get();
+        }, 100, tasks::add, now::get);
+    }
+
+    private void runTasks() {
+        final List<Runnable> pending = new ArrayList<>(tasks);
+        tasks.clear();
+        pending.forEach(Runnable::run);
+    }
+
+    @Test
+    void constructorThrowsWhenParamsAreInvalidTest() {
+        assertThrows(NullPointerException.class, () -> { new RefreshingCache<Integer, String>(null, 100); });
+        assertThrows(IllegalArgumentException.class, () -> { new RefreshingCache<Integer, String>(String::valueOf, 0); });
+    }
+
+    @Test
+    void staleValueIsReturnedWhileRefreshingTest() {
+        assertEquals("1@1000", cache.get(1));
+        now.set(1_099L);
+        assertEquals("1@1000", cache.get(1));
+        assertEquals(0, tasks.size());
+
+        now.set(1_100L);
+        assertEquals("1@1000", cache.get(1));
+        assertEquals("1@1000", cache.get(1));
+        assertEquals(1, tasks.size());
+
+        runTasks();
+        assertEquals("1@1100", cache.get(1));
+        assertEquals(0, tasks.size());
+        assertEquals(2, cache.getInitCounter());
+    }
+
+    @Test
+    void failedRefreshKeepsStaleValueAndBacksOffTest() {
+        cache.get(1);
+        failing.set(true);
+        now.set(1_200L);
+        assertEquals("1@1000", cache.get(1));
+        runTasks();
+        assertEquals("1@1000", cache.get(1));
+        assertEquals(0, tasks.size());
+
+        now.set(1_299L);
+        cache.get(1);
+        assertEquals(0, tasks.size());
+        now.set(1_300L);
+        cache.get(1);
+        assertEquals(1, tasks.size());
+        runTasks();
+
+        // The second failure doubles the backoff.
+        now.set(1_499L);
+        cache.get(1);
+        assertEquals(0, tasks.size());
+        failing.set(false);
+        now.set(1_500L);
+        assertEquals("1@1000", cache.get(1));
+        runTasks();
+        assertEquals("1@1500", cache.get(1));
+    }
+
+    @Test
+    void firstLoadFailureIsThrownTest() {
+        failing.set(true);
+        assertThrows(IllegalStateException.class, () -> cache.get(1));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void snapshotCountsBackgroundReloadsTest() {
+        cache.get(1);
+        now.set(1_100L);
+        cache.get(1);
+        failing.set(true);
+        runTasks();
+        final CacheStats stats = cache.snapshot();
+        assertEquals(1, stats.hitCount());
+        assertEquals(1, stats.missCount());
+        assertEquals(1, stats.loadSuccessCount());
+        assertEquals(1, stats.loadFailureCount());
+        assertEquals(1, stats.size());
+    }
+}
@@ -0,0 +1,121 @@
+package org.example.CachingFunction;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotCacheTest {
+
+    @Test
+    void constructorThrowsWhenParamsAreInvalidTest() {
+        assertThrows(NullPointerException.class, () -> { new SnapshotCache<Integer, String>(null); });
+        assertThrows(IllegalArgumentException.class, () -> { new SnapshotCache<Integer, String>(String::valueOf, 0, 10); });
+        assertThrows(IllegalArgumentException.class, () -> { new SnapshotCache<Integer, String>(String::valueOf, 1, -10); });
+    }
+
+    @Test
+    void throwsExceptionWhenFuncReturnsNullTest() {
+        final SnapshotCache<Integer, String> cache = new SnapshotCache<>(i -> null);
+        assertThrows(NullPointerException.class, () -> cache.get(1));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void basicSizeAndValueTest() {
+        final SnapshotCache<Integer, String> cache = new SnapshotCache<>(String::valueOf, 4, 60_000);
+        final int[] arr =  { 1, 3, 21, 5, 7, 8, 15, 2, 11, 21, 20,  2,  9, 21,  5, 17, 13,  6, 14, 16};
+        final int[] size = { 1, 2,  3, 4, 5, 6,  7, 8,  9,  9, 10, 10, 11, 11, 11, 12, 13, 14, 15, 16};
+        for (int i=0; i < arr.length; ++i) {
+            assertEquals(String.valueOf(arr[i]), cache.get(arr[i]));
+            assertEquals(size[i], cache.size());
+        }
+        assertEquals(16, cache.getInitCounter());
+    }
+
+    @Test
+    void snapshotCountsPendingHitsMissesAndLoadsTest() {
+        final SnapshotCache<Integer, String> cache = new SnapshotCache<>(i -> i < 0 ? null : String.valueOf(i), 4, 60_000);
+        for (int i=0; i < 6; ++i) {
+            cache.get(i);
+        }
+        assertEquals(2, cache.pendingSize());
+        // A hit of the pending values is counted, a hit of the snapshot table is not.
+        cache.get(5);
+        cache.get(0);
+        assertThrows(NullPointerException.class, () -> { cache.get(-1); });
+        final CacheStats stats = cache.snapshot();
+        assertEquals(1, stats.hitCount());
+        assertEquals(7, stats.missCount());
+        assertEquals(6, stats.loadSuccessCount());
+        assertEquals(1, stats.loadFailureCount());
+        assertEquals(6, stats.size());
+    }
+
+    @Test
+    void pendingValuesAreMergedAtThresholdTest() {
+        final SnapshotCache<Integer, String> cache = new SnapshotCache<>(String::valueOf, 10, 60_000);
+        for (int i=0; i < 9; ++i) {
+            cache.get(i);
+        }
+        assertEquals(9, cache.pendingSize());
+        cache.get(9);
+        assertEquals(0, cache.pendingSize());
+        assertEquals(10, cache.size());
+        for (int i=0; i < 10; ++i) {
+            assertEquals(String.valueOf(i), cache.get(i));
+        }
+        assertEquals(10, cache.getInitCounter());
+    }
+
+    @Test
+    void rebuildsGrowLogarithmicallyWithSizeTest() {
+        final SnapshotCache<Integer, String> cache = new SnapshotCache<>(String::valueOf, 64, 60_000);
+        final int n = 200_000;
+        for (int i=0; i < n; ++i) {
+            cache.get(i);
+        }
+        assertEquals(n, cache.size());
+        // A rebuild every 64 values would copy the table n / 64 times, quadratic in n.
+        assertTrue(cache.getRebuildCounter() < 50, "rebuilds: " + cache.getRebuildCounter());
+        for (int i=0; i < n; i += 997) {
+            assertEquals(String.valueOf(i), cache.get(i));
+        }
+    }
+
+    @Test
+    void pendingValuesAreMergedAfterDelayTest() throws InterruptedException {
+        final SnapshotCache<Integer, String> cache = new SnapshotCache<>(String::valueOf, 1_000, 10);
+        cache.get(1);
+        assertEquals(1, cache.pendingSize());
+        Thread.sleep(20);
+        assertEquals("1", cache.get(1));
+        assertEquals(0, cache.pendingSize());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void parallelRequestsTest() throws InterruptedException {
+        final SnapshotCache<Integer, String> cache = new SnapshotCache<>(String::valueOf, 16, 1);
+        final Runnable runnable = () -> {
+            final Random random = new Random();
+            for (int x=0; x < 50_000; ++x) {
+                final int key = random.nextInt(5_000);
+                assertEquals(String.valueOf(key), cache.get(key));
+            }
+        };
+        final Thread[] threads = new Thread[16];
+        for (int indx=0; indx < threads.length; ++indx) {
+            threads[indx] = new Thread(runnable);
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(cache.getInitCounter(), cache.size());
+        assertTrue(cache.getInitCounter() <= 5_000);
+    }
+}
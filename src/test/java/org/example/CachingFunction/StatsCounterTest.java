@@ -0,0 +1,78 @@
+package org.example.CachingFunction;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatsCounterTest {
+
+    @Test
+    void constructorThrowsWhenNameIsNullTest() {
+        assertThrows(NullPointerException.class, () -> { new StatsCounter(null); });
+    }
+
+    @Test
+    void bucketIsLog2OfMicrosecondsTest() {
+        assertEquals(0, StatsCounter.bucket(0L));
+        assertEquals(0, StatsCounter.bucket(1_999L));
+        assertEquals(1, StatsCounter.bucket(2_000L));
+        assertEquals(1, StatsCounter.bucket(3_999L));
+        assertEquals(10, StatsCounter.bucket(TimeUnit.MILLISECONDS.toNanos(1L) + 24_000L));
+        assertEquals(StatsCounter.HISTOGRAM_BUCKETS - 1, StatsCounter.bucket(Long.MAX_VALUE));
+    }
+
+    @Test
+    void snapshotSumsRecordedEventsTest() {
+        final StatsCounter counter = new StatsCounter("test", 0L);
+        counter.recordHit();
+        counter.recordHit();
+        counter.recordMiss();
+        counter.recordLoadSuccess(1, 1_000L);
+        counter.recordLoadFailure(2, 3_000L);
+        counter.recordEviction();
+
+        final CacheStats stats = counter.snapshot(7L);
+        assertEquals(2, stats.hitCount());
+        assertEquals(1, stats.missCount());
+        assertEquals(2.0 / 3.0, stats.hitRate(), 1e-9);
+        assertEquals(1, stats.loadSuccessCount());
+        assertEquals(1, stats.loadFailureCount());
+        assertEquals(1, stats.evictionCount());
+        assertEquals(4_000L, stats.totalLoadTimeNanos());
+        assertEquals(2_000.0, stats.averageLoadPenaltyNanos(), 1e-9);
+        assertEquals(1, stats.loadTimeHistogram()[0]);
+        assertEquals(1, stats.loadTimeHistogram()[1]);
+        assertEquals(7L, stats.size());
+    }
+
+    @Test
+    void emptySnapshotTest() {
+        final CacheStats stats = new StatsCounter("test").snapshot(0L);
+        assertEquals(1.0, stats.hitRate(), 1e-9);
+        assertEquals(0.0, stats.averageLoadPenaltyNanos(), 1e-9);
+        assertEquals(StatsCounter.HISTOGRAM_BUCKETS, stats.loadTimeHistogram().length);
+    }
+
+    @Test
+    void parallelRecordingTest() throws InterruptedException {
+        final StatsCounter counter = new StatsCounter("test");
+        final Runnable runnable = () -> {
+            for (int x=0; x < 100_000; ++x) {
+                counter.recordHit();
+            }
+        };
+        final Thread[] threads = new Thread[8];
+        for (int indx=0; indx < threads.length; ++indx) {
+            threads[indx] = new Thread(runnable);
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(800_000, counter.snapshot(0L).hitCount());
+    }
+}
@@ -2,6 +2,7 @@ package org.example.CachingFunction;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.Arrays;
 import java.util.function.Function;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -45,6 +46,25 @@ class SynchronizedCacheTest {
         assertEquals(13, cache.size());
     }
 
+    @Test
+    void snapshotCountsHitsMissesAndLoadsTest() {
+        final SynchronizedCache<Integer, String> cache = new SynchronizedCache<>(i -> 0 == i ? null : String.valueOf(i));
+        for (int i=0; i < 3; ++i) {
+            for (int key=1; key <= 10; ++key) {
+                cache.get(key);
+            }
+        }
+        assertThrows(NullPointerException.class, () -> cache.get(0));
+        final CacheStats stats = cache.snapshot();
+        assertEquals(20, stats.hitCount());
+        assertEquals(11, stats.missCount());
+        assertEquals(10, stats.loadSuccessCount());
+        assertEquals(1, stats.loadFailureCount());
+        assertEquals(0, stats.evictionCount());
+        assertEquals(10, stats.size());
+        assertEquals(11, Arrays.stream(stats.loadTimeHistogram()).sum());
+    }
+
     @Test
     void basicSizeAndValueTest() {
         final SynchronizedCache<Integer, String> cache = new SynchronizedCache<>(String::valueOf);
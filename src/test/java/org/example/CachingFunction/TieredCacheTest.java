@@ -0,0 +1,187 @@
+package org.example.CachingFunction;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TieredCacheTest {
+
+    private static final Serializer<Integer> INT_SERIALIZER = new Serializer<>() {
+        @Override
+        public byte[] serialize(Integer object) {
+            return ByteBuffer.allocate(Integer.BYTES).putInt(object).array();
+        }
+
+        @Override
+        public Integer deserialize(ByteBuffer buffer) {
+            return buffer.getInt(buffer.position());
+        }
+    };
+
+    private static final Serializer<String> STRING_SERIALIZER = new Serializer<>() {
+        @Override
+        public byte[] serialize(String object) {
+            return object.getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public String deserialize(ByteBuffer buffer) {
+            return StandardCharsets.UTF_8.decode(buffer).toString();
+        }
+    };
+
+    @TempDir
+    Path directory;
+
+    private TieredCache<Integer, String> open() throws IOException {
+        return new TieredCache<>(i -> "value-" + i, INT_SERIALIZER, STRING_SERIALIZER, directory, 1 << 20);
+    }
+
+    @Test
+    void constructorThrowsWhenParamsAreInvalidTest() {
+        assertThrows(NullPointerException.class, () -> { new TieredCache<Integer, String>(null, INT_SERIALIZER, STRING_SERIALIZER, directory); });
+        assertThrows(NullPointerException.class, () -> { new TieredCache<Integer, String>(String::valueOf, null, STRING_SERIALIZER, directory); });
+        assertThrows(NullPointerException.class, () -> { new TieredCache<Integer, String>(String::valueOf, INT_SERIALIZER, null, directory); });
+        assertThrows(NullPointerException.class, () -> { new TieredCache<Integer, String>(String::valueOf, INT_SERIALIZER, STRING_SERIALIZER, null); });
+        assertThrows(IllegalArgumentException.class, () -> { new TieredCache<Integer, String>(String::valueOf, INT_SERIALIZER, STRING_SERIALIZER, directory, 8); });
+    }
+
+    @Test
+    void basicSizeAndValueTest() throws IOException {
+        final TieredCache<Integer, String> cache = open();
+        final int[] arr =  { 1, 3, 21, 5, 7, 8, 15, 2, 11, 21, 20,  2,  9, 21,  5, 17, 13,  6, 14, 16};
+        final int[] size = { 1, 2,  3, 4, 5, 6,  7, 8,  9,  9, 10, 10, 11, 11, 11, 12, 13, 14, 15, 16};
+        for (int i=0; i < arr.length; ++i) {
+            assertEquals("value-" + arr[i], cache.get(arr[i]));
+            assertEquals(size[i], cache.size());
+        }
+        assertEquals(16, cache.getInitCounter());
+        assertEquals(16, cache.diskSize());
+        assertEquals(0, cache.getDiskHitCounter());
+        cache.close();
+    }
+
+    @Test
+    void restartServesHitsFromDiskTest() throws IOException {
+        final TieredCache<Integer, String> cache = open();
+        for (int i=0; i < 1000; ++i) {
+            cache.get(i);
+        }
+        cache.close();
+        assertTrue(Files.exists(directory.resolve(TieredCache.INDEX_FILE)));
+
+        final TieredCache<Integer, String> restarted = open();
+        assertEquals(1000, restarted.diskSize());
+        assertEquals(0, restarted.size());
+        for (int i=0; i < 1000; ++i) {
+            assertEquals("value-" + i, restarted.get(i));
+        }
+        assertEquals(0, restarted.getInitCounter());
+        assertEquals(1000, restarted.getDiskHitCounter());
+        // Second read is an in-memory hit.
+        restarted.get(1);
+        assertEquals(1000, restarted.getDiskHitCounter());
+        restarted.close();
+    }
+
+    @Test
+    void snapshotCountsDiskReadsAsHitsTest() throws IOException {
+        final TieredCache<Integer, String> cache = open();
+        for (int i=0; i < 10; ++i) {
+            cache.get(i);
+        }
+        cache.close();
+
+        final TieredCache<Integer, String> restarted = open();
+        for (int i=0; i < 20; ++i) {
+            restarted.get(i);
+        }
+        restarted.get(0);
+        final CacheStats stats = restarted.snapshot();
+        assertEquals(11, stats.hitCount());
+        assertEquals(10, stats.missCount());
+        assertEquals(10, stats.loadSuccessCount());
+        assertEquals(20, stats.size());
+        restarted.close();
+    }
+
+    @Test
+    void recordsAfterCheckpointAreReplayedTest() throws IOException {
+        final TieredCache<Integer, String> cache = open();
+        for (int i=0; i < 100; ++i) {
+            cache.get(i);
+        }
+        cache.checkpoint();
+        for (int i=100; i < 150; ++i) {
+            cache.get(i);
+        }
+        // No close(): the process is assumed to have crashed.
+
+        final TieredCache<Integer, String> restarted = open();
+        assertEquals(150, restarted.diskSize());
+        for (int i=0; i < 150; ++i) {
+            assertEquals("value-" + i, restarted.get(i));
+        }
+        assertEquals(0, restarted.getInitCounter());
+        restarted.close();
+    }
+
+    @Test
+    void logWithoutIndexIsReplayedTest() throws IOException {
+        final TieredCache<Integer, String> cache = open();
+        for (int i=0; i < 100; ++i) {
+            cache.get(i);
+        }
+        cache.close();
+        Files.delete(directory.resolve(TieredCache.INDEX_FILE));
+
+        final TieredCache<Integer, String> restarted = open();
+        assertEquals(100, restarted.diskSize());
+        assertEquals("value-42", restarted.get(42));
+        assertEquals(0, restarted.getInitCounter());
+        restarted.close();
+    }
+
+    @Test
+    void fullLogCachesInMemoryOnlyTest() throws IOException {
+        final TieredCache<Integer, String> cache = new TieredCache<>(i -> "value-" + i, INT_SERIALIZER, STRING_SERIALIZER, directory, 100);
+        for (int i=0; i < 10; ++i) {
+            assertEquals("value-" + i, cache.get(i));
+        }
+        assertEquals(10, cache.size());
+        assertTrue(cache.diskSize() < 10);
+        cache.close();
+    }
+
+    @Test
+    void parallelRequestsTest() throws InterruptedException, IOException {
+        final TieredCache<Integer, String> cache = open();
+        final Runnable runnable = () -> {
+            for (int x=0; x < 10; ++x) {
+                for (int i=0; i < 500; ++i) {
+                    assertEquals("value-" + i, cache.get(i));
+                }
+            }
+        };
+        final Thread[] threads = new Thread[16];
+        for (int indx=0; indx < threads.length; ++indx) {
+            threads[indx] = new Thread(runnable);
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(500, cache.getInitCounter());
+        assertEquals(500, cache.diskSize());
+        cache.close();
+    }
+}
@@ -0,0 +1,151 @@
+package org.example.CachingFunction;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TinyLfuCacheTest {
+
+    @Test
+    void constructorThrowsWhenFuncIsNullTest() {
+        assertThrows(NullPointerException.class, () -> { new TinyLfuCache<Integer, String>(null, 10); });
+    }
+
+    @Test
+    void constructorThrowsWhenMaximumSizeNotPositiveTest() {
+        assertThrows(IllegalArgumentException.class, () -> { new TinyLfuCache<Integer, String>(String::valueOf, 0); });
+    }
+
+    @Test
+    void throwsExceptionWhenFuncReturnsNullTest() {
+        final TinyLfuCache<Integer, String> cache = new TinyLfuCache<>(i -> null, 10);
+        assertThrows(NullPointerException.class, () -> cache.get(1));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void basicSizeAndValueTest() {
+        final TinyLfuCache<Integer, String> cache = new TinyLfuCache<>(String::valueOf, 100);
+        final int[] arr =  { 1, 3, 21, 5, 7, 8, 15, 2, 11, 21, 20,  2,  9, 21,  5, 17, 13,  6, 14, 16};
+        final int[] size = { 1, 2,  3, 4, 5, 6,  7, 8,  9,  9, 10, 10, 11, 11, 11, 12, 13, 14, 15, 16};
+        for (int i=0; i < arr.length; ++i) {
+            assertEquals(String.valueOf(arr[i]), cache.get(arr[i]));
+            assertEquals(size[i], cache.size());
+        }
+        assertEquals(16, cache.getInitCounter());
+    }
+
+    @Test
+    void sizeNeverExceedsMaximumTest() {
+        final TinyLfuCache<Integer, String> cache = new TinyLfuCache<>(String::valueOf, 50);
+        for (int i=0; i < 10_000; ++i) {
+            assertEquals(String.valueOf(i), cache.get(i));
+            assertTrue(cache.size() <= 50);
+        }
+        assertEquals(50, cache.size());
+    }
+
+    @Test
+    void snapshotCountsEvictionsTest() {
+        final TinyLfuCache<Integer, String> cache = new TinyLfuCache<>(String::valueOf, 50);
+        for (int i=0; i < 1_000; ++i) {
+            cache.get(i);
+        }
+        cache.get(999);
+        final CacheStats stats = cache.snapshot();
+        assertEquals(1, stats.hitCount());
+        assertEquals(1_000, stats.missCount());
+        assertEquals(1_000, stats.loadSuccessCount());
+        assertEquals(950, stats.evictionCount());
+        assertEquals(50, stats.size());
+    }
+
+    @Test
+    void frequentKeysSurviveScanTest() {
+        final AtomicInteger calls = new AtomicInteger(0);
+        final TinyLfuCache<Integer, String> cache = new TinyLfuCache<>(i -> {
+            calls.incrementAndGet();
+            return String.valueOf(i);
+        }, 100);
+        for (int round=0; round < 20; ++round) {
+            for (int i=0; i < 50; ++i) {
+                cache.get(i);
+            }
+        }
+        assertEquals(50, calls.get());
+
+        for (int i=1_000; i < 11_000; ++i) {
+            cache.get(i);
+        }
+        calls.set(0);
+        for (int i=0; i < 50; ++i) {
+            cache.get(i);
+        }
+        assertTrue(calls.get() < 5, "hot keys reloaded after scan: " + calls.get());
+    }
+
+    @Test
+    void skewedTrafficHitRateTest() {
+        final int maximumSize = 500;
+        final TinyLfuCache<Integer, String> cache = new TinyLfuCache<>(String::valueOf, maximumSize);
+        final Random random = new Random(42);
+        final int requests = 200_000;
+        for (int i=0; i < requests; ++i) {
+            // Roughly Zipfian: small keys are requested far more often than large ones.
+            final int key = (int) Math.floor(Math.pow(50_000, random.nextDouble()));
+            cache.get(key);
+        }
+        final double hitRate = 1.0 - (double) cache.getInitCounter() / requests;
+        System.out.println("hit rate: " + hitRate);
+        assertTrue(hitRate > 0.5, "hit rate too low: " + hitRate);
+        assertTrue(cache.size() <= maximumSize);
+    }
+
+    @Test
+    void parallelRequestsTest() throws InterruptedException {
+        final int MAX_REQUEST = 10_000;
+        final int THREADS_COUNT = 32;
+        final TinyLfuCache<Integer, String> cache = new TinyLfuCache<>(Object::toString, 1_000);
+
+        final Runnable runnable = () -> {
+            final Random random = new Random();
+            for (int x=0; x < MAX_REQUEST; ++x) {
+                final int key = random.nextInt(2_000);
+                assertEquals(String.valueOf(key), cache.get(key));
+            }
+        };
+        final Thread[] threads = new Thread[THREADS_COUNT];
+        for (int indx=0; indx < threads.length; ++indx) {
+            threads[indx] = new Thread(runnable);
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue(cache.size() <= 1_000);
+    }
+
+    @Test
+    void hotKeysAreOrderedByFrequencyTest() {
+        final TinyLfuCache<Integer, String> cache = new TinyLfuCache<>(String::valueOf, 100);
+        for (int i=0; i < 50; ++i) {
+            for (int x=0; x <= i % 5; ++x) {
+                cache.get(i);
+            }
+        }
+        final List<Integer> hotKeys = cache.hotKeys(10);
+        assertEquals(10, hotKeys.size());
+        for (Integer key : hotKeys) {
+            assertEquals(4, key % 5);
+        }
+        assertEquals(50, cache.hotKeys(1_000).size());
+        assertEquals(0, cache.hotKeys(0).size());
+        assertThrows(IllegalArgumentException.class, () -> cache.hotKeys(-1));
+    }
+}
@@ -0,0 +1,44 @@
+package org.example.CachingFunction;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UdpInvalidationTransportTest {
+
+    private static final InetSocketAddress ANY_PORT = new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+
+    @Test
+    void constructorThrowsWhenParamsAreInvalidTest() {
+        assertThrows(NullPointerException.class, () -> { new UdpInvalidationTransport(null, List.of()); });
+        assertThrows(NullPointerException.class, () -> { new UdpInvalidationTransport(ANY_PORT, null); });
+        assertThrows(NullPointerException.class, () -> { new UdpInvalidationTransport(ANY_PORT, List.of(), null); });
+    }
+
+    @Test
+    void broadcastReachesAllPeersTest() throws InterruptedException {
+        final UdpInvalidationTransport first = new UdpInvalidationTransport(ANY_PORT, List.of());
+        final UdpInvalidationTransport second = new UdpInvalidationTransport(ANY_PORT, List.of());
+        final UdpInvalidationTransport sender = new UdpInvalidationTransport(ANY_PORT,
+                List.of(first.getLocalAddress(), second.getLocalAddress()));
+        final LinkedBlockingQueue<byte[]> firstReceived = new LinkedBlockingQueue<>();
+        final LinkedBlockingQueue<byte[]> secondReceived = new LinkedBlockingQueue<>();
+        first.start(firstReceived::add);
+        second.start(secondReceived::add);
+        assertThrows(IllegalStateException.class, () -> { first.start(firstReceived::add); });
+
+        sender.broadcast(new byte[] { 1, 2, 3 });
+        assertArrayEquals(new byte[] { 1, 2, 3 }, firstReceived.poll(5, TimeUnit.SECONDS));
+        assertArrayEquals(new byte[] { 1, 2, 3 }, secondReceived.poll(5, TimeUnit.SECONDS));
+        assertThrows(IllegalArgumentException.class, () -> { sender.broadcast(new byte[sender.maxMessageSize() + 1]); });
+        sender.close();
+        first.close();
+        second.close();
+    }
+}
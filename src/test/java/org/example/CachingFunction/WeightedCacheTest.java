@@ -0,0 +1,162 @@
+package org.example.CachingFunction;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WeightedCacheTest {
+
+    @Test
+    void constructorThrowsWhenParamsAreInvalidTest() {
+        assertThrows(NullPointerException.class, () -> { new WeightedCache<Integer, byte[]>(null, (k, v) -> v.length, 100); });
+        assertThrows(NullPointerException.class, () -> { new WeightedCache<Integer, byte[]>(byte[]::new, null, 100); });
+        assertThrows(IllegalArgumentException.class, () -> { new WeightedCache<Integer, byte[]>(byte[]::new, (k, v) -> v.length, 0); });
+    }
+
+    @Test
+    void throwsExceptionWhenWeigherReturnsNegativeTest() {
+        final WeightedCache<Integer, String> cache = new WeightedCache<>(String::valueOf, (k, v) -> -1, 100);
+        assertThrows(IllegalArgumentException.class, () -> cache.get(1));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void weightAndRemainingWeightTest() {
+        final WeightedCache<Integer, byte[]> cache = new WeightedCache<>(byte[]::new, (k, v) -> v.length, 16_000);
+        assertEquals(0, cache.getWeight());
+        assertEquals(16_000, cache.getRemainingWeight());
+
+        cache.get(100);
+        cache.get(250);
+        cache.get(100);
+        assertEquals(2, cache.size());
+        assertEquals(350, cache.getWeight());
+        assertEquals(16_000 - 350, cache.getRemainingWeight());
+        assertEquals(2, cache.getInitCounter());
+    }
+
+    @Test
+    void weightNeverExceedsBudgetTest() {
+        final long budget = 64 * 1024;
+        final WeightedCache<Integer, byte[]> cache = new WeightedCache<>(i -> new byte[i % 1000], (k, v) -> v.length, budget);
+        final Random random = new Random(7);
+        for (int i=0; i < 20_000; ++i) {
+            final int key = random.nextInt(100_000);
+            assertEquals(key % 1000, cache.get(key).length);
+            assertTrue(cache.getWeight() <= budget);
+        }
+        assertTrue(cache.size() > 0);
+    }
+
+    @Test
+    void valueHeavierThanSegmentIsReturnedButNotCachedTest() {
+        final WeightedCache<Integer, byte[]> cache = new WeightedCache<>(byte[]::new, (k, v) -> v.length, 1_600);
+        assertEquals(5_000, cache.get(5_000).length);
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getWeight());
+    }
+
+    @Test
+    void valueHeavierThanSegmentShareIsCachedTest() {
+        // 16 segments share the budget, so 1_000 is above a sixteenth of it.
+        final WeightedCache<Integer, byte[]> cache = new WeightedCache<>(byte[]::new, (k, v) -> v.length, 1_600);
+        for (int i=10; i < 15; ++i) {
+            cache.get(i);
+        }
+        assertEquals(1_000, cache.get(1_000).length);
+        assertEquals(6, cache.size());
+        assertEquals(1_060, cache.getWeight());
+        final int loads = cache.getInitCounter();
+        cache.get(1_000);
+        assertEquals(loads, cache.getInitCounter());
+    }
+
+    @Test
+    void valueHeavierThanSegmentShareEvictsAcrossSegmentsTest() {
+        final WeightedCache<Integer, byte[]> cache = new WeightedCache<>(byte[]::new, (k, v) -> v.length, 1_600);
+        for (int i=0; i < 16; ++i) {
+            cache.get(50 + i);
+        }
+        assertEquals(16, cache.size());
+        assertEquals(920, cache.getWeight());
+        assertEquals(1_500, cache.get(1_500).length);
+        assertTrue(cache.getWeight() <= 1_600);
+        final int loads = cache.getInitCounter();
+        cache.get(1_500);
+        assertEquals(loads, cache.getInitCounter());
+    }
+
+    @Test
+    void valueHeavierThanBudgetDoesNotEvictTest() {
+        final WeightedCache<Integer, byte[]> cache = new WeightedCache<>(byte[]::new, (k, v) -> v.length, 1_600);
+        for (int i=0; i < 16; ++i) {
+            cache.get(i);
+        }
+        final long weight = cache.getWeight();
+        assertEquals(1_601, cache.get(1_601).length);
+        assertEquals(16, cache.size());
+        assertEquals(weight, cache.getWeight());
+    }
+
+    @Test
+    void referencedEntriesSurviveEvictionTest() {
+        // Every key maps to the same segment, so this exercises a single CLOCK queue with a budget of 10 entries.
+        final WeightedCache<Integer, String> cache = new WeightedCache<>(String::valueOf, (k, v) -> 1, 160);
+        final int[] keys = new int[20];
+        for (int i=0; i < keys.length; ++i) {
+            keys[i] = i * 16;
+        }
+        for (int i=0; i < 10; ++i) {
+            cache.get(keys[i]);
+        }
+        cache.get(keys[0]);
+        for (int i=10; i < 15; ++i) {
+            cache.get(keys[i]);
+        }
+        final int loads = cache.getInitCounter();
+        cache.get(keys[0]);
+        assertEquals(loads, cache.getInitCounter());
+        assertTrue(cache.getWeight() <= 160);
+    }
+
+    @Test
+    void snapshotCountsHitsMissesAndEvictionsTest() {
+        final WeightedCache<Integer, String> cache = new WeightedCache<>(String::valueOf, (k, v) -> 1, 50);
+        for (int i=0; i < 1_000; ++i) {
+            cache.get(i);
+        }
+        cache.get(999);
+        final CacheStats stats = cache.snapshot();
+        assertEquals(1, stats.hitCount());
+        assertEquals(1_000, stats.missCount());
+        assertEquals(1_000, stats.loadSuccessCount());
+        assertEquals(950, stats.evictionCount());
+        assertEquals(50, stats.size());
+    }
+
+    @Test
+    void parallelRequestsTest() throws InterruptedException {
+        final long budget = 32 * 1024;
+        final WeightedCache<Integer, byte[]> cache = new WeightedCache<>(i -> new byte[i % 512], (k, v) -> v.length, budget);
+        final Runnable runnable = () -> {
+            final Random random = new Random();
+            for (int x=0; x < 20_000; ++x) {
+                final int key = random.nextInt(5_000);
+                assertEquals(key % 512, cache.get(key).length);
+            }
+        };
+        final Thread[] threads = new Thread[16];
+        for (int indx=0; indx < threads.length; ++indx) {
+            threads[indx] = new Thread(runnable);
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue(cache.getWeight() <= budget);
+    }
+}
@@ -0,0 +1,78 @@
+package org.example.DeadlineEngine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlotTableTest {
+
+    @Test
+    void reserveSetGetRemoveTest() {
+        final SlotTable<String> table = new SlotTable<>();
+        final long id = table.reserve();
+        assertTrue(id > 0L);
+        assertEquals(1, table.size());
+        assertNull(table.get(id));
+        table.set(id, "a");
+        assertEquals("a", table.get(id));
+        assertEquals("a", table.remove(id));
+        assertEquals(0, table.size());
+        assertNull(table.get(id));
+        assertNull(table.remove(id));
+    }
+
+    @Test
+    void reusedSlotRejectsStaleIdTest() {
+        final SlotTable<String> table = new SlotTable<>();
+        final long id = table.reserve();
+        table.set(id, "a");
+        table.remove(id);
+        final long reused = table.reserve();
+        table.set(reused, "b");
+        assertEquals(SlotTable.slotOf(id), SlotTable.slotOf(reused));
+        assertNotEquals(id, reused);
+        assertNull(table.get(id));
+        assertNull(table.remove(id));
+        assertEquals("b", table.get(reused));
+    }
+
+    @Test
+    void invalidIdsAreRejectedTest() {
+        final SlotTable<String> table = new SlotTable<>();
+        table.set(table.reserve(), "a");
+        assertNull(table.get(0L));
+        assertNull(table.get(-1L));
+        assertNull(table.get(Long.MAX_VALUE));
+        assertNull(table.get(SlotTable.id(1_000, 1)));
+    }
+
+    @Test
+    void idsAreUniqueAndTableGrowsTest() {
+        final SlotTable<Long> table = new SlotTable<>();
+        final HashSet<Long> ids = new HashSet<>();
+        for (int i=0; i < 1_000; ++i) {
+            final long id = table.reserve();
+            table.set(id, id);
+            assertTrue(ids.add(id));
+        }
+        for (long id : ids) {
+            assertEquals(id, table.get(id).longValue());
+        }
+        final List<Long> values = new ArrayList<>();
+        table.forEach(values::add);
+        assertEquals(ids, new HashSet<>(values));
+    }
+
+    @Test
+    void generationsStayPositiveTest() {
+        assertEquals(2, SlotTable.nextGeneration(1));
+        assertEquals(1, SlotTable.nextGeneration(Integer.MAX_VALUE));
+        assertTrue(SlotTable.id(Integer.MAX_VALUE - 1, Integer.MAX_VALUE) > 0L);
+        assertEquals(7, SlotTable.slotOf(SlotTable.id(7, 3)));
+        assertEquals(3, SlotTable.generationOf(SlotTable.id(7, 3)));
+    }
+}
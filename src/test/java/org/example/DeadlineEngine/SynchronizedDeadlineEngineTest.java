@@ -1,11 +1,17 @@
 package org.example.DeadlineEngine;
 
+import com.sun.management.ThreadMXBean;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -117,6 +123,142 @@ class SynchronizedDeadlineEngineTest {
         assertEquals(N-3, engine.size());
     }
 
+    @Test
+    void staleIdIsRejectedTest() {
+        final long id = engine.schedule(100);
+        assertTrue(engine.cancel(id));
+        assertFalse(engine.cancel(id));
+        final long reused = engine.schedule(200);
+        assertNotEquals(id, reused);
+        assertFalse(engine.cancel(id));
+        assertEquals(1, engine.poll(200, null, 1));
+        assertFalse(engine.cancel(reused));
+        assertEquals(0, engine.size());
+    }
+
+    @Test
+    void pollLongDelegatesToPollTest() {
+        final long id = engine.schedule(100);
+        engine.schedule(200);
+        final HashSet<Long> fired = new HashSet<>();
+        assertEquals(0, engine.pollLong(99, fired::add, 10));
+        assertEquals(1, engine.pollLong(150, fired::add, 10));
+        assertTrue(fired.contains(id));
+        assertEquals(1, engine.pollLong(200, null, 10));
+        assertEquals(0, engine.size());
+    }
+
+    @Test
+    void constructorThrowsWhenParamsAreInvalidTest() {
+        assertThrows(NullPointerException.class, () -> { new SynchronizedDeadlineEngine(null); });
+    }
+
+    @Test
+    void handlersRunWithoutLockTest() {
+        engine.schedule(100);
+        engine.schedule(100);
+        final List<Long> scheduled = new CopyOnWriteArrayList<>();
+        assertEquals(2, engine.poll(100, id -> {
+            assertFalse(Thread.holdsLock(engine));
+            // Another thread can schedule while the handler runs.
+            final Thread thread = new Thread(() -> scheduled.add(engine.schedule(200)));
+            thread.start();
+            try {
+                thread.join(5_000);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        }, 10));
+        assertEquals(2, scheduled.size());
+        assertEquals(2, engine.size());
+    }
+
+    @Test
+    void failingHandlerDoesNotLoseBatchTest() {
+        final List<Long> errors = new CopyOnWriteArrayList<>();
+        final SynchronizedDeadlineEngine collectingEngine = new SynchronizedDeadlineEngine((id, e) -> errors.add(id));
+        final long id1 = collectingEngine.schedule(100);
+        final long id2 = collectingEngine.schedule(101);
+        final long id3 = collectingEngine.schedule(102);
+        final HashSet<Long> fired = new HashSet<>();
+        assertEquals(2, collectingEngine.poll(200, id -> {
+            fired.add(id);
+            if (id == id2) {
+                throw new IllegalStateException("handler failure");
+            }
+        }, 10));
+        assertEquals(new HashSet<>(List.of(id1, id2, id3)), fired);
+        assertEquals(List.of(id2), errors);
+        assertEquals(0, collectingEngine.size());
+        assertFalse(collectingEngine.cancel(id2));
+    }
+
+    @Test
+    void cancelFromHandlerReturnsFalseForDispatchedDeadlineTest() {
+        final long id1 = engine.schedule(100);
+        final long id2 = engine.schedule(101);
+        final long id3 = engine.schedule(300);
+        final List<Boolean> cancelled = new ArrayList<>();
+        assertEquals(2, engine.poll(200, id -> {
+            if (id == id1) {
+                cancelled.add(engine.cancel(id2));
+                cancelled.add(engine.cancel(id3));
+            }
+        }, 10));
+        assertEquals(List.of(false, true), cancelled);
+        assertEquals(0, engine.size());
+    }
+
+    @Test
+    void defaultErrorHandlerUsesUncaughtExceptionHandlerTest() {
+        final List<Throwable> uncaught = new CopyOnWriteArrayList<>();
+        final Thread.UncaughtExceptionHandler previous = Thread.getDefaultUncaughtExceptionHandler();
+        Thread.setDefaultUncaughtExceptionHandler((thread, e) -> uncaught.add(e));
+        try {
+            final IllegalStateException failure = new IllegalStateException("handler failure");
+            engine.schedule(100);
+            assertEquals(0, engine.poll(100, id -> { throw failure; }, 10));
+            assertEquals(List.of(failure), uncaught);
+        } finally {
+            Thread.setDefaultUncaughtExceptionHandler(previous);
+        }
+    }
+
+    @Test
+    void defaultErrorHandlerUsesThreadUncaughtExceptionHandlerTest() throws InterruptedException {
+        final List<Throwable> uncaught = new CopyOnWriteArrayList<>();
+        final IllegalStateException failure = new IllegalStateException("handler failure");
+        engine.schedule(100);
+        final Thread poller = new Thread(() -> engine.poll(100, id -> { throw failure; }, 10));
+        poller.setUncaughtExceptionHandler((thread, e) -> uncaught.add(e));
+        poller.start();
+        poller.join();
+        assertEquals(List.of(failure), uncaught);
+        assertEquals(0, engine.size());
+    }
+
+    @Test
+    void pollAllocationDoesNotGrowWithLiveDeadlinesTest() {
+        final ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        final long threadId = Thread.currentThread().getId();
+        for (int i=0; i < 200_000; ++i) {
+            engine.schedule(1_000_000 + i);
+        }
+        final long[] sum = new long[1];
+        final Consumer<Long> handler = id -> sum[0] += id;
+        // Warms up the poll path, so that the measured poll does not count class loading.
+        engine.schedule(50);
+        assertEquals(1, engine.poll(50, handler, Integer.MAX_VALUE));
+        engine.schedule(100);
+        final long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        final int fired = engine.poll(100, handler, Integer.MAX_VALUE);
+        final long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        // A batch sized by the 200k live deadlines would take 1.6 MB.
+        assertEquals(1, fired);
+        assertTrue(allocated < 4_096, "allocated " + allocated + " bytes");
+        assertTrue(sum[0] > 0L);
+    }
+
     @Test
     void simpleUsageTest() {
         System.out.println("engine [" + engine.size() + "]: " + engine);
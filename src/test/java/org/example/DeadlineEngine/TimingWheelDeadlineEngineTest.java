@@ -0,0 +1,403 @@
+package org.example.DeadlineEngine;
+
+import com.sun.management.ThreadMXBean;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelDeadlineEngineTest {
+
+    private TimingWheelDeadlineEngine engine;
+
+    @BeforeEach
+    void setup() {
+        engine = new TimingWheelDeadlineEngine();
+    }
+
+    @Test
+    void scheduleReturnsErrorWhenWrongParamTest() {
+        assertEquals(-1, engine.schedule(-1L));
+    }
+
+    @Test
+    void scheduleReturnsUniqueScheduleIdTest() {
+        HashSet<Long> set = new HashSet<Long>();
+        final int N = 10;
+        for (int i=0; i < N; ++i) {
+            set.add(engine.schedule(100));
+        }
+        assertEquals(N, set.size());
+    }
+
+    @Test
+    void scheduleIncreasesSizeTest() {
+        final int N = 10;
+        for (int i=0; i < N; ++i) {
+            engine.schedule(100);
+        }
+        assertEquals(N, engine.size());
+    }
+
+    @Test
+    void cancelNoopWhenWrongIdTest() {
+        final long invalidId = 0L;
+        long id = engine.schedule(100);
+        assertEquals(1, engine.size());
+        assertFalse(engine.cancel(invalidId));
+        assertEquals(1, engine.size());
+    }
+
+    @Test
+    void cancelDecreasesSizeTest() {
+        long id = engine.schedule(100);
+        assertEquals(1, engine.size());
+        assertTrue(engine.cancel(id));
+        assertEquals(0, engine.size());
+    }
+
+    @Test
+    void randomCancelOrderDecreasesSizeTest() {
+        HashMap<Long, Long> map = new HashMap<>();
+        final int N = 10;
+        for (int i=0; i < N; ++i) {
+            map.put(engine.schedule(100), 100L);
+        }
+        assertEquals(N, engine.size());
+        int size = N;
+        for (long id: map.keySet()) {
+            engine.cancel(id);
+            assertEquals(--size, engine.size());
+        }
+        assertEquals(0, engine.size());
+    }
+
+    @Test
+    void pollErrorsWhenWrongParamsTest() {
+        engine.schedule(100);
+        assertEquals(0, engine.poll(-1, null, 1));
+        assertEquals(0, engine.poll(101, null, -1));
+        assertEquals(0, engine.poll(101, null, 0));
+        assertEquals(0, engine.poll(-1, null, -1));
+    }
+
+    @Test
+    void pollRemovesOnlyExpiredDeadlinesTest() {
+        engine.schedule(100);
+        assertEquals(1, engine.size());
+        assertEquals(0, engine.poll(99, null, 1));
+        assertEquals(1, engine.size());
+        assertEquals(1, engine.poll(100, null, 1));
+        assertEquals(0, engine.size());
+    }
+
+    @Test
+    void pollRemovesMaxPollExpiredDeadlinesAtMostTest() {
+        final int N = 10;
+        final int maxPoll = 5;
+        for (int i=0; i < N; ++i) {
+            engine.schedule(100);
+        }
+        assertEquals(N, engine.size());
+        assertEquals(maxPoll, engine.poll(100, null, maxPoll));
+        assertEquals(N-maxPoll, engine.size());
+    }
+
+    @Test
+    void pollDoesNotRemoveFutureDeadlinesTest() {
+        final int N = 10;
+        for (int i=0; i < N; ++i) {
+            engine.schedule(100 + i * 10);
+        }
+        assertEquals(N, engine.size());
+        assertEquals(3, engine.poll(120, null, N));
+        assertEquals(N-3, engine.size());
+    }
+
+    @Test
+    void simpleUsageTest() {
+        System.out.println("engine [" + engine.size() + "]: " + engine);
+        engine.poll(1, null, 1);
+        engine.poll(1, id -> System.out.println("this should not be triggered, id: " + id), 1);
+        assertEquals(0, engine.size());
+
+        long id1 = engine.schedule(60L);
+        System.out.println("engine [" + engine.size() + "]: " + engine);
+        assertEquals(1, engine.size());
+        engine.poll(59, id -> System.out.println("triggered schedule with id " + id), 1);
+        assertEquals(1, engine.size());
+
+        long id2 = engine.schedule(90L);
+        System.out.println("engine [" + engine.size() + "]: " + engine);
+        assertEquals(2, engine.size());
+        engine.poll(89, id -> System.out.println("triggered schedule with id " + id), 1);
+        assertEquals(1, engine.size());
+
+        long id3 = engine.schedule(110L);
+        System.out.println("engine [" + engine.size() + "]: " + engine);
+        assertEquals(2, engine.size());
+
+        engine.cancel(id2);
+        assertEquals(1, engine.size());
+
+        long id4 = engine.schedule(120L);
+        System.out.println("engine [" + engine.size() + "]: " + engine);
+        assertEquals(2, engine.size());
+
+        engine.poll(120, id -> System.out.println("triggered schedule with id " + id), 3);
+        System.out.println("engine [" + engine.size() + "]: " + engine);
+        assertEquals(0, engine.size());
+
+        long id5 = engine.schedule(150L);
+        long id6 = engine.schedule(151L);
+        long id7 = engine.schedule(152L);
+        long id8 = engine.schedule(153L);
+        long id9 = engine.schedule(154L);
+        System.out.println("engine [" + engine.size() + "]: " + engine);
+        assertEquals(5, engine.size());
+
+        engine.poll(155, id -> System.out.println("triggered schedule with id " + id), 3);
+        System.out.println("engine [" + engine.size() + "]: " + engine);
+        assertEquals(2, engine.size());
+
+        engine.poll(155, id -> System.out.println("triggered schedule with id " + id), 3);
+        System.out.println("engine [" + engine.size() + "]: " + engine);
+        assertEquals(0, engine.size());
+    }
+
+    @Test
+    void multiThreadingTest() {
+        ConcurrentLinkedQueue<Long> queue = new ConcurrentLinkedQueue<>();
+
+        Runnable generatorRunnable = new Runnable() {
+            @Override
+            public void run() {
+                long threadId = Thread.currentThread().getId();
+                int counter = 0;
+                System.out.println(Thread.currentThread().getName() + " [" + Thread.currentThread().getId() + "]: Starting generator thread..");
+                for (long deadline=100L; deadline < 10_000L; deadline += 100L ) {
+                    long scheduleId = engine.schedule(System.currentTimeMillis() + deadline + threadId);
+                    queue.add(scheduleId);
+                    ++counter;
+                    try {
+                        Thread.sleep(10);
+                    } catch(InterruptedException e) {
+                        System.out.println(Thread.currentThread().getName() + " [" + Thread.currentThread().getId() + "] Exception caught: " + e);
+                    }
+                }
+                System.out.println(Thread.currentThread().getName() + " [" + Thread.currentThread().getId() + "]: Generator thread completed. Number of deadlines scheduled: " + counter);
+            }
+        };
+        Runnable pollingRunnable = new Runnable() {
+            @Override
+            public void run() {
+                int counter = 0;
+                try {
+                    Thread.sleep(50);
+                    while (engine.size() > 0) {
+                        System.out.println("engine size: " + engine.size());
+                        counter += engine.poll(System.currentTimeMillis(), id -> System.out.println("triggered schedule with id " + id), 3);
+                        Thread.sleep(10);
+                    }
+                } catch(InterruptedException e) {
+                    System.out.println(Thread.currentThread().getName() + " [" + Thread.currentThread().getId() + "] Exception caught: " + e);
+                }
+                System.out.println(Thread.currentThread().getName() + " [" + Thread.currentThread().getId() + "] Polling thread completed. Number of triggered deadlines: " + counter);
+            }
+        };
+
+        try {
+            Thread pollingThread1 = new Thread(pollingRunnable);
+            Thread generatorThread1 = new Thread(generatorRunnable);
+            Thread generatorThread2 = new Thread(generatorRunnable);
+            Thread generatorThread3 = new Thread(generatorRunnable);
+            System.out.println("engine [" + engine.size() + "]: " + engine);
+            assertEquals(0, engine.size());
+
+            pollingThread1.start();
+            generatorThread1.start();
+            assertTrue(engine.size() <= 99);
+
+            generatorThread2.start();
+            assertTrue(engine.size() <= 2*99);
+
+            generatorThread3.start();
+            assertTrue(engine.size() <= 3*99);
+
+            generatorThread1.join();
+            assertTrue(engine.size() <= 3*99);
+
+            generatorThread2.join();
+            assertTrue(engine.size() <= 3*99);
+
+            generatorThread3.join();
+            assertTrue(engine.size() <= 3*99);
+
+            pollingThread1.join();
+            assertEquals(0, engine.size());
+        } catch(InterruptedException e) {
+            System.out.println("Caught exception: " + e);
+        }
+        System.out.println("engine [" + engine.size() + "]: " + engine);
+    }
+
+    @Test
+    void farFutureDeadlinesTest() {
+        final long now = System.currentTimeMillis();
+        final long[] timeouts = { now + 1L, now + 64L, now + 4_096L, now + (1L << 30), now + (1L << 40), Long.MAX_VALUE };
+        for (long timeout : timeouts) {
+            engine.schedule(timeout);
+        }
+        assertEquals(timeouts.length, engine.size());
+        assertEquals(0, engine.poll(now, null, 10));
+        for (int i=0; i < timeouts.length; ++i) {
+            assertEquals(0, engine.poll(timeouts[i] - 1L, null, 10));
+            assertEquals(1, engine.poll(timeouts[i], null, 10));
+            assertEquals(timeouts.length - i - 1, engine.size());
+        }
+    }
+
+    @Test
+    void unfiredExpiredDeadlinesStayAvailableTest() {
+        for (int i=0; i < 10; ++i) {
+            engine.schedule(100 + i);
+        }
+        final HashSet<Long> fired = new HashSet<>();
+        assertEquals(4, engine.poll(1_000, fired::add, 4));
+        assertEquals(4, engine.poll(1_000, fired::add, 4));
+        assertEquals(2, engine.poll(1_000, fired::add, 4));
+        assertEquals(10, fired.size());
+        assertEquals(0, engine.size());
+    }
+
+    @Test
+    void pollWithEarlierTimeFiresOnlyExpiredDeadlinesTest() {
+        final long id150 = engine.schedule(150);
+        final long id160 = engine.schedule(160);
+        final List<Long> fired = new ArrayList<>();
+        assertEquals(1, engine.poll(200, fired::add, 1));
+        final long remaining = fired.get(0) == id150 ? id160 : id150;
+        final int expected = remaining == id150 ? 1 : 0;
+        assertEquals(expected, engine.poll(155, fired::add, 10));
+        assertEquals(1 - expected, engine.size());
+    }
+
+    @Test
+    void cancelExpiredDeadlineTest() {
+        final long id = engine.schedule(100);
+        engine.schedule(100);
+        assertEquals(1, engine.poll(200, null, 1));
+        assertEquals(1, engine.size());
+        final boolean cancelled = engine.cancel(id);
+        assertEquals(cancelled ? 0 : 1, engine.size());
+        assertEquals(cancelled ? 0 : 1, engine.poll(200, null, 1));
+        assertEquals(0, engine.size());
+    }
+
+    @Test
+    void constructorThrowsWhenParamsAreInvalidTest() {
+        assertThrows(NullPointerException.class, () -> { new TimingWheelDeadlineEngine(null); });
+    }
+
+    @Test
+    void handlersRunWithoutLockTest() {
+        final long id1 = engine.schedule(100);
+        final long id2 = engine.schedule(100);
+        final List<Boolean> cancelled = new ArrayList<>();
+        assertEquals(2, engine.poll(100, id -> {
+            assertFalse(Thread.holdsLock(engine));
+            // The whole batch is removed before the first handler is called.
+            cancelled.add(engine.cancel(id == id1 ? id2 : id1));
+        }, 10));
+        assertEquals(List.of(false, false), cancelled);
+        assertEquals(0, engine.size());
+    }
+
+    @Test
+    void failingHandlerDoesNotLoseBatchTest() {
+        final List<Long> errors = new CopyOnWriteArrayList<>();
+        final TimingWheelDeadlineEngine collectingEngine = new TimingWheelDeadlineEngine((id, e) -> errors.add(id));
+        final long id1 = collectingEngine.schedule(100);
+        final long id2 = collectingEngine.schedule(101);
+        final long id3 = collectingEngine.schedule(102);
+        final HashSet<Long> fired = new HashSet<>();
+        assertEquals(2, collectingEngine.poll(200, id -> {
+            fired.add(id);
+            if (id == id2) {
+                throw new IllegalStateException("handler failure");
+            }
+        }, 10));
+        assertEquals(new HashSet<>(List.of(id1, id2, id3)), fired);
+        assertEquals(List.of(id2), errors);
+        assertEquals(0, collectingEngine.size());
+    }
+
+    @Test
+    void pollAllocationDoesNotGrowWithLiveDeadlinesTest() {
+        final ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        final long threadId = Thread.currentThread().getId();
+        for (int i=0; i < 200_000; ++i) {
+            engine.schedule(1_000_000 + i);
+        }
+        final long[] sum = new long[1];
+        final Consumer<Long> handler = id -> sum[0] += id;
+        // Warms up the poll path, so that the measured poll does not count class loading.
+        engine.schedule(50);
+        assertEquals(1, engine.poll(50, handler, Integer.MAX_VALUE));
+        engine.schedule(100);
+        final long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        final int fired = engine.poll(100, handler, Integer.MAX_VALUE);
+        final long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        // A batch sized by the 200k live deadlines would take 800 KB or more.
+        assertEquals(1, fired);
+        assertTrue(allocated < 4_096, "allocated " + allocated + " bytes");
+        assertTrue(sum[0] > 0L);
+    }
+
+    @Test
+    void matchesSynchronizedDeadlineEngineTest() {
+        final SynchronizedDeadlineEngine reference = new SynchronizedDeadlineEngine();
+        final HashMap<Long, Long> timeouts = new HashMap<>();
+        final HashMap<Long, Long> referenceTimeouts = new HashMap<>();
+        final List<Long> ids = new ArrayList<>();
+        final List<Long> referenceIds = new ArrayList<>();
+        final Random random = new Random(42);
+        long now = 1_700_000_000_000L;
+        for (int step=0; step < 20_000; ++step) {
+            final int action = random.nextInt(10);
+            if (action < 6) {
+                final long timeout = now + (random.nextLong() & ((1L << random.nextInt(40)) - 1L)) - 10L;
+                final long id = engine.schedule(timeout);
+                final long referenceId = reference.schedule(timeout);
+                timeouts.put(id, timeout);
+                referenceTimeouts.put(referenceId, timeout);
+                ids.add(id);
+                referenceIds.add(referenceId);
+            } else if (action < 8 && !ids.isEmpty()) {
+                final int index = random.nextInt(ids.size());
+                assertEquals(reference.cancel(referenceIds.get(index)), engine.cancel(ids.get(index)));
+            } else {
+                now += random.nextInt(1 << random.nextInt(20));
+                final List<Long> fired = new ArrayList<>();
+                final List<Long> referenceFired = new ArrayList<>();
+                final int count = engine.poll(now, id -> fired.add(timeouts.get(id)), Integer.MAX_VALUE);
+                final int referenceCount = reference.poll(now, id -> referenceFired.add(referenceTimeouts.get(id)), Integer.MAX_VALUE);
+                assertEquals(referenceCount, count);
+                Collections.sort(fired);
+                assertEquals(referenceFired, fired);
+            }
+            assertEquals(reference.size(), engine.size());
+        }
+    }
+}